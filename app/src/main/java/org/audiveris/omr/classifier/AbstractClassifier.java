@@ -31,6 +31,7 @@ import org.audiveris.omr.math.PoorManAlgebra.DataSet;
 import org.audiveris.omr.math.PoorManAlgebra.INDArray;
 import org.audiveris.omr.math.PoorManAlgebra.Nd4j;
 import org.audiveris.omr.sheet.Scale;
+import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.util.StopWatch;
 import org.audiveris.omr.util.UriUtil;
@@ -134,7 +135,28 @@ public abstract class AbstractClassifier<M extends Object>
                                   double minGrade,
                                   EnumSet<Condition> conditions)
     {
-        return evaluate(glyph, null, count, minGrade, conditions, interline);
+        final Evaluation[] evals = getSortedEvaluations(glyph, interline);
+
+        return select(evals, glyph, null, count, minGrade, conditions);
+    }
+
+    //----------//
+    // evaluate //
+    //----------//
+    @Override
+    public Evaluation[] evaluate (Glyph glyph,
+                                  Sheet sheet,
+                                  int interline,
+                                  int count,
+                                  double minGrade,
+                                  EnumSet<Classifier.Condition> conditions)
+    {
+        final Evaluation[] evals = getSortedEvaluations(
+                glyph,
+                interline,
+                sheet.getEvaluationCache());
+
+        return select(evals, glyph, null, count, minGrade, conditions);
     }
 
     //----------//
@@ -147,54 +169,79 @@ public abstract class AbstractClassifier<M extends Object>
                                   double minGrade,
                                   EnumSet<Classifier.Condition> conditions)
     {
-        final int interline = system.getSheet().getInterline();
+        final Sheet sheet = system.getSheet();
+        final Evaluation[] evals = getSortedEvaluations(
+                glyph,
+                sheet.getInterline(),
+                sheet.getEvaluationCache());
 
-        return evaluate(glyph, system, count, minGrade, conditions, interline);
+        return select(evals, glyph, system, count, minGrade, conditions);
     }
 
     //----------//
     // evaluate //
     //----------//
-    private Evaluation[] evaluate (Glyph glyph,
-                                   SystemInfo system,
-                                   int count,
-                                   double minGrade,
-                                   EnumSet<Classifier.Condition> conditions,
-                                   int interline)
+    @Override
+    public Evaluation[][] evaluate (List<Glyph> glyphs,
+                                    SystemInfo system,
+                                    int count,
+                                    double minGrade,
+                                    EnumSet<Classifier.Condition> conditions)
     {
-        List<Evaluation> bests = new ArrayList<>();
-        Evaluation[] evals = getSortedEvaluations(glyph, interline);
+        final Sheet sheet = system.getSheet();
+        final int interline = sheet.getInterline();
+        final EvaluationCache cache = sheet.getEvaluationCache();
+        final Evaluation[][] sorted = new Evaluation[glyphs.size()][];
+        final List<Glyph> unknowns = new ArrayList<>();
 
-        EvalsLoop:
-        for (Evaluation eval : evals) {
-            // Bounding test?
-            if ((bests.size() >= count) || (eval.grade < minGrade)) {
-                break;
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = cache.get(this, glyphs.get(i), interline);
+
+            if (sorted[i] == null) {
+                unknowns.add(glyphs.get(i));
             }
+        }
 
-            // Successful checks?
-            if ((conditions != null) && conditions.contains(Condition.CHECKED)) {
-                // This may change the eval shape in only one case:
-                // HW_REST_set may be changed for HALF_REST or WHOLE_REST based on pitch
-                glyphChecker.annotate(system, eval, glyph);
+        if (!unknowns.isEmpty()) {
+            final Evaluation[][] computed = getSortedEvaluations(unknowns, interline);
+            int u = 0;
 
-                if (eval.failure != null) {
-                    continue;
+            for (int i = 0; i < sorted.length; i++) {
+                if (sorted[i] == null) {
+                    sorted[i] = computed[u++];
+                    cache.put(this, glyphs.get(i), interline, sorted[i]);
                 }
             }
+        }
 
-            // Everything is OK, add the shape if not already in the list
-            // (this can happen when checks have modified the eval original shape)
-            for (Evaluation e : bests) {
-                if (e.shape == eval.shape) {
-                    continue EvalsLoop;
-                }
-            }
+        final Evaluation[][] results = new Evaluation[glyphs.size()][];
 
-            bests.add(eval);
+        for (int i = 0; i < results.length; i++) {
+            results[i] = select(sorted[i], glyphs.get(i), system, count, minGrade, conditions);
         }
 
-        return bests.toArray(new Evaluation[bests.size()]);
+        return results;
+    }
+
+    //---------------//
+    // evaluateBatch //
+    //---------------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This default implementation simply evaluates one glyph after the other.
+     */
+    @Override
+    public Evaluation[][] evaluateBatch (List<Glyph> glyphs,
+                                         int interline)
+    {
+        final Evaluation[][] results = new Evaluation[glyphs.size()][];
+
+        for (int i = 0; i < results.length; i++) {
+            results[i] = getNaturalEvaluations(glyphs.get(i), interline);
+        }
+
+        return results;
     }
 
     //---------------//
@@ -278,6 +325,75 @@ public abstract class AbstractClassifier<M extends Object>
         }
     }
 
+    //----------------------//
+    // getSortedEvaluations //
+    //----------------------//
+    /**
+     * Report the sorted evaluations of the provided glyph, using the provided cache.
+     *
+     * @param glyph     the glyph to be examined
+     * @param interline the relevant interline
+     * @param cache     the cache of evaluations
+     * @return the ordered best evaluations
+     */
+    private Evaluation[] getSortedEvaluations (Glyph glyph,
+                                               int interline,
+                                               EvaluationCache cache)
+    {
+        Evaluation[] evals = cache.get(this, glyph, interline);
+
+        if (evals == null) {
+            evals = getSortedEvaluations(glyph, interline);
+            cache.put(this, glyph, interline, evals);
+        }
+
+        return evals;
+    }
+
+    //----------------------//
+    // getSortedEvaluations //
+    //----------------------//
+    /**
+     * Run the classifier on a batch of glyphs, and return for each glyph a sequence of all
+     * interpretations (ordered from best to worst) with no additional check.
+     *
+     * @param glyphs    the glyphs to be examined
+     * @param interline the global sheet interline
+     * @return the ordered best evaluations, one sequence per glyph
+     */
+    protected Evaluation[][] getSortedEvaluations (List<Glyph> glyphs,
+                                                   int interline)
+    {
+        final Evaluation[][] results = new Evaluation[glyphs.size()][];
+        final List<Glyph> bigs = new ArrayList<>(glyphs.size());
+
+        for (int i = 0; i < results.length; i++) {
+            final Glyph glyph = glyphs.get(i);
+
+            // If too small, it's just NOISE
+            if (isBigEnough(glyph, interline)) {
+                bigs.add(glyph);
+            } else {
+                results[i] = noiseEvaluations;
+            }
+        }
+
+        if (!bigs.isEmpty()) {
+            final Evaluation[][] bigEvals = evaluateBatch(bigs, interline);
+            int b = 0;
+
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    final Evaluation[] evals = bigEvals[b++];
+                    Arrays.sort(evals, Evaluation.byReverseGrade); // From best to worst
+                    results[i] = evals;
+                }
+            }
+        }
+
+        return results;
+    }
+
     //-------------//
     // isBigEnough //
     //-------------//
@@ -462,6 +578,61 @@ public abstract class AbstractClassifier<M extends Object>
         throw new IllegalStateException("Norms were not found");
     }
 
+    //--------//
+    // select //
+    //--------//
+    /**
+     * Select the acceptable evaluations among the sorted ones.
+     *
+     * @param evals      the evaluations, ordered from best to worst
+     * @param glyph      the evaluated glyph
+     * @param system     the containing system, if any
+     * @param count      the desired maximum sequence length
+     * @param minGrade   the minimum evaluation grade to be acceptable
+     * @param conditions optional conditions, perhaps null or empty
+     * @return the selected evaluations, perhaps empty but not null
+     */
+    private Evaluation[] select (Evaluation[] evals,
+                                 Glyph glyph,
+                                 SystemInfo system,
+                                 int count,
+                                 double minGrade,
+                                 EnumSet<Classifier.Condition> conditions)
+    {
+        final List<Evaluation> bests = new ArrayList<>();
+
+        EvalsLoop:
+        for (Evaluation eval : evals) {
+            // Bounding test?
+            if ((bests.size() >= count) || (eval.grade < minGrade)) {
+                break;
+            }
+
+            // Successful checks?
+            if ((conditions != null) && conditions.contains(Condition.CHECKED)) {
+                // This may change the eval shape in only one case:
+                // HW_REST_set may be changed for HALF_REST or WHOLE_REST based on pitch
+                glyphChecker.annotate(system, eval, glyph);
+
+                if (eval.failure != null) {
+                    continue;
+                }
+            }
+
+            // Everything is OK, add the shape if not already in the list
+            // (this can happen when checks have modified the eval original shape)
+            for (Evaluation e : bests) {
+                if (e.shape == eval.shape) {
+                    continue EvalsLoop;
+                }
+            }
+
+            bests.add(eval);
+        }
+
+        return bests.toArray(new Evaluation[bests.size()]);
+    }
+
     //-------//
     // store //
     //-------//
@@ -134,6 +134,46 @@ public class BasicClassifier
                 getMaxEpochs());
     }
 
+    //---------------//
+    // evaluateBatch //
+    //---------------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Features of all glyphs are packed into one matrix, which is normalized in situ and then
+     * processed by a single batch run of the network.
+     */
+    @Override
+    public Evaluation[][] evaluateBatch (List<Glyph> glyphs,
+                                         int interline)
+    {
+        final int count = glyphs.size();
+        final double[][] inputs = new double[count][];
+
+        for (int g = 0; g < count; g++) {
+            inputs[g] = descriptor.getFeatures(glyphs.get(g), interline);
+        }
+
+        normalize(inputs);
+
+        final double[][] outputs = model.runBatch(inputs);
+        final Shape[] values = Shape.values();
+        final Evaluation[][] results = new Evaluation[count][];
+
+        for (int g = 0; g < count; g++) {
+            final double[] outs = outputs[g];
+            final Evaluation[] evals = new Evaluation[SHAPE_COUNT];
+
+            for (int s = 0; s < SHAPE_COUNT; s++) {
+                evals[s] = new Evaluation(values[s], outs[s]);
+            }
+
+            results[g] = evals;
+        }
+
+        return results;
+    }
+
     //----------------//
     // getEpochsTotal //
     //----------------//
@@ -305,6 +345,32 @@ public class BasicClassifier
         features.diviRowVector(norms.stds);
     }
 
+    //-----------//
+    // normalize //
+    //-----------//
+    /**
+     * Apply the known norms on the provided (raw) features matrix.
+     *
+     * @param inputs raw features, one row per glyph, to be normalized in situ
+     */
+    private void normalize (double[][] inputs)
+    {
+        final int cols = norms.means.columns();
+        final double[] means = new double[cols];
+        final double[] stds = new double[cols];
+
+        for (int j = 0; j < cols; j++) {
+            means[j] = norms.means.getDouble(j);
+            stds[j] = norms.stds.getDouble(j);
+        }
+
+        for (double[] ins : inputs) {
+            for (int j = 0; j < cols; j++) {
+                ins[j] = (ins[j] - means[j]) / stds[j];
+            }
+        }
+    }
+
     //-------//
     // reset //
     //-------//
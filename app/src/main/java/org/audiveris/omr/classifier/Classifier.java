@@ -23,10 +23,12 @@ package org.audiveris.omr.classifier;
 
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.SystemInfo;
 
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.List;
 
 /**
  * Interface <code>Classifier</code> defines the features of a glyph shape classifier.
@@ -71,9 +73,32 @@ public interface Classifier
                            double minGrade,
                            EnumSet<Condition> conditions);
 
+    /**
+     * Report the sorted sequence of best evaluation(s) found by the classifier on the
+     * provided glyph, with no system but a sheet and an interline value.
+     * <p>
+     * The raw evaluations are cached in the sheet {@link EvaluationCache}.
+     *
+     * @param glyph      the glyph to evaluate
+     * @param sheet      the sheet containing the glyph to evaluate
+     * @param interline  the relevant scaling information
+     * @param count      the desired maximum sequence length min 1 and max SHAPE_COUNT
+     * @param minGrade   the minimum evaluation grade to be acceptable
+     * @param conditions optional conditions, perhaps null or empty
+     * @return the sequence of evaluations, perhaps empty but not null
+     */
+    Evaluation[] evaluate (Glyph glyph,
+                           Sheet sheet,
+                           int interline,
+                           int count,
+                           double minGrade,
+                           EnumSet<Condition> conditions);
+
     /**
      * Report the sorted sequence of best evaluation(s) found by the classifier on the
      * provided glyph.
+     * <p>
+     * The raw evaluations are cached in the {@link EvaluationCache} of the containing sheet.
      *
      * @param glyph      the glyph to evaluate
      * @param system     the system containing the glyph to evaluate
@@ -88,6 +113,38 @@ public interface Classifier
                            double minGrade,
                            EnumSet<Condition> conditions);
 
+    /**
+     * Report, for each glyph of the provided list, the sorted sequence of best evaluation(s)
+     * found by the classifier.
+     * <p>
+     * This is equivalent to calling {@link #evaluate(Glyph, SystemInfo, int, double, EnumSet)}
+     * on each glyph, but allows the classifier to process all glyphs in a single batch.
+     *
+     * @param glyphs     the glyphs to evaluate, all in the same system
+     * @param system     the system containing the glyphs to evaluate
+     * @param count      the desired maximum sequence length, min 1 and max SHAPE_COUNT
+     * @param minGrade   the minimum evaluation grade to be acceptable
+     * @param conditions optional conditions, perhaps null or empty
+     * @return the sequences of evaluations, one per glyph in list order, perhaps empty but not null
+     */
+    Evaluation[][] evaluate (List<Glyph> glyphs,
+                             SystemInfo system,
+                             int count,
+                             double minGrade,
+                             EnumSet<Condition> conditions);
+
+    /**
+     * Run the classifier on a batch of glyphs, and return for each glyph the natural
+     * sequence of all interpretations (ordered by Shape ordinal) with no additional check.
+     *
+     * @param glyphs    the glyphs to be examined
+     * @param interline the relevant scaling interline
+     * @return all shape-ordered evaluations, one array per glyph in list order
+     * @see #getNaturalEvaluations(Glyph, int)
+     */
+    Evaluation[][] evaluateBatch (List<Glyph> glyphs,
+                                  int interline);
+
     /**
      * Report the total count of epochs run so far.
      *
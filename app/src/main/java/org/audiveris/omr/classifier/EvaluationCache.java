@@ -0,0 +1,322 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 E v a l u a t i o n C a c h e                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.glyph.Glyph;
+import org.audiveris.omr.run.RunTableCodec;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class <code>EvaluationCache</code> keeps, for a sheet, the sorted evaluations already
+ * computed by classifiers on glyphs.
+ * <p>
+ * The same glyph (same pixels at same location) is often built several times, for example by
+ * clusters enumeration in SYMBOLS step, while its evaluation (glyph features and classifier run)
+ * is costly.
+ * <p>
+ * An entry is keyed by the classifier, the glyph pixel identity and the interline value.
+ * Pixel identity is an immutable signature made of glyph location and encoded runs
+ * (see {@link RunTableCodec#encode}), so that the cache holds no reference to any glyph and does
+ * not prevent glyphs from being garbage collected.
+ * Cached evaluations are the raw sorted ones, before any check: every retrieval returns fresh
+ * copies, that the caller can annotate at will.
+ * <p>
+ * The cache size is bounded, the least recently used entry being evicted first.
+ *
+ * @author Hervé Bitteur
+ */
+public class EvaluationCache
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Cached evaluations, in access order. */
+    private final Map<Key, Evaluation[]> map;
+
+    /** Retrievals served by the cache. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Retrievals not found in the cache. */
+    private final LongAdder misses = new LongAdder();
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>EvaluationCache</code> object.
+     */
+    public EvaluationCache ()
+    {
+        final int maxEntries = constants.maxEntries.getValue();
+
+        map = new LinkedHashMap<Key, Evaluation[]>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Key, Evaluation[]> eldest)
+            {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-------//
+    // clear //
+    //-------//
+    /**
+     * Remove all entries.
+     */
+    public synchronized void clear ()
+    {
+        map.clear();
+    }
+
+    //-----//
+    // get //
+    //-----//
+    /**
+     * Retrieve the cached evaluations for the provided glyph.
+     *
+     * @param classifier the classifier used
+     * @param glyph      the evaluated glyph
+     * @param interline  the interline used
+     * @return fresh copies of cached evaluations, or null if not found
+     */
+    public Evaluation[] get (Classifier classifier,
+                             Glyph glyph,
+                             int interline)
+    {
+        final Evaluation[] evals;
+
+        synchronized (this) {
+            evals = map.get(new Key(classifier, glyph, interline));
+        }
+
+        if (evals == null) {
+            misses.increment();
+
+            return null;
+        }
+
+        hits.increment();
+
+        return copyOf(evals);
+    }
+
+    //------------//
+    // getHitRate //
+    //------------//
+    /**
+     * Report the ratio of retrievals served by the cache.
+     *
+     * @return the hit rate, in [0..1]
+     */
+    public double getHitRate ()
+    {
+        final long h = hits.sum();
+        final long total = h + misses.sum();
+
+        return (total == 0) ? 0 : (double) h / total;
+    }
+
+    //---------//
+    // getHits //
+    //---------//
+    /**
+     * Report the number of retrievals served by the cache.
+     *
+     * @return the count of hits
+     */
+    public long getHits ()
+    {
+        return hits.sum();
+    }
+
+    //-----------//
+    // getMisses //
+    //-----------//
+    /**
+     * Report the number of retrievals not found in the cache.
+     *
+     * @return the count of misses
+     */
+    public long getMisses ()
+    {
+        return misses.sum();
+    }
+
+    //---------//
+    // getSize //
+    //---------//
+    /**
+     * Report the current number of entries.
+     *
+     * @return the count of entries
+     */
+    public synchronized int getSize ()
+    {
+        return map.size();
+    }
+
+    //-----//
+    // put //
+    //-----//
+    /**
+     * Cache the sorted evaluations for the provided glyph.
+     * A copy of the evaluations is stored, so the caller keeps ownership of the provided ones.
+     *
+     * @param classifier the classifier used
+     * @param glyph      the evaluated glyph
+     * @param interline  the interline used
+     * @param evals      the sorted evaluations, not yet annotated
+     */
+    public void put (Classifier classifier,
+                     Glyph glyph,
+                     int interline,
+                     Evaluation[] evals)
+    {
+        final Evaluation[] copies = copyOf(evals);
+
+        synchronized (this) {
+            map.put(new Key(classifier, glyph, interline), copies);
+        }
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return new StringBuilder("EvaluationCache{")
+                .append("entries:").append(getSize())
+                .append(" hits:").append(getHits())
+                .append(" misses:").append(getMisses())
+                .append(String.format(" hitRate:%.2f", getHitRate()))
+                .append('}').toString();
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //--------//
+    // copyOf //
+    //--------//
+    private static Evaluation[] copyOf (Evaluation[] evals)
+    {
+        final Evaluation[] copies = new Evaluation[evals.length];
+
+        for (int i = 0; i < evals.length; i++) {
+            final Evaluation eval = evals[i];
+            copies[i] = new Evaluation(eval.shape, eval.grade);
+        }
+
+        return copies;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer maxEntries = new Constant.Integer(
+                "entries",
+                20_000,
+                "Maximum number of glyph evaluations cached per sheet");
+    }
+
+    //-----//
+    // Key //
+    //-----//
+    /**
+     * Cache key, based on glyph pixels rather than glyph instance.
+     */
+    private static class Key
+    {
+        private final Classifier classifier;
+
+        private final int interline;
+
+        private final int left;
+
+        private final int top;
+
+        /** Encoded glyph runs. */
+        private final byte[] runs;
+
+        private final int hash;
+
+        Key (Classifier classifier,
+             Glyph glyph,
+             int interline)
+        {
+            this.classifier = classifier;
+            this.interline = interline;
+            left = glyph.getLeft();
+            top = glyph.getTop();
+            runs = RunTableCodec.encode(glyph.getRunTable());
+
+            int h = 7;
+            h = (61 * h) + System.identityHashCode(classifier);
+            h = (61 * h) + interline;
+            h = (61 * h) + left;
+            h = (61 * h) + top;
+            h = (61 * h) + Arrays.hashCode(runs);
+            hash = h;
+        }
+
+        @Override
+        public boolean equals (Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key that = (Key) obj;
+
+            return (this.hash == that.hash) && (this.classifier == that.classifier)
+                    && (this.interline == that.interline) && (this.left == that.left)
+                    && (this.top == that.top) && Arrays.equals(this.runs, that.runs);
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            return hash;
+        }
+    }
+}
@@ -678,9 +678,7 @@ public class SampleRepository
                     return false;
                 }
 
-                Path imagePath = folderPath.resolve(SampleSheet.IMAGE_FILE_NAME);
-
-                return Files.exists(imagePath);
+                return SampleSheet.getImagePath(folderPath) != null;
             } finally {
                 if (imagesRoot != null) {
                     imagesRoot.getFileSystem().close();
@@ -766,8 +764,13 @@ public class SampleRepository
                         final Path root = ZipFileSystem.open(imagesFile);
 
                         for (Descriptor desc : descs) {
-                            final Path file = root.resolve(desc.getName()).resolve(
-                                    SampleSheet.IMAGE_FILE_NAME);
+                            final Path file = SampleSheet.getImagePath(
+                                    root.resolve(desc.getName()));
+
+                            if (file == null) {
+                                continue;
+                            }
+
                             final RunTable rt = RunTable.unmarshal(file);
 
                             if ((rt != null) && rt.equals(image)) {
@@ -1285,7 +1288,10 @@ public class SampleRepository
                 {
                     final String fileName = file.getFileName().toString();
 
-                    if (fileName.equals(SampleSheet.IMAGE_FILE_NAME)) {
+                    // Binary image file is preferred to legacy XML image file, if both exist
+                    if ((fileName.equals(SampleSheet.IMAGE_FILE_NAME)
+                            || fileName.equals(SampleSheet.XML_IMAGE_FILE_NAME))
+                            && file.equals(SampleSheet.getImagePath(file.getParent()))) {
                         RunTable runTable = RunTable.unmarshal(file);
 
                         if (runTable != null) {
@@ -1333,7 +1339,12 @@ public class SampleRepository
                     return null;
                 }
 
-                Path file = folderPath.resolve(SampleSheet.IMAGE_FILE_NAME);
+                Path file = SampleSheet.getImagePath(folderPath);
+
+                if (file == null) {
+                    return null;
+                }
+
                 runTable = RunTable.unmarshal(file);
 
                 if (runTable != null) {
@@ -29,6 +29,7 @@ import static org.audiveris.omr.glyph.Shape.FLAG_3_UP;
 import static org.audiveris.omr.glyph.Shape.FLAG_4_UP;
 import static org.audiveris.omr.glyph.Shape.FLAG_5_UP;
 import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.run.RunTableCodec;
 import org.audiveris.omr.util.FileUtil;
 import org.audiveris.omr.util.Jaxb;
 
@@ -37,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -81,8 +83,11 @@ public class SampleSheet
     /** File name for sheet tribes: {@value}. */
     public static final String TRIBES_FILE_NAME = "tribes.xml";
 
-    /** File name for sheet image: {@value}. */
-    public static final String IMAGE_FILE_NAME = "image.xml";
+    /** File name for sheet image, in {@link RunTableCodec} binary format: {@value}. */
+    public static final String IMAGE_FILE_NAME = "image.bin";
+
+    /** Legacy file name for sheet image, in XML format: {@value}. */
+    public static final String XML_IMAGE_FILE_NAME = "image.xml";
 
     /** Un/marshalling context for use with JAXB. */
     private static volatile JAXBContext jaxbContext;
@@ -374,7 +379,15 @@ public class SampleSheet
                 Files.createDirectories(folderPath);
 
                 final Path imagePath = folderPath.resolve(IMAGE_FILE_NAME);
-                Jaxb.marshal(image, imagePath, getJaxbContext());
+
+                try (WritableByteChannel channel = Files.newByteChannel(
+                        imagePath,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+                    RunTableCodec.write(image, channel);
+                }
+
                 imageSaved = true;
                 logger.info("Stored {}", imagePath);
             }
@@ -539,6 +552,35 @@ public class SampleSheet
         }
     }
 
+    //--------------//
+    // getImagePath //
+    //--------------//
+    /**
+     * Report the path to the sheet image file within the provided folder.
+     * <p>
+     * The binary {@link #IMAGE_FILE_NAME} is preferred, the legacy {@link #XML_IMAGE_FILE_NAME}
+     * is used as a fallback.
+     *
+     * @param folderPath the sheet image folder
+     * @return the existing image file path, or null if none exists
+     */
+    public static Path getImagePath (Path folderPath)
+    {
+        final Path binPath = folderPath.resolve(IMAGE_FILE_NAME);
+
+        if (Files.exists(binPath)) {
+            return binPath;
+        }
+
+        final Path xmlPath = folderPath.resolve(XML_IMAGE_FILE_NAME);
+
+        if (Files.exists(xmlPath)) {
+            return xmlPath;
+        }
+
+        return null;
+    }
+
     //----------------//
     // getJaxbContext //
     //----------------//
@@ -21,18 +21,28 @@
 // </editor-fold>
 package org.audiveris.omr.glyph;
 
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.jgrapht.Graph;
 import org.jgrapht.Graphs;
-import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.graph.AsSubgraph;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -43,10 +53,17 @@ import java.util.Set;
  * <ol>
  * <li>Build the compound of chosen vertices, and record acceptable evaluations.</li>
  * <li>Build the set of new reachable vertices.</li>
- * <li>For each reachable vertex, recursively process the new set composed of current set + the
- * reachable vertex.</li>
+ * <li>For each reachable vertex, process the new set composed of current set + the reachable
+ * vertex.</li>
  * </ol>
- * TODO: implement a non-recursive version for better efficiency?
+ * Subsets are enumerated in depth-first order by an explicit stack of {@link Subset} instances,
+ * rather than by recursion.
+ * Parts are referred to by their index in the cluster, so that a subset is encoded as a bit set,
+ * and its weight and bounds are derived incrementally from the smaller subset it grows from.
+ * A growth that would give a too heavy or too large subset is pruned before any compound is built.
+ * <p>
+ * The number of compounds evaluated for a cluster can be capped, to keep processing time
+ * predictable on very cluttered areas.
  *
  * @author Hervé Bitteur
  */
@@ -54,6 +71,8 @@ public class GlyphCluster
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(GlyphCluster.class);
 
     //~ Instance fields ----------------------------------------------------------------------------
@@ -64,6 +83,18 @@ public class GlyphCluster
     /** Group, if any, to be assigned to created glyphs. */
     private final GlyphGroup group;
 
+    /** Cluster parts, by decreasing weight. */
+    private List<Glyph> parts;
+
+    /** Neighbors of each part, as part indices. */
+    private int[][] neighbors;
+
+    /** Weight of each part. */
+    private int[] weights;
+
+    /** Count of compounds evaluated so far. */
+    private int evaluations;
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -89,104 +120,183 @@ public class GlyphCluster
      */
     public void decompose ()
     {
-        final Set<Glyph> considered = new LinkedHashSet<>(); // Parts considered so far
-
         //TODO: we could truncate this list by discarding the smallest items
         // since a too large list would result in explosion of combinations
-        final List<Glyph> seeds = adapter.getParts();
-        Collections.sort(seeds, Glyphs.byReverseWeight);
+        parts = adapter.getParts();
+        Collections.sort(parts, Glyphs.byReverseWeight);
+        indexParts();
+        evaluations = 0;
+
+        final int maxEvaluations = constants.maxEvaluations.getValue();
+        final BitSet considered = new BitSet(parts.size()); // Parts considered so far
+        final Deque<Subset> stack = new ArrayDeque<>();
+
+        ///logger.debug("Decomposing {}", Glyphs.ids("cluster", parts));
+        for (int seed = 0; seed < parts.size(); seed++) {
+            considered.set(seed);
+
+            final Glyph glyph = parts.get(seed);
+            final Rectangle box = glyph.getBounds();
+
+            if (adapter.isTooHeavy(weights[seed])) {
+                logger.debug("Too high weight {} for {}", weights[seed], glyph);
+                continue;
+            }
+
+            if (adapter.isTooLarge(box)) {
+                logger.debug("Too large  {} for {}", box, glyph);
+                continue;
+            }
+
+            push(stack, new Subset(null, seed, weights[seed], new Rectangle(box)), considered);
+
+            while (!stack.isEmpty()) {
+                if ((maxEvaluations > 0) && (evaluations >= maxEvaluations)) {
+                    logger.info(
+                            "Cluster of {} parts truncated after {} evaluations",
+                            parts.size(),
+                            evaluations);
+
+                    return;
+                }
+
+                final Subset subset = stack.peek();
+
+                if (subset.next >= subset.outliers.length) {
+                    stack.pop();
+                    continue;
+                }
 
-        ///logger.debug("Decomposing {}", Glyphs.ids("cluster", seeds));
-        for (Glyph seed : seeds) {
-            considered.add(seed);
-            process(Collections.singleton(seed), considered);
+                final int outlier = subset.outliers[subset.next++];
+                subset.considered.set(outlier);
+
+                // Check appending this part does not make the resulting symbol too wide or too high
+                final Rectangle symBox = parts.get(outlier).getBounds().union(subset.box);
+
+                if (adapter.isTooLarge(symBox)) {
+                    continue;
+                }
+
+                final int weight = subset.weight + weights[outlier];
+
+                if (adapter.isTooHeavy(weight)) {
+                    logger.debug("Too high weight {} for {} + {}", weight, subset, outlier);
+                    continue;
+                }
+
+                push(stack, new Subset(subset, outlier, weight, symBox), subset.considered);
+            }
         }
     }
 
+    //----------//
+    // evaluate //
+    //----------//
     /**
-     * Retrieve all parts at acceptable distance from at least one member of the
-     * provided set.
+     * Build the compound for the provided subset and evaluate it.
      *
-     * @param set the provided set
-     * @return all the parts reachable from the set
+     * @param subset the subset to evaluate
      */
-    private Set<Glyph> getOutliers (Set<Glyph> set)
+    private void evaluate (Subset subset)
     {
-        Set<Glyph> outliers = new LinkedHashSet<>();
+        final Set<Glyph> set = new LinkedHashSet<>();
 
-        for (Glyph part : set) {
-            outliers.addAll(adapter.getNeighbors(part));
+        for (int index : subset.members) {
+            set.add(parts.get(index));
         }
 
-        outliers.removeAll(set);
+        // Build compound and get acceptable evaluations for the compound
+        final Glyph compound = (set.size() > 1) ? GlyphFactory.buildGlyph(set)
+                : set.iterator().next();
+        compound.addGroup(group);
 
-        return outliers;
+        // Create all acceptable inters, if any, for the compound
+        evaluations++;
+        adapter.evaluateGlyph(compound, set);
     }
 
+    //------------//
+    // indexParts //
+    //------------//
     /**
-     * Process the provided set of parts.
-     *
-     * @param parts (read only) the set of current parts
-     * @param seen  (read only) all parts considered so far (current parts plus discarded ones)
+     * Assign each part an index, and record part weights and neighbors by index.
      */
-    private void process (Set<Glyph> parts,
-                          Set<Glyph> seen)
+    private void indexParts ()
     {
-        ///logger.debug(" {} {} {}", set.size(), Glyphs.ids("set", set), Glyphs.ids("seen", seen));
+        final int count = parts.size();
+        final Map<Glyph, Integer> indices = new HashMap<>();
 
-        // Check what we have got
-        final int weight = Glyphs.weightOf(parts);
+        for (int i = 0; i < count; i++) {
+            indices.put(parts.get(i), i);
+        }
 
-        if (adapter.isTooHeavy(weight)) {
-            logger.debug("Too high weight {} for {}", weight, parts);
+        weights = new int[count];
+        neighbors = new int[count][];
 
-            return;
-        }
+        for (int i = 0; i < count; i++) {
+            final Glyph part = parts.get(i);
+            weights[i] = part.getWeight();
 
-        Rectangle box = Glyphs.getBounds(parts);
+            final List<Glyph> list = adapter.getNeighbors(part);
+            final int[] array = new int[list.size()];
+            int n = 0;
 
-        if (adapter.isTooLarge(box)) {
-            logger.debug("Too large  {} for {}", box, parts);
+            for (Glyph neighbor : list) {
+                final Integer index = indices.get(neighbor);
 
-            return;
-        }
+                if (index != null) {
+                    array[n++] = index;
+                }
+            }
 
-        if (!adapter.isTooLight(weight)) {
-            // Build compound and get acceptable evaluations for the compound
-            Glyph compound = (parts.size() > 1) ? GlyphFactory.buildGlyph(parts)
-                    : parts.iterator().next();
-            compound.addGroup(group);
+            neighbors[i] = (n == array.length) ? array : Arrays.copyOf(array, n);
+        }
+    }
 
-            // Create all acceptable inters, if any, for the compound
-            adapter.evaluateGlyph(compound, parts);
+    //------//
+    // push //
+    //------//
+    /**
+     * Process the provided subset, and push it on the stack if it can still grow.
+     * <p>
+     * The subset outliers are the parts immediately reachable from the subset members, which have
+     * not been considered yet.
+     *
+     * @param stack the stack of subsets
+     * @param subset the subset to process
+     * @param seen  (read only) all parts considered so far (subset parts plus discarded ones)
+     */
+    private void push (Deque<Subset> stack,
+                       Subset subset,
+                       BitSet seen)
+    {
+        if (!adapter.isTooLight(subset.weight)) {
+            evaluate(subset);
         } else {
-            logger.debug("Too low weight {} for {}", weight, parts);
+            logger.debug("Too low weight {} for {}", subset.weight, subset);
         }
 
         // Then, identify all outliers immediately reachable from the compound
-        Set<Glyph> outliers = getOutliers(parts);
-        outliers.removeAll(seen);
+        final BitSet reached = new BitSet(parts.size());
+        final int[] outliers = new int[parts.size()];
+        int count = 0;
+
+        for (int member : subset.members) {
+            for (int neighbor : neighbors[member]) {
+                if (!seen.get(neighbor) && !subset.bits.get(neighbor) && !reached.get(neighbor)) {
+                    reached.set(neighbor);
+                    outliers[count++] = neighbor;
+                }
+            }
+        }
 
-        if (outliers.isEmpty()) {
+        if (count == 0) {
             return; // No further growth is possible
         }
 
-        ///logger.debug("      {}", Glyphs.ids("outliers", outliers));
-        Rectangle setBox = Glyphs.getBounds(parts);
-        Set<Glyph> newConsidered = new LinkedHashSet<>(seen);
-
-        for (Glyph outlier : outliers) {
-            newConsidered.add(outlier);
-
-            // Check appending this atom does not make the resulting symbol too wide or too high
-            Rectangle symBox = outlier.getBounds().union(setBox);
-
-            if (!adapter.isTooLarge(symBox)) {
-                Set<Glyph> largerSet = new LinkedHashSet<>(parts);
-                largerSet.add(outlier);
-                process(largerSet, newConsidered);
-            }
-        }
+        subset.outliers = Arrays.copyOf(outliers, count);
+        subset.considered = (BitSet) seen.clone();
+        stack.push(subset);
     }
 
     //~ Static Methods -----------------------------------------------------------------------------
@@ -196,41 +306,27 @@ public class GlyphCluster
     //-------------//
     /**
      * Extract a subgraph limited to the provided set of glyphs.
+     * <p>
+     * The subgraph is a view on the global graph, restricted to the set glyphs and to the edges
+     * that link two of them. No vertex or edge is copied into a new graph.
+     * <p>
+     * Candidate edges are taken from the set glyphs only, so that the cost of the view does not
+     * depend on the size of the global graph.
      *
-     * @param set        the provided set of glyphs
-     * @param graph      the global graph to extract from
-     * @param checkEdges true if glyph edges may point outside the provided set.
+     * @param set   the provided set of glyphs
+     * @param graph the global graph to extract from, not to be modified while the view is used
      * @return the graph limited to glyph set and related edges
      */
-    public static SimpleGraph<Glyph, GlyphLink> getSubGraph (Set<Glyph> set,
-                                                             SimpleGraph<Glyph, GlyphLink> graph,
-                                                             boolean checkEdges)
+    public static Graph<Glyph, GlyphLink> getSubGraph (Set<Glyph> set,
+                                                       Graph<Glyph, GlyphLink> graph)
     {
-        // Which edges should be extracted for this set?
-        Set<GlyphLink> setEdges = new LinkedHashSet<>();
+        final Set<GlyphLink> edges = new LinkedHashSet<>();
 
         for (Glyph glyph : set) {
-            Set<GlyphLink> glyphEdges = graph.edgesOf(glyph);
-
-            if (!checkEdges) {
-                setEdges.addAll(glyphEdges); // Take all edges
-            } else {
-                // Keep only the edges that link within the set
-                for (GlyphLink link : glyphEdges) {
-                    Glyph opposite = Graphs.getOppositeVertex(graph, link, glyph);
-
-                    if (set.contains(opposite)) {
-                        setEdges.add(link);
-                    }
-                }
-            }
+            edges.addAll(graph.edgesOf(glyph));
         }
 
-        SimpleGraph<Glyph, GlyphLink> subGraph = new SimpleGraph<>(GlyphLink.class);
-        Graphs.addAllVertices(subGraph, set);
-        Graphs.addAllEdges(subGraph, graph, setEdges);
-
-        return subGraph;
+        return new AsSubgraph<>(graph, set, edges);
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -245,7 +341,7 @@ public class GlyphCluster
         public int trials = 0;
 
         /** Graph of the connected glyphs, with their distance edges if any. */
-        protected final SimpleGraph<Glyph, GlyphLink> graph;
+        protected final Graph<Glyph, GlyphLink> graph;
 
         /**
          * Build an adapter from a set of parts and the maximum gap between parts.
@@ -266,7 +362,7 @@ public class GlyphCluster
          *
          * @param graph the ready-to-use connectivity (sub-)graph
          */
-        public AbstractAdapter (SimpleGraph<Glyph, GlyphLink> graph)
+        public AbstractAdapter (Graph<Glyph, GlyphLink> graph)
         {
             this.graph = graph;
         }
@@ -308,6 +404,82 @@ public class GlyphCluster
         }
     }
 
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer maxEvaluations = new Constant.Integer(
+                "Evaluations",
+                5_000,
+                "Maximum number of compounds evaluated per cluster (0 for no limit)");
+    }
+
+    //--------//
+    // Subset //
+    //--------//
+    /**
+     * A connected subset of cluster parts, with its pending growth.
+     */
+    private static class Subset
+    {
+        /** Member indices, in order of inclusion. */
+        final int[] members;
+
+        /** Member indices, as a bit set. */
+        final BitSet bits;
+
+        /** Total weight of members. */
+        final int weight;
+
+        /** Bounds of members. */
+        final Rectangle box;
+
+        /** Parts reachable from this subset, to be appended one after the other. */
+        int[] outliers;
+
+        /** Index in outliers of the next part to append. */
+        int next;
+
+        /** Parts considered so far for this subset growth. */
+        BitSet considered;
+
+        /**
+         * Create a subset by appending a part to a smaller subset.
+         *
+         * @param smaller the smaller subset, or null for a seed subset
+         * @param part    the part to append
+         * @param weight  resulting weight
+         * @param box     resulting bounds
+         */
+        Subset (Subset smaller,
+                int part,
+                int weight,
+                Rectangle box)
+        {
+            if (smaller == null) {
+                members = new int[]
+                { part };
+                bits = new BitSet();
+            } else {
+                members = Arrays.copyOf(smaller.members, smaller.members.length + 1);
+                members[smaller.members.length] = part;
+                bits = (BitSet) smaller.bits.clone();
+            }
+
+            bits.set(part);
+            this.weight = weight;
+            this.box = box;
+        }
+
+        @Override
+        public String toString ()
+        {
+            return "Subset" + Arrays.toString(members);
+        }
+    }
+
     //~ Inner Interfaces ---------------------------------------------------------------------------
 
     //--------------//
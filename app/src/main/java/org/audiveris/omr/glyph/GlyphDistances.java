@@ -55,9 +55,26 @@ public class GlyphDistances
      */
     public GlyphDistances (Glyph glyph,
                            Rectangle tableBox)
+    {
+        this(glyph, tableBox, null);
+    }
+
+    /**
+     * Creates a new GlyphDistances object, around a provided glyph, using a reusable
+     * buffer.
+     * <p>
+     * The distances are then valid only until the buffer is used for another glyph.
+     *
+     * @param glyph    the provided glyph
+     * @param tableBox the desired rectangle around the glyph
+     * @param buffer   the buffer to compute distances into, or null
+     */
+    public GlyphDistances (Glyph glyph,
+                           Rectangle tableBox,
+                           Buffer buffer)
     {
         this.tableBox = tableBox;
-        distTable = new Distances().compute(glyph, tableBox);
+        distTable = new Distances(buffer).compute(glyph, tableBox);
     }
 
     //~ Methods ------------------------------------------------------------------------------------
@@ -145,12 +162,68 @@ public class GlyphDistances
 
     //~ Inner Classes ------------------------------------------------------------------------------
 
+    //--------//
+    // Buffer //
+    //--------//
+    /**
+     * A distance array meant to be reused for a sequence of glyphs, by the same thread.
+     * <p>
+     * It grows as needed, and each glyph table uses just the needed first part of it.
+     * The table is a plain table of the desired dimension, with direct fill and access.
+     */
+    public static class Buffer
+    {
+        /** Backing array, if any. */
+        private short[] data;
+
+        /**
+         * Report a table of the desired dimension, backed by the buffer array.
+         *
+         * @param width      desired width
+         * @param height     desired height
+         * @param normalizer the normalizing value
+         * @return the table to use
+         */
+        DistanceTable getTable (int width,
+                                int height,
+                                int normalizer)
+        {
+            final int size = width * height;
+
+            if ((data == null) || (data.length < size)) {
+                data = new short[size];
+            }
+
+            return new DistanceTable.Short(data, width, height, normalizer);
+        }
+    }
+
     //-----------//
     // Distances //
     //-----------//
     private static class Distances
             extends ChamferDistance.Short
     {
+        /** Reusable buffer, if any. */
+        private final Buffer buffer;
+
+        Distances (Buffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected DistanceTable allocateOutput (int width,
+                                                int height,
+                                                int normalizer)
+        {
+            if (buffer == null) {
+                return super.allocateOutput(width, height, normalizer);
+            }
+
+            return buffer.getTable(width, height, normalizer);
+        }
+
         public DistanceTable compute (Glyph glyph,
                                       Rectangle box)
         {
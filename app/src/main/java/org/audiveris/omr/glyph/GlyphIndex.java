@@ -33,7 +33,6 @@ import org.audiveris.omr.ui.selection.SelectionHint;
 import org.audiveris.omr.ui.selection.SelectionService;
 import org.audiveris.omr.util.BasicIndex;
 import org.audiveris.omr.util.ClassUtil;
-import org.audiveris.omr.util.Entities;
 import org.audiveris.omr.util.EntityIndex;
 
 import org.slf4j.Logger;
@@ -49,6 +48,7 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.swing.SwingUtilities;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -57,6 +57,11 @@ import javax.xml.bind.annotation.XmlRootElement;
 
 /**
  * Class <code>GlyphIndex</code> implements an index of (weak references to) Glyph instances.
+ * <p>
+ * Registration of original glyphs does not lock the whole index, since it can be called
+ * concurrently by the processing of several systems.
+ * Uniqueness of originals relies on the concurrent <code>originals</code> map, and ID assignment
+ * on the atomic ID generator of the underlying weak index.
  *
  * @author Hervé Bitteur
  */
@@ -95,6 +100,18 @@ public class GlyphIndex
     /** Selection service, if any. */
     private GlyphService glyphService;
 
+    /** Count of new glyphs registered. */
+    private final LongAdder registered = new LongAdder();
+
+    /** Count of original glyphs reused. */
+    private final LongAdder reused = new LongAdder();
+
+    /** Count of registrations that raced with a concurrent registration of the same glyph. */
+    private final LongAdder contended = new LongAdder();
+
+    /** Count of registration retries, because the original found had just been collected. */
+    private final LongAdder gcRetries = new LongAdder();
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -112,7 +129,7 @@ public class GlyphIndex
     @Override
     public List<Glyph> getContainedEntities (Rectangle rectangle)
     {
-        return Entities.containedEntities(iterator(), rectangle);
+        return glyphsOf(weakIndex.getContainedEntities(rectangle));
     }
 
     //-----------------------//
@@ -121,7 +138,24 @@ public class GlyphIndex
     @Override
     public List<Glyph> getContainingEntities (Point point)
     {
-        return Entities.containingEntities(iterator(), point);
+        return glyphsOf(weakIndex.getContainingEntities(point));
+    }
+
+    //--------------//
+    // getContended //
+    //--------------//
+    /**
+     * Report the number of registrations that raced with a concurrent registration of the
+     * same glyph.
+     * <p>
+     * This is the contention metric of {@link #registerOriginal(Glyph)}, meaningful only when
+     * systems are processed in parallel.
+     *
+     * @return the count of contended registrations
+     */
+    public long getContended ()
+    {
+        return contended.sum();
     }
 
     //-------------//
@@ -162,6 +196,20 @@ public class GlyphIndex
         return glyphService;
     }
 
+    //--------------//
+    // getGcRetries //
+    //--------------//
+    /**
+     * Report the number of registration retries, because the original glyph found had just
+     * been garbage collected.
+     *
+     * @return the count of retries
+     */
+    public long getGcRetries ()
+    {
+        return gcRetries.sum();
+    }
+
     @Override
     public int getIdAfter (int id)
     {
@@ -180,7 +228,7 @@ public class GlyphIndex
     @Override
     public List<Glyph> getIntersectedEntities (Rectangle rectangle)
     {
-        return Entities.intersectedEntities(iterator(), rectangle);
+        return glyphsOf(weakIndex.getIntersectedEntities(rectangle));
     }
 
     @Override
@@ -237,6 +285,34 @@ public class GlyphIndex
         }
     }
 
+    //----------//
+    // glyphsOf //
+    //----------//
+    /**
+     * Report the concrete glyphs of the provided weak references that are still valid.
+     *
+     * @param weaks the weak references
+     * @return the concrete glyphs, perhaps empty but not null
+     */
+    private List<Glyph> glyphsOf (List<WeakGlyph> weaks)
+    {
+        if (weaks.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<Glyph> glyphs = new ArrayList<>(weaks.size());
+
+        for (WeakGlyph weak : weaks) {
+            final Glyph glyph = weak.get();
+
+            if (glyph != null) {
+                glyphs.add(glyph);
+            }
+        }
+
+        return glyphs;
+    }
+
     //----------------//
     // initTransients //
     //----------------//
@@ -316,24 +392,29 @@ public class GlyphIndex
     /**
      * NOTA: This method is meant to be called <b>ONLY</b> from
      * {@link #registerOriginal(omr.glyph.Glyph)} in this class.
+     * <p>
+     * It locks only the glyph at hand, so that a glyph concurrently registered by several threads
+     * gets exactly one ID.
      *
      * @param glyph the glyph to register in glyphIndex
      * @return the glyph ID
      */
     private int privateRegister (Glyph glyph)
     {
-        int id = glyph.getId();
+        synchronized (glyph) {
+            int id = glyph.getId();
 
-        if (id == 0) {
-            WeakGlyph weak = new WeakGlyph(glyph);
+            if (id == 0) {
+                WeakGlyph weak = new WeakGlyph(glyph);
 
-            // Register in index
-            id = weakIndex.register(weak);
+                // Register in index
+                id = weakIndex.register(weak);
 
-            glyph.setIndex(this);
-        }
+                glyph.setIndex(this);
+            }
 
-        return id;
+            return id;
+        }
     }
 
     //---------//
@@ -393,23 +474,51 @@ public class GlyphIndex
     /**
      * Check whether the provided glyph is really a new one and assign it an ID.
      * If so the glyph is returned, otherwise the original glyph is returned.
+     * <p>
+     * This method is safe for concurrent use, without any lock on the whole index:
+     * <ul>
+     * <li>The thread whose glyph enters the <code>originals</code> map first owns the original.
+     * <li>Another thread may find this original before its ID is assigned, it then assigns the ID
+     * itself, under the lock of this glyph only.
+     * <li>If the original found has just been garbage collected, the attempt is simply retried.
+     * </ul>
      *
      * @param glyph the glyph to check
      * @return the original one if any, otherwise this glyph
      */
-    public synchronized Glyph registerOriginal (Glyph glyph)
+    public Glyph registerOriginal (Glyph glyph)
     {
         final WeakGlyph weak = new WeakGlyph(glyph);
-        final WeakGlyph orgWeak = originals.putIfAbsent(weak, weak);
-        final Glyph orgGlyph = (orgWeak != null) ? orgWeak.get() : null;
 
-        if (orgGlyph == null) {
-            privateRegister(glyph);
+        while (true) {
+            final WeakGlyph orgWeak = originals.putIfAbsent(weak, weak);
+
+            if (orgWeak == null) {
+                privateRegister(glyph);
+                registered.increment();
+
+                return glyph;
+            }
+
+            final Glyph orgGlyph = orgWeak.get();
+
+            if (orgGlyph == null) {
+                // Original just collected, its stale entry no longer matches: retry
+                gcRetries.increment();
+
+                continue;
+            }
 
-            return glyph;
-        } else {
             logger.debug("Reuse original {}", orgGlyph);
+
+            if (orgGlyph.getId() == 0) {
+                // Original not yet identified by its owning thread
+                contended.increment();
+                privateRegister(orgGlyph);
+            }
+
             weakIndex.insert(orgWeak); // Safer if original has been removed from index
+            reused.increment();
 
             return orgGlyph;
         }
@@ -440,6 +549,10 @@ public class GlyphIndex
     {
         weakIndex.reset();
         originals.clear();
+        registered.reset();
+        reused.reset();
+        contended.reset();
+        gcRetries.reset();
     }
 
     //-------------//
@@ -489,7 +602,25 @@ public class GlyphIndex
     @Override
     public String toString ()
     {
-        return ClassUtil.nameOf(this);
+        return new StringBuilder(ClassUtil.nameOf(this))
+                .append("{registered:").append(registered.sum())
+                .append(" reused:").append(reused.sum())
+                .append(" contended:").append(contended.sum())
+                .append(" gcRetries:").append(gcRetries.sum())
+                .append('}').toString();
+    }
+
+    //--------------//
+    // updateBounds //
+    //--------------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Nothing to do, since glyph location and run table are final.
+     */
+    @Override
+    public void updateBounds (Glyph glyph)
+    {
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -570,6 +701,11 @@ public class GlyphIndex
     private static class WeakGlyphIndex
             extends BasicIndex<WeakGlyph>
     {
+        WeakGlyphIndex ()
+        {
+            enableSpatialIndex(false); // Glyph bounds are known at registration
+        }
+
         @Override
         public void insert (WeakGlyph weak)
         {
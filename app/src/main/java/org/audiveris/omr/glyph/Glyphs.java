@@ -21,8 +21,11 @@
 // </editor-fold>
 package org.audiveris.omr.glyph;
 
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
 import static org.audiveris.omr.image.PixelSource.BACKGROUND;
 import org.audiveris.omr.util.Entities;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.Table;
 
 import org.jgrapht.graph.SimpleGraph;
@@ -35,6 +38,7 @@ import java.awt.Polygon;
 import java.awt.Rectangle;
 import java.awt.geom.Area;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -53,6 +57,8 @@ public abstract class Glyphs
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(Glyphs.class);
 
     /**
@@ -163,6 +169,13 @@ public abstract class Glyphs
     //------------//
     /**
      * Build the graph of acceptable links within the provided collection of glyphs.
+     * <p>
+     * Glyphs are swept by increasing abscissa, each glyph being checked only against the
+     * following glyphs that can intersect its box enlarged by maxGap.
+     * Distances are computed per band of consecutive glyphs, in parallel when allowed
+     * (see {@link OmrExecutors#processRange}), each band reusing the same distance buffer for all
+     * its glyphs.
+     * The graph is then populated sequentially, with edges in sweep order.
      *
      * @param glyphs the provided glyphs
      * @param maxGap maximum acceptable gap between glyphs
@@ -171,10 +184,18 @@ public abstract class Glyphs
     public static SimpleGraph<Glyph, GlyphLink> buildLinks (Collection<Glyph> glyphs,
                                                             double maxGap)
     {
-        final int gapInt = (int) Math.ceil(maxGap);
         final List<Glyph> sortedGlyphs = new ArrayList<>(glyphs);
         Collections.sort(sortedGlyphs, byAbscissa);
 
+        // Links from each glyph to the following ones
+        final int count = sortedGlyphs.size();
+        final Links[] links = new Links[count];
+        OmrExecutors.processRange(
+                0,
+                count - 1,
+                constants.minBandSize.getValue(),
+                (iMin, iMax) -> buildLinks(sortedGlyphs, maxGap, iMin, iMax, links));
+
         /** Graph of glyph instances, linked by their distance. */
         SimpleGraph<Glyph, GlyphLink> graph = new SimpleGraph<>(GlyphLink.class);
 
@@ -184,39 +205,77 @@ public abstract class Glyphs
         }
 
         // Populate edges (glyph to glyph distances) when applicable
-        for (int i = 0; i < sortedGlyphs.size(); i++) {
+        for (int i = 0; i < count; i++) {
+            final Glyph glyph = sortedGlyphs.get(i);
+            final Links glyphLinks = links[i];
+
+            for (int k = 0; k < glyphLinks.size; k++) {
+                final Glyph other = sortedGlyphs.get(glyphLinks.others[k]);
+                graph.addEdge(glyph, other, new GlyphLink.Nearby(glyphLinks.distances[k]));
+            }
+        }
+
+        return graph;
+    }
+
+    //------------//
+    // buildLinks //
+    //------------//
+    /**
+     * Compute the links from each glyph of the provided index range to the following glyphs.
+     *
+     * @param sortedGlyphs the glyphs sorted by abscissa
+     * @param maxGap       maximum acceptable gap between glyphs
+     * @param iMin         first glyph index
+     * @param iMax         last glyph index
+     * @param links        (output) the links, per glyph index
+     */
+    private static void buildLinks (List<Glyph> sortedGlyphs,
+                                    double maxGap,
+                                    int iMin,
+                                    int iMax,
+                                    Links[] links)
+    {
+        final int gapInt = (int) Math.ceil(maxGap);
+        final GlyphDistances.Buffer buffer = new GlyphDistances.Buffer();
+
+        for (int i = iMin; i <= iMax; i++) {
             final Glyph glyph = sortedGlyphs.get(i);
             final Rectangle fatBox = glyph.getBounds();
             fatBox.grow(gapInt, gapInt);
 
             final int xBreak = fatBox.x + fatBox.width; // Glyphs are sorted by abscissa
+            final Links glyphLinks = new Links();
             GlyphDistances glyphDistances = null; // Glyph-centered distance table
 
-            for (Glyph other : sortedGlyphs.subList(i + 1, sortedGlyphs.size())) {
-                Rectangle otherBox = other.getBounds();
+            for (int j = i + 1, jBreak = sortedGlyphs.size(); j < jBreak; j++) {
+                final Glyph other = sortedGlyphs.get(j);
+                final Rectangle otherBox = other.getBounds();
+
+                if (otherBox.x >= xBreak) {
+                    break; // This other glyph and all the following ones are too far on right
+                }
 
                 // Rough filtering, using fat box intersection
                 if (!fatBox.intersects(otherBox)) {
                     continue;
-                } else if (otherBox.x > xBreak) {
-                    break;
                 }
 
                 // We now need the glyph distance table, if not yet computed
                 if (glyphDistances == null) {
-                    glyphDistances = new GlyphDistances(glyph, fatBox);
+                    glyphDistances = new GlyphDistances(glyph, fatBox, buffer);
                 }
 
                 // Precise distance from glyph to other
-                double dist = glyphDistances.distanceTo(other);
+                final double dist = glyphDistances.distanceTo(other);
 
                 if ((dist <= maxGap) && !glyph.equals(other)) {
-                    graph.addEdge(glyph, other, new GlyphLink.Nearby(dist));
+                    glyphLinks.add(j, dist);
                 }
             }
-        }
 
-        return graph;
+            links[i] = glyphLinks;
+        }
     }
 
     //-----------------------//
@@ -649,6 +708,51 @@ public abstract class Glyphs
 
         return total;
     }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer minBandSize = new Constant.Integer(
+                "glyphs",
+                64,
+                "Minimum number of glyphs processed by one links task");
+    }
+
+    //-------//
+    // Links //
+    //-------//
+    /**
+     * Compact sequence of links from one glyph to following glyphs.
+     */
+    private static class Links
+    {
+        /** Indices of linked glyphs. */
+        int[] others = new int[4];
+
+        /** Distances to linked glyphs. */
+        double[] distances = new double[4];
+
+        /** Number of links. */
+        int size;
+
+        void add (int other,
+                  double distance)
+        {
+            if (size == others.length) {
+                others = Arrays.copyOf(others, 2 * size);
+                distances = Arrays.copyOf(distances, 2 * size);
+            }
+
+            others[size] = other;
+            distances[size] = distance;
+            size++;
+        }
+    }
 }
 //    //-------------//
 //    // LinkAdapter //
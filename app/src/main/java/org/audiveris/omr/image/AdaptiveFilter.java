@@ -130,22 +130,16 @@ public abstract class AdaptiveFilter
     //---------------//
     // filteredImage //
     //---------------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole image is processed by a {@link BinarizationEngine}, which does not use the tiles
+     * of this filter but provides the same result as {@link #isFore} on every pixel.
+     */
     @Override
     public ByteProcessor filteredImage ()
     {
-        ByteProcessor ip = new ByteProcessor(source.getWidth(), source.getHeight());
-
-        for (int x = 0, w = ip.getWidth(); x < w; x++) {
-            for (int y = 0, h = ip.getHeight(); y < h; y++) {
-                if (isFore(x, y)) {
-                    ip.set(x, y, FOREGROUND);
-                } else {
-                    ip.set(x, y, BACKGROUND);
-                }
-            }
-        }
-
-        return ip;
+        return new BinarizationEngine(source).adaptive(HALF_WINDOW_SIZE, MEAN_COEFF, STD_DEV_COEFF);
     }
 
     //------------//
@@ -0,0 +1,260 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                              B i n a r i z a t i o n E n g i n e                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import static org.audiveris.omr.image.PixelSource.BACKGROUND;
+import static org.audiveris.omr.image.PixelSource.FOREGROUND;
+import org.audiveris.omr.util.OmrExecutors;
+import org.audiveris.omr.util.OmrExecutors.RangeProcessor;
+
+import ij.process.ByteProcessor;
+
+/**
+ * Class <code>BinarizationEngine</code> binarizes a whole gray image, either with a global
+ * threshold (see {@link GlobalFilter}) or with a threshold adapted to each pixel neighborhood
+ * (see {@link AdaptiveFilter}).
+ * <p>
+ * Pixel values are read from and written to the underlying byte arrays, rather than through
+ * per-pixel accessors.
+ * Image rows are processed by horizontal stripes in parallel (see
+ * {@link OmrExecutors#processRange}), each stripe writing only its own rows of the output image.
+ * <p>
+ * For the adaptive threshold, each stripe task maintains the vertical sums of values and squared
+ * values over the window height for every image column.
+ * These column sums are updated by one row entering and one row leaving the window as the task
+ * moves down, and their prefix sums along the current row give the window integrals in constant
+ * time.
+ * The integral values are exactly the ones provided by {@link AdaptiveFilter.Tile}, hence the
+ * resulting image is identical to the one given by the per-pixel {@link AdaptiveFilter#isFore}
+ * method, while memory needs remain proportional to image width.
+ *
+ * @author Hervé Bitteur
+ */
+public class BinarizationEngine
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final byte FORE = (byte) FOREGROUND;
+
+    private static final byte BACK = (byte) BACKGROUND;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Gray source. */
+    private final ByteProcessor source;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new BinarizationEngine object.
+     *
+     * @param source the gray image to binarize
+     */
+    public BinarizationEngine (ByteProcessor source)
+    {
+        this.source = source;
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //----------//
+    // adaptive //
+    //----------//
+    /**
+     * Binarize the source with a threshold computed in each pixel neighborhood as:
+     * <code>(meanCoeff * mean) + (stdDevCoeff * stdDev)</code>.
+     *
+     * @param halfWindow  half size of the square window around each pixel
+     * @param meanCoeff   coefficient for mean value
+     * @param stdDevCoeff coefficient for standard deviation value
+     * @return the binary image
+     */
+    public ByteProcessor adaptive (int halfWindow,
+                                   double meanCoeff,
+                                   double stdDevCoeff)
+    {
+        final ByteProcessor output = new ByteProcessor(source.getWidth(), source.getHeight());
+        final byte[] out = (byte[]) output.getPixels();
+        process((yMin, yMax) -> adaptiveRows(out, yMin, yMax, halfWindow, meanCoeff, stdDevCoeff));
+
+        return output;
+    }
+
+    //--------------//
+    // adaptiveRows //
+    //--------------//
+    private void adaptiveRows (byte[] out,
+                               int yMin,
+                               int yMax,
+                               int halfWindow,
+                               double meanCoeff,
+                               double stdDevCoeff)
+    {
+        final byte[] in = (byte[]) source.getPixels();
+        final int width = source.getWidth();
+        final int height = source.getHeight();
+
+        // Vertical sums over window rows (y1, y2], per column
+        final long[] colSums = new long[width];
+        final long[] colSqrs = new long[width];
+
+        // Prefix sums of column sums along current row, with a leading 0
+        final long[] sums = new long[width + 1];
+        final long[] sqrs = new long[width + 1];
+
+        int y1 = Math.max(-1, yMin - halfWindow - 1);
+        int y2 = Math.min(height - 1, yMin + halfWindow);
+
+        for (int j = y1 + 1; j <= y2; j++) {
+            addRow(in, j * width, width, colSums, colSqrs, 1);
+        }
+
+        for (int y = yMin; y <= yMax; y++) {
+            if (y > yMin) {
+                final int newY2 = Math.min(height - 1, y + halfWindow);
+
+                if (newY2 > y2) {
+                    y2 = newY2;
+                    addRow(in, y2 * width, width, colSums, colSqrs, 1);
+                }
+
+                final int newY1 = Math.max(-1, y - halfWindow - 1);
+
+                if (newY1 > y1) {
+                    y1 = newY1;
+                    addRow(in, y1 * width, width, colSums, colSqrs, -1);
+                }
+            }
+
+            for (int x = 0; x < width; x++) {
+                sums[x + 1] = sums[x] + colSums[x];
+                sqrs[x + 1] = sqrs[x] + colSqrs[x];
+            }
+
+            final int dy = y2 - y1;
+            final int row = y * width;
+
+            for (int x = 0; x < width; x++) {
+                final int x1 = Math.max(-1, x - halfWindow - 1);
+                final int x2 = Math.min(width - 1, x + halfWindow);
+                final int area = dy * (x2 - x1);
+                final double sum = sums[x2 + 1] - sums[x1 + 1];
+                final double sqr = sqrs[x2 + 1] - sqrs[x1 + 1];
+                final double mean = sum / area;
+                final double sqrMean = sqr / area;
+                final double stdDev = Math.sqrt(Math.abs(sqrMean - (mean * mean)));
+                final double threshold = (meanCoeff * mean) + (stdDevCoeff * stdDev);
+
+                out[row + x] = ((in[row + x] & 0xFF) <= threshold) ? FORE : BACK;
+            }
+        }
+    }
+
+    //--------//
+    // global //
+    //--------//
+    /**
+     * Binarize the source with the same threshold for all pixels.
+     *
+     * @param threshold maximum gray level of foreground pixel
+     * @return the binary image
+     */
+    public ByteProcessor global (int threshold)
+    {
+        final ByteProcessor output = new ByteProcessor(source.getWidth(), source.getHeight());
+        final byte[] in = (byte[]) source.getPixels();
+        final byte[] out = (byte[]) output.getPixels();
+        final int width = source.getWidth();
+
+        process((yMin, yMax) -> {
+            for (int i = yMin * width, iBreak = (yMax + 1) * width; i < iBreak; i++) {
+                out[i] = ((in[i] & 0xFF) <= threshold) ? FORE : BACK;
+            }
+        });
+
+        return output;
+    }
+
+    //---------//
+    // process //
+    //---------//
+    /**
+     * Run the provided processor on all image rows, by stripes in parallel.
+     *
+     * @param processor the stripe processor
+     */
+    private void process (RangeProcessor processor)
+    {
+        OmrExecutors.processRange(
+                0,
+                source.getHeight() - 1,
+                constants.minStripeHeight.getValue(),
+                processor);
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //--------//
+    // addRow //
+    //--------//
+    /**
+     * Add (or subtract) the values of an image row to the column sums.
+     *
+     * @param in      input pixels
+     * @param row     index of row first pixel
+     * @param width   image width
+     * @param colSums sums of values
+     * @param colSqrs sums of squared values
+     * @param sign    1 for addition, -1 for subtraction
+     */
+    private static void addRow (byte[] in,
+                                int row,
+                                int width,
+                                long[] colSums,
+                                long[] colSqrs,
+                                int sign)
+    {
+        for (int x = 0; x < width; x++) {
+            final int val = sign * (in[row + x] & 0xFF);
+            colSums[x] += val;
+            colSqrs[x] += sign * val * val;
+        }
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer minStripeHeight = new Constant.Integer(
+                "rows",
+                32,
+                "Minimum number of rows processed by one task");
+    }
+}
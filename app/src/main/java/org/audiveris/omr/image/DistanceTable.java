@@ -250,6 +250,24 @@ public interface DistanceTable
             table = new Table.Short(width, height);
         }
 
+        /**
+         * Creates a table backed by the first <code>width * height</code> cells of the provided
+         * array, meant to be reused for a sequence of tables.
+         *
+         * @param data       the backing array, perhaps larger than needed
+         * @param width      table width
+         * @param height     table height
+         * @param normalizer the normalizing value
+         */
+        public Short (short[] data,
+                      int width,
+                      int height,
+                      int normalizer)
+        {
+            super(normalizer);
+            table = new Table.Short(data, width, height);
+        }
+
         protected Short (Table.Short table,
                          int normalizer)
         {
@@ -269,6 +287,16 @@ public interface DistanceTable
             return new DistanceTable.Short(table.getCopy(roi), normalizer);
         }
 
+        /**
+         * Report the underlying flat array of distances, row after row, if available.
+         *
+         * @return the flat array, or null if this table is a view
+         */
+        public short[] getFlatValues ()
+        {
+            return table.isView() ? null : table.getValues();
+        }
+
         @Override
         protected final Table getTable ()
         {
@@ -63,19 +63,7 @@ public class GlobalFilter
     @Override
     public ByteProcessor filteredImage ()
     {
-        ByteProcessor ip = new ByteProcessor(source.getWidth(), source.getHeight());
-
-        for (int y = 0, h = ip.getHeight(); y < h; y++) {
-            for (int x = 0, w = ip.getWidth(); x < w; x++) {
-                if (isFore(x, y)) {
-                    ip.set(x, y, FOREGROUND);
-                } else {
-                    ip.set(x, y, BACKGROUND);
-                }
-            }
-        }
-
-        return ip;
+        return new BinarizationEngine(source).global(threshold);
     }
 
     //------------//
@@ -59,6 +59,8 @@ import javax.imageio.stream.ImageInputStream;
  * <li>{@link Loader#dispose()} to finally release any resources.</li>
  * </ul>
  * </ol>
+ * See {@link LoaderCache} for loaders shared among sheets.
+ * <p>
  * This class leverages several software pieces, each with its own Loader subclass:
  * <ul>
  * <li><b>Apache PDFBox</b> for PDF files.
@@ -302,16 +304,32 @@ public abstract class ImageLoading
     //--------------//
     // PdfBoxLoader //
     //--------------//
+    /**
+     * Loader on a PDF document, with a single renderer for all its pages.
+     * <p>
+     * It is not thread-safe, see {@link LoaderCache} for a shared use.
+     */
     private static class PdfboxLoader
             extends AbstractLoader
     {
         private final PDDocument doc;
 
+        private final PDFRenderer renderer;
+
         PdfboxLoader (PDDocument doc,
                       int imageCount)
         {
             super(imageCount);
             this.doc = doc;
+
+            RenderingHints renderingHints = new RenderingHints(null);
+            renderingHints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            renderingHints.put(
+                    RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+
+            renderer = new PDFRenderer(doc);
+            renderer.setRenderingHints(renderingHints);
         }
 
         @Override
@@ -331,14 +349,6 @@ public abstract class ImageLoading
             checkId(id);
             final int pageIndex = id - 1;
 
-            RenderingHints renderingHints = new RenderingHints(null);
-            renderingHints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
-            renderingHints.put(
-                    RenderingHints.KEY_INTERPOLATION,
-                    RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-
-            PDFRenderer renderer = new PDFRenderer(doc);
-            renderer.setRenderingHints(renderingHints);
             return renderer.renderImageWithDPI(
                     pageIndex,
                     constants.pdfResolution.getValue(),
@@ -0,0 +1,502 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     L o a d e r C a c h e                                      //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.image.ImageLoading.Loader;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class <code>LoaderCache</code> shares image loaders, per input file, among the sheets of
+ * books.
+ * <p>
+ * Opening an input file can be costly, especially for a PDF file that PDFBox must parse
+ * entirely.
+ * Hence, rather than opening the input file for every sheet image, a sheet {@link #acquire
+ * acquires} the loader shared by all sheets of the same input file, and releases it via
+ * {@link Loader#dispose()}.
+ * <p>
+ * A loader no longer used by any sheet is kept open, ready for another sheet, until it is
+ * {@link #evict evicted} (typically when its book is closed) or until there are too many idle
+ * loaders.
+ * <p>
+ * Besides, each time an image is loaded, the next images of the same input file are rasterized
+ * ahead of time on the low priority pool, so that they are ready when their sheets are processed.
+ * Since a loader is not thread-safe, images of the same input file are loaded one at a time.
+ * A prefetched image is dropped as soon as it is delivered, or when it gets out of the prefetch
+ * window around the latest image loaded, so that only a few images are kept in memory.
+ *
+ * @author Hervé Bitteur
+ */
+public class LoaderCache
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(LoaderCache.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Open entries, per input path, least recently acquired first. */
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Acquisitions served by an already open loader. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Acquisitions that needed to open the input file. */
+    private final LongAdder misses = new LongAdder();
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Use {@link #getInstance()} instead.
+     */
+    private LoaderCache ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //---------//
+    // acquire //
+    //---------//
+    /**
+     * Acquire a loader on the provided input file, opening the file if not yet done.
+     * <p>
+     * The loader must be released via its {@link Loader#dispose()} method, which leaves the
+     * input file open for further acquisitions.
+     *
+     * @param path the input file
+     * @return the shared loader, or null if failed
+     */
+    public Loader acquire (Path path)
+    {
+        synchronized (this) {
+            final Entry entry = entries.get(path);
+
+            if (entry != null) {
+                hits.increment();
+
+                return entry.share();
+            }
+        }
+
+        // Open input file, out of cache lock
+        final Loader loader = ImageLoading.getLoader(path);
+
+        if (loader == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            Entry entry = entries.get(path);
+
+            if (entry != null) {
+                // Input file concurrently opened by another sheet
+                loader.dispose();
+                hits.increment();
+            } else {
+                entries.put(path, entry = new Entry(path, loader));
+                misses.increment();
+                logger.debug("Opened {} {}", path, this);
+            }
+
+            return entry.share();
+        }
+    }
+
+    //-------//
+    // evict //
+    //-------//
+    /**
+     * Close the loader on the provided input file, if any.
+     * <p>
+     * If the loader is still in use, it will be closed when released by its last user.
+     *
+     * @param path the input file
+     */
+    public void evict (Path path)
+    {
+        final Entry entry;
+
+        synchronized (this) {
+            entry = entries.get(path);
+
+            if (entry == null) {
+                return;
+            }
+
+            if (entry.users > 0) {
+                entry.evicted = true;
+
+                return;
+            }
+
+            entries.remove(path);
+        }
+
+        entry.close();
+    }
+
+    //---------//
+    // getHits //
+    //---------//
+    /**
+     * Report the number of acquisitions served by an already open loader.
+     *
+     * @return the count of hits
+     */
+    public long getHits ()
+    {
+        return hits.sum();
+    }
+
+    //-----------//
+    // getMisses //
+    //-----------//
+    /**
+     * Report the number of acquisitions that needed to open the input file.
+     *
+     * @return the count of misses
+     */
+    public long getMisses ()
+    {
+        return misses.sum();
+    }
+
+    //---------//
+    // getSize //
+    //---------//
+    /**
+     * Report the current number of open loaders, whether idle or in use.
+     *
+     * @return the count of open loaders
+     */
+    public synchronized int getSize ()
+    {
+        return entries.size();
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Release one use of the provided entry, closing the entries no longer needed.
+     *
+     * @param entry the entry to release
+     */
+    private void release (Entry entry)
+    {
+        final List<Entry> closables = new ArrayList<>();
+
+        synchronized (this) {
+            if (--entry.users > 0) {
+                return;
+            }
+
+            if (entry.evicted && entries.remove(entry.path, entry)) {
+                closables.add(entry);
+            }
+
+            // Too many idle entries?
+            int excess = -constants.maxIdleLoaders.getValue();
+
+            for (Entry e : entries.values()) {
+                if (e.users == 0) {
+                    excess++;
+                }
+            }
+
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext() && (excess > 0);) {
+                final Entry e = it.next();
+
+                if (e.users == 0) {
+                    it.remove();
+                    closables.add(e);
+                    excess--;
+                }
+            }
+        }
+
+        for (Entry e : closables) {
+            logger.debug("Closing {}", e.path);
+            e.close();
+        }
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return new StringBuilder("LoaderCache{")
+                .append("loaders:").append(getSize())
+                .append(" hits:").append(getHits())
+                .append(" misses:").append(getMisses())
+                .append('}').toString();
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-------------//
+    // getInstance //
+    //-------------//
+    /**
+     * Report the single instance of this class in application.
+     *
+     * @return the instance
+     */
+    public static LoaderCache getInstance ()
+    {
+        return LazySingleton.INSTANCE;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer maxIdleLoaders = new Constant.Integer(
+                "loaders",
+                2,
+                "Maximum count of loaders kept open while not in use");
+
+        private final Constant.Integer prefetchCount = new Constant.Integer(
+                "images",
+                2,
+                "Count of next images rasterized ahead of time (0 for none)");
+    }
+
+    //-------//
+    // Entry //
+    //-------//
+    /**
+     * The open loader on an input file.
+     */
+    private class Entry
+    {
+        /** Input file. */
+        final Path path;
+
+        /** Underlying loader, to be used by one thread at a time. */
+        final Loader loader;
+
+        /** Images rasterized ahead of time, per image id. */
+        final Map<Integer, Future<BufferedImage>> prefetched = new HashMap<>();
+
+        /** Ids of images recently loaded or prefetched, within the prefetch window. */
+        final BitSet requested = new BitSet();
+
+        /** Count of current users. Guarded by cache. */
+        int users;
+
+        /** To be closed upon last release. Guarded by cache. */
+        boolean evicted;
+
+        /** Underlying loader is closed. Guarded by loader. */
+        boolean closed;
+
+        Entry (Path path,
+               Loader loader)
+        {
+            this.path = path;
+            this.loader = loader;
+        }
+
+        synchronized void close ()
+        {
+            for (Future<BufferedImage> future : prefetched.values()) {
+                future.cancel(false);
+            }
+
+            prefetched.clear();
+
+            synchronized (loader) {
+                closed = true;
+                loader.dispose();
+            }
+        }
+
+        synchronized void prefetch (int id)
+        {
+            final int count = constants.prefetchCount.getValue();
+            final int last = Math.min(loader.getImageCount(), id + count);
+
+            // Drop the images no longer in window, and forget the older ids
+            prefetched.entrySet().removeIf(e -> {
+                if (Math.abs(e.getKey() - id) <= count) {
+                    return false;
+                }
+
+                logger.debug("Dropping prefetched image #{} from {}", e.getKey(), path);
+                e.getValue().cancel(false);
+                requested.clear(e.getKey());
+
+                return true;
+            });
+
+            requested.clear(0, Math.max(0, id - count));
+
+            for (int i = id + 1; i <= last; i++) {
+                if (!requested.get(i)) {
+                    final int imageId = i;
+
+                    try {
+                        prefetched.put(
+                                i,
+                                OmrExecutors.getLowExecutor().submit( () -> render(imageId)));
+                        requested.set(i);
+                    } catch (RuntimeException ex) {
+                        logger.debug("No prefetch of image #{} from {} {}", i, path, ex.toString());
+
+                        return;
+                    }
+                }
+            }
+        }
+
+        BufferedImage render (int id)
+            throws IOException
+        {
+            synchronized (loader) {
+                if (closed) {
+                    throw new IOException("Loader closed on " + path);
+                }
+
+                return loader.getImage(id);
+            }
+        }
+
+        /** Called with cache lock. */
+        Loader share ()
+        {
+            users++;
+            evicted = false;
+
+            return new SharedLoader(this);
+        }
+
+        synchronized Future<BufferedImage> take (int id)
+        {
+            requested.set(id);
+
+            return prefetched.remove(id);
+        }
+    }
+
+    //---------------//
+    // LazySingleton //
+    //---------------//
+    private static class LazySingleton
+    {
+        static final LoaderCache INSTANCE = new LoaderCache();
+    }
+
+    //--------------//
+    // SharedLoader //
+    //--------------//
+    /**
+     * The loader handed to one user of an entry.
+     */
+    private class SharedLoader
+            implements Loader
+    {
+        private final Entry entry;
+
+        private boolean disposed;
+
+        SharedLoader (Entry entry)
+        {
+            this.entry = entry;
+        }
+
+        @Override
+        public synchronized void dispose ()
+        {
+            if (!disposed) {
+                disposed = true;
+                release(entry);
+            }
+        }
+
+        @Override
+        public BufferedImage getImage (int id)
+            throws IOException
+        {
+            BufferedImage img = null;
+            final Future<BufferedImage> future = entry.take(id);
+
+            // Use prefetched image, unless its rasterization has not yet started
+            if ((future != null) && !future.cancel(false)) {
+                try {
+                    img = future.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted loading image #" + id);
+                } catch (CancellationException | ExecutionException ex) {
+                    logger.debug("Prefetch failed for image #{} from {} {}", id, entry.path, ex);
+                }
+            }
+
+            if (img == null) {
+                img = entry.render(id);
+            }
+
+            if (constants.prefetchCount.getValue() > 0) {
+                entry.prefetch(id);
+            }
+
+            return img;
+        }
+
+        @Override
+        public int getImageCount ()
+        {
+            return entry.loader.getImageCount();
+        }
+    }
+}
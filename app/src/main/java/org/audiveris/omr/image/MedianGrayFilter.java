@@ -21,19 +21,37 @@
 // </editor-fold>
 package org.audiveris.omr.image;
 
-import java.util.Arrays;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.util.OmrExecutors;
 
 import ij.process.ByteProcessor;
 
+import java.util.Arrays;
+
 /**
  * Class <code>MedianGrayFilter</code> allows to run a median filter on an input image,
  * assumed to contain only gray values [0..255].
+ * <p>
+ * Within each image row, the square window slides from one pixel to the next, as proposed by
+ * Huang: the histogram is updated by just removing the left column and adding the right column,
+ * and the median value is moved incrementally from its previous value.
+ * <p>
+ * At image boundaries, the window radius is reduced to not use pixels outside the image.
+ * These few border pixels are processed by a direct histogram of their reduced window.
+ * <p>
+ * Image rows are independent of each other, hence they are processed by horizontal stripes
+ * in parallel, when parallelism is allowed (see {@link OmrExecutors#processRange}).
  *
  * @author Hervé Bitteur
  */
 public class MedianGrayFilter
         extends AbstractGrayFilter
 {
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** Desired radius for the filter. */
@@ -53,62 +71,222 @@ public class MedianGrayFilter
 
     //~ Methods ------------------------------------------------------------------------------------
 
+    //-------------//
+    // borderPixel //
+    //-------------//
+    /**
+     * Compute median value for a pixel near image boundaries, using a reduced radius.
+     *
+     * @param in        input pixels
+     * @param width     image width
+     * @param height    image height
+     * @param x         pixel abscissa
+     * @param y         pixel ordinate
+     * @param histogram working histogram
+     * @return the median value
+     */
+    private int borderPixel (byte[] in,
+                             int width,
+                             int height,
+                             int x,
+                             int y,
+                             int[] histogram)
+    {
+        // To address specific behavior at image boundaries,
+        // reduce radius to not use pixels outside the image.
+        int rad = radius;
+
+        if ((x - rad) < 0) {
+            rad = x;
+        }
+
+        if ((y - rad) < 0) {
+            rad = y;
+        }
+
+        if ((x + rad) >= width) {
+            rad = width - 1 - x;
+        }
+
+        if ((y + rad) >= height) {
+            rad = height - 1 - y;
+        }
+
+        Arrays.fill(histogram, 0);
+
+        for (int j = y - rad; j <= (y + rad); j++) {
+            final int row = j * width;
+
+            for (int i = x - rad; i <= (x + rad); i++) {
+                histogram[in[row + i] & 0xFF]++;
+            }
+        }
+
+        // Pick up the median value
+        final int side = (2 * rad) + 1;
+        final int medianCount = ((side * side) + 1) / 2;
+        int median = 255;
+        int sum = 0;
+
+        while (sum < medianCount) {
+            sum += histogram[median];
+            median--;
+        }
+
+        return median + 1;
+    }
+
     //--------//
     // filter //
     //--------//
     @Override
     public void filter (final ByteProcessor input,
                         final ByteProcessor output)
+    {
+        OmrExecutors.processRange(
+                0,
+                input.getHeight() - 1,
+                constants.minStripeHeight.getValue(),
+                (yMin, yMax) -> filterRows(input, output, yMin, yMax));
+    }
+
+    //------------//
+    // filterRows //
+    //------------//
+    /**
+     * Filter the provided range of rows.
+     *
+     * @param input  the input image
+     * @param output the output image
+     * @param yMin   first row
+     * @param yMax   last row
+     */
+    private void filterRows (ByteProcessor input,
+                             ByteProcessor output,
+                             int yMin,
+                             int yMax)
     {
         final int width = input.getWidth();
         final int height = input.getHeight();
+        final byte[] in = (byte[]) input.getPixels();
+        final byte[] out = (byte[]) output.getPixels();
         final int[] histogram = new int[256];
-        Arrays.fill(histogram, 0);
+        final boolean slidable = width > (2 * radius);
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // To address specific behavior at image boundaries,
-                // reduce radius to not use pixels outside the image.
-                int rad = radius;
+        for (int y = yMin; y <= yMax; y++) {
+            final int row = y * width;
 
-                if ((x - rad) < 0) {
-                    rad = x;
+            if (!slidable || (y < radius) || (y >= (height - radius))) {
+                for (int x = 0; x < width; x++) {
+                    out[row + x] = (byte) borderPixel(in, width, height, x, y, histogram);
                 }
-
-                if ((y - rad) < 0) {
-                    rad = y;
+            } else {
+                for (int x = 0; x < radius; x++) {
+                    out[row + x] = (byte) borderPixel(in, width, height, x, y, histogram);
                 }
 
-                if ((x + rad) >= width) {
-                    rad = width - 1 - x;
-                }
+                slideRow(in, out, width, y, histogram);
 
-                if ((y + rad) >= height) {
-                    rad = height - 1 - y;
+                for (int x = width - radius; x < width; x++) {
+                    out[row + x] = (byte) borderPixel(in, width, height, x, y, histogram);
                 }
+            }
+        }
+    }
+
+    //----------//
+    // slideRow //
+    //----------//
+    /**
+     * Process the pixels of a row for which the full window fits within the image.
+     * <p>
+     * Variable 'above' is the count of window values strictly greater than median value,
+     * so that median value is the highest value for which: above &lt; medianCount &lt;= above +
+     * histogram[median]
+     *
+     * @param in        input pixels
+     * @param out       output pixels
+     * @param width     image width
+     * @param y         row ordinate
+     * @param histogram working histogram
+     */
+    private void slideRow (byte[] in,
+                           byte[] out,
+                           int width,
+                           int y,
+                           int[] histogram)
+    {
+        final int side = (2 * radius) + 1;
+        final int medianCount = ((side * side) + 1) / 2;
+        final int jMin = (y - radius) * width;
+        final int jMax = (y + radius) * width;
+
+        // Initial window, centered on x = radius
+        Arrays.fill(histogram, 0);
 
-                Arrays.fill(histogram, 0); // Brute force!
+        for (int j = jMin; j <= jMax; j += width) {
+            for (int i = 0; i < side; i++) {
+                histogram[in[j + i] & 0xFF]++;
+            }
+        }
+
+        int median = 255;
+        int above = 0;
+
+        while ((above + histogram[median]) < medianCount) {
+            above += histogram[median];
+            median--;
+        }
+
+        out[(y * width) + radius] = (byte) median;
+
+        // Slide window to the right
+        for (int x = radius + 1, xBreak = width - radius; x < xBreak; x++) {
+            final int iOut = x - radius - 1;
+            final int iIn = x + radius;
+
+            for (int j = jMin; j <= jMax; j += width) {
+                final int vOut = in[j + iOut] & 0xFF;
+                histogram[vOut]--;
 
-                for (int i = x - rad; i <= (x + rad); i++) {
-                    for (int j = y - rad; j <= (y + rad); j++) {
-                        int val = input.get(i, j);
-                        histogram[val]++;
-                    }
+                if (vOut > median) {
+                    above--;
                 }
 
-                // Pick up the median value
-                final int side = (2 * rad) + 1;
-                final int medianCount = ((side * side) + 1) / 2;
-                int median = 255;
-                int sum = 0;
+                final int vIn = in[j + iIn] & 0xFF;
+                histogram[vIn]++;
 
-                while (sum < medianCount) {
-                    sum += histogram[median];
-                    median--;
+                if (vIn > median) {
+                    above++;
                 }
+            }
+
+            // Move median up or down
+            while (above >= medianCount) {
+                median++;
+                above -= histogram[median];
+            }
 
-                output.set(x, y, median + 1);
+            while ((above + histogram[median]) < medianCount) {
+                above += histogram[median];
+                median--;
             }
+
+            out[(y * width) + x] = (byte) median;
         }
     }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer minStripeHeight = new Constant.Integer(
+                "rows",
+                32,
+                "Minimum number of rows processed by one task");
+    }
 }
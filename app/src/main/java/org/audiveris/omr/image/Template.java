@@ -26,6 +26,7 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.glyph.ShapeSet;
 import org.audiveris.omr.glyph.ShapeSet.HeadMotif;
+import static org.audiveris.omr.image.ChamferDistance.VALUE_UNKNOWN;
 import static org.audiveris.omr.image.PixelSource.BACKGROUND;
 import org.audiveris.omr.math.TableUtil;
 import org.audiveris.omr.sheet.ProcessingSwitch;
@@ -70,6 +71,10 @@ import java.util.Map.Entry;
  * </dl>
  * <p>
  * <img alt="Template diagram" src="doc-files/Template.png">
+ * <p>
+ * For evaluation against a flat short distance table, key points are also available in a packed
+ * form (parallel arrays of offsets and kinds), which avoids any object or interface access in
+ * the inner matching loop.
  *
  * @author Hervé Bitteur
  */
@@ -112,6 +117,9 @@ public class Template
     /** Collection of key points lazily computed for this template. */
     private List<PixelDistance> keyPoints;
 
+    /** Packed form of key points, lazily computed. */
+    private volatile PackedKeys packedKeys;
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -205,6 +213,11 @@ public class Template
                             DistanceTable distances)
     {
         final Point ul = upperLeft(x, y, anchor);
+        final short[] values = flatValuesFor(ul, distances);
+
+        if (values != null) {
+            return evaluatePacked(ul, values, distances.getWidth());
+        }
 
         // Loop through template key positions and read related distance.
         // Compute the mean value on all distances read
@@ -267,6 +280,11 @@ public class Template
                                 DistanceTable distances)
     {
         final Point ul = upperLeft(x, y, anchor);
+        final short[] values = flatValuesFor(ul, distances);
+
+        if (values != null) {
+            return evaluateHolePacked(ul, values, distances.getWidth());
+        }
 
         // Loop through template key positions and read related distance.
         // Compute the mean value on all distances read
@@ -304,6 +322,126 @@ public class Template
         }
     }
 
+    //--------------------//
+    // evaluateHolePacked //
+    //--------------------//
+    /**
+     * Packed version of {@link #evaluateHole}, for a template located entirely within
+     * the flat distance table.
+     *
+     * @param ul     template upper left corner in table
+     * @param values flat table values
+     * @param stride table width
+     * @return ratio of actual white pixels over expected hole pixels
+     */
+    private double evaluateHolePacked (Point ul,
+                                       short[] values,
+                                       int stride)
+    {
+        final PackedKeys keys = getPackedKeys();
+        final int[] offsets = keys.getOffsets(stride);
+        final int[] holes = keys.holes;
+        final int base = (ul.y * stride) + ul.x;
+        int expectedHoles = 0;
+        int actualHoles = 0;
+
+        for (int h = 0; h < holes.length; h++) {
+            final int actualDist = values[base + offsets[holes[h]]];
+
+            if (actualDist != VALUE_UNKNOWN) {
+                expectedHoles++;
+
+                if (actualDist != 0) {
+                    actualHoles++;
+                }
+            }
+        }
+
+        if (expectedHoles == 0) {
+            return 0;
+        } else {
+            return (double) actualHoles / expectedHoles;
+        }
+    }
+
+    //----------------//
+    // evaluatePacked //
+    //----------------//
+    /**
+     * Packed version of {@link #evaluate}, for a template located entirely within
+     * the flat distance table.
+     *
+     * @param ul     template upper left corner in table
+     * @param values flat table values
+     * @param stride table width
+     * @return the weighted average distance computed on all template key positions
+     */
+    private double evaluatePacked (Point ul,
+                                   short[] values,
+                                   int stride)
+    {
+        final PackedKeys keys = getPackedKeys();
+        final int[] offsets = keys.getOffsets(stride);
+        final byte[] kinds = keys.kinds;
+        final double[] kindWeights = new double[]
+        {
+                constants.foreWeight.getValue(),
+                constants.backWeight.getValue(),
+                constants.holeWeight.getValue() };
+        final int base = (ul.y * stride) + ul.x;
+        double weights = 0; // Sum of weights
+        double total = 0; // Sum of weighted distances
+
+        for (int i = 0; i < offsets.length; i++) {
+            final int actualDist = values[base + offsets[i]];
+
+            // Ignore neutralized locations in distance table
+            if (actualDist != VALUE_UNKNOWN) {
+                final int kind = kinds[i];
+                final double weight = kindWeights[kind];
+
+                // Mismatch between expected foreground and actual foreground?
+                if ((actualDist == 0) != (kind == PackedKeys.FORE)) {
+                    total += weight;
+                }
+
+                weights += weight;
+            }
+        }
+
+        if (weights == 0) {
+            return Double.MAX_VALUE; // Safer
+        }
+
+        return total / weights;
+    }
+
+    //---------------//
+    // flatValuesFor //
+    //---------------//
+    /**
+     * Report the flat array of distances, if the packed evaluation can be used.
+     *
+     * @param ul        template upper left corner in table
+     * @param distances the distance table
+     * @return the flat array of distances, or null if table is not a flat short table or if
+     *         template is not located entirely within the table
+     */
+    private short[] flatValuesFor (Point ul,
+                                   DistanceTable distances)
+    {
+        if (!constants.usePackedKeys.isSet() || !(distances instanceof DistanceTable.Short ds)) {
+            return null;
+        }
+
+        if ((ul.x < 0) || ((ul.x + width) > ds.getWidth()) || (ul.y < 0)
+                || ((ul.y + height) > ds.getHeight())) {
+            return null;
+        }
+
+        return ds.getFlatValues();
+    }
+
     //-----------//
     // getBounds //
     //-----------//
@@ -513,6 +651,20 @@ public class Template
         return Collections.unmodifiableMap(offsets);
     }
 
+    //---------------//
+    // getPackedKeys //
+    //---------------//
+    private PackedKeys getPackedKeys ()
+    {
+        PackedKeys keys = packedKeys;
+
+        if (keys == null) {
+            packedKeys = keys = new PackedKeys(getKeyPoints());
+        }
+
+        return keys;
+    }
+
     //--------------//
     // getPointSize //
     //--------------//
@@ -753,5 +905,109 @@ public class Template
                 "distance",
                 1.0,
                 "Really bad matching distance");
+
+        private final Constant.Boolean usePackedKeys = new Constant.Boolean(
+                true,
+                "Should we use packed key points when matching against a flat table?");
+    }
+
+    //------------//
+    // PackedKeys //
+    //------------//
+    /**
+     * Key points in a structure-of-arrays form.
+     */
+    private static class PackedKeys
+    {
+        /** Kind for expected foreground. */
+        static final byte FORE = 0;
+
+        /** Kind for expected exterior background. */
+        static final byte BACK = 1;
+
+        /** Kind for expected interior background (hole). */
+        static final byte HOLE = 2;
+
+        /** Abscissa of each key point, relative to template. */
+        final int[] xs;
+
+        /** Ordinate of each key point, relative to template. */
+        final int[] ys;
+
+        /** Kind of each key point. */
+        final byte[] kinds;
+
+        /** Indices of hole key points. */
+        final int[] holes;
+
+        /** Linear offsets for the last table stride used. */
+        private volatile Linear linear;
+
+        PackedKeys (List<PixelDistance> points)
+        {
+            final int count = points.size();
+            xs = new int[count];
+            ys = new int[count];
+            kinds = new byte[count];
+
+            int holeCount = 0;
+
+            for (int i = 0; i < count; i++) {
+                final PixelDistance pix = points.get(i);
+                xs[i] = pix.x;
+                ys[i] = pix.y;
+                kinds[i] = (pix.d == 0) ? FORE : ((pix.d > 0) ? BACK : HOLE);
+
+                if (kinds[i] == HOLE) {
+                    holeCount++;
+                }
+            }
+
+            holes = new int[holeCount];
+
+            for (int i = 0, h = 0; i < count; i++) {
+                if (kinds[i] == HOLE) {
+                    holes[h++] = i;
+                }
+            }
+        }
+
+        /**
+         * Report the linear offset of each key point, for the provided table stride.
+         *
+         * @param stride table width
+         * @return the linear offsets, relative to template upper left corner
+         */
+        int[] getOffsets (int stride)
+        {
+            Linear lin = linear;
+
+            if ((lin == null) || (lin.stride != stride)) {
+                final int[] offsets = new int[xs.length];
+
+                for (int i = 0; i < xs.length; i++) {
+                    offsets[i] = (ys[i] * stride) + xs[i];
+                }
+
+                linear = lin = new Linear(stride, offsets);
+            }
+
+            return lin.offsets;
+        }
+
+        /** Linear offsets computed for a given stride. */
+        private static class Linear
+        {
+            final int stride;
+
+            final int[] offsets;
+
+            Linear (int stride,
+                    int[] offsets)
+            {
+                this.stride = stride;
+                this.offsets = offsets;
+            }
+        }
     }
 }
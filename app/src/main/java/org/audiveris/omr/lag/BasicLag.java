@@ -32,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -74,6 +75,9 @@ public class BasicLag
         this.name = name;
         this.orientation = orientation;
 
+        // Sections are registered before their runs are known
+        enableSpatialIndex(true);
+
         logger.debug("Created lag {}", name);
     }
 
@@ -180,7 +184,15 @@ public class BasicLag
     @Override
     public Set<Section> intersectedSections (Rectangle rect)
     {
-        return Sections.intersectedSections(rect, getEntities());
+        final Set<Section> found = new LinkedHashSet<>();
+
+        for (Section section : getIntersectedEntities(rect)) {
+            if (section.intersects(rect)) {
+                found.add(section);
+            }
+        }
+
+        return found;
     }
 
     //------------//
@@ -74,6 +74,8 @@ public class DynamicSection
 
         // Compute contribution of this run
         computeRunContribution(run);
+
+        boundsChanged();
     }
 
     //--------//
@@ -95,6 +97,19 @@ public class DynamicSection
         logger.debug("Appended {} to {}", run, this);
     }
 
+    //---------------//
+    // boundsChanged //
+    //---------------//
+    /**
+     * Notify the containing lag, if any, that section bounds have changed.
+     */
+    private void boundsChanged ()
+    {
+        if (lag != null) {
+            lag.updateBounds(this);
+        }
+    }
+
     //-----------------//
     // computeCentroid //
     //-----------------//
@@ -368,6 +383,8 @@ public class DynamicSection
     public void setFirstPos (int firstPos)
     {
         this.firstPos = firstPos;
+
+        boundsChanged();
     }
 
     //-----------//
@@ -391,5 +408,6 @@ public class DynamicSection
 
         // Force update
         invalidateCache();
+        boundsChanged();
     }
 }
@@ -340,6 +340,7 @@ public class SectionFactory
             final DynamicSection dynSection = new DynamicSection(orientation);
 
             if (lag != null) {
+                dynSection.setLag(lag); // Section will notify lag of its growth
                 lag.register(dynSection); // Section gets an id from lag
             } else {
                 dynSection.setId(++localId); // Use a local id
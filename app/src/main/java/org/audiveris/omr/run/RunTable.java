@@ -45,8 +45,10 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -913,6 +915,20 @@ public class RunTable
         return new Dimension(width, height);
     }
 
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Report an approximate memory footprint of this table.
+     *
+     * @return the approximate number of bytes
+     */
+    public long getFootprint ()
+    {
+        // Each run costs 2 ints in rle, each sequence costs an array header
+        return (8L * getTotalRunCount()) + (16L * getSize());
+    }
+
     //-----------//
     // getHeight //
     //-----------//
@@ -990,6 +1006,22 @@ public class RunTable
         return runService;
     }
 
+    //--------//
+    // getRle //
+    //--------//
+    /**
+     * (package private) Report the raw RLE array of the sequence at a given index.
+     *
+     * @param index the desired index
+     * @return the MODIFIABLE RLE array, perhaps null
+     */
+    final int[] getRle (int index)
+    {
+        final RunSequence seq = sequences[index];
+
+        return (seq == null) ? null : seq.rle;
+    }
+
     //-------------//
     // getSequence //
     //-------------//
@@ -1454,6 +1486,22 @@ public class RunTable
         }
     }
 
+    //--------//
+    // setRle //
+    //--------//
+    /**
+     * (package private) Set the raw RLE array of the sequence at a given index.
+     *
+     * @param index position in sequences list
+     * @param rle   the RLE array, perhaps null
+     */
+    final void setRle (int index,
+                       int[] rle)
+    {
+        sequences[index] = (rle == null) ? null : new RunSequence(rle);
+        weight = null;
+    }
+
     //---------------//
     // setRunService //
     //---------------//
@@ -1713,6 +1761,9 @@ public class RunTable
     //-----------//
     /**
      * Unmarshal a RunTable from a file.
+     * <p>
+     * The file may use either the compact binary format of {@link RunTableCodec} or the XML
+     * format.
      *
      * @param path path to file
      * @return unmarshalled run table
@@ -1721,12 +1772,9 @@ public class RunTable
     {
         logger.debug("RunTable unmarshalling {}", path);
 
-        try (InputStream is = Files.newInputStream(path, StandardOpenOption.READ)) {
-            Unmarshaller um = getJaxbContext().createUnmarshaller();
-            RunTable runTable = (RunTable) um.unmarshal(is);
-            logger.debug("Unmarshalled {}", runTable);
-
-            return runTable;
+        try (InputStream is = new BufferedInputStream(
+                Files.newInputStream(path, StandardOpenOption.READ))) {
+            return unmarshal(is);
         } catch (IOException | JAXBException ex) {
             logger.warn("RunTable. Error unmarshalling " + path + " " + ex, ex);
 
@@ -1734,6 +1782,36 @@ public class RunTable
         }
     }
 
+    //-----------//
+    // unmarshal //
+    //-----------//
+    /**
+     * Unmarshal a RunTable from an input stream, using binary format if detected, or XML
+     * format otherwise.
+     *
+     * @param is the input stream, which must support mark/reset
+     * @return unmarshalled run table
+     * @throws IOException   on IO error
+     * @throws JAXBException on JAXB error
+     */
+    public static RunTable unmarshal (InputStream is)
+        throws IOException,
+               JAXBException
+    {
+        final RunTable runTable;
+
+        if (RunTableCodec.isEncoded(is)) {
+            runTable = RunTableCodec.read(Channels.newChannel(is));
+        } else {
+            Unmarshaller um = getJaxbContext().createUnmarshaller();
+            runTable = (RunTable) um.unmarshal(is);
+        }
+
+        logger.debug("Unmarshalled {}", runTable);
+
+        return runTable;
+    }
+
     //-----//
     // Itr //
     //-----//
@@ -0,0 +1,332 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    R u n T a b l e C o d e c                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.run;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Class <code>RunTableCodec</code> handles a compact binary format for {@link RunTable}
+ * persistence, as an alternative to the JAXB XML format.
+ * <p>
+ * Layout of the encoded data:
+ * <ol>
+ * <li>The 4 bytes {@link #MAGIC} ("ORLE"),
+ * <li>One byte for format {@link #VERSION},
+ * <li>One byte for orientation (0 for HORIZONTAL, 1 for VERTICAL),
+ * <li>Table width and table height,
+ * <li>For each sequence: the count of RLE values plus one (0 for a null sequence), followed by
+ * the RLE values themselves.
+ * </ol>
+ * All integer values are written as unsigned variable-length quantities (7 bits per byte, least
+ * significant group first), which fits RLE lengths very well since most of them are small.
+ * <p>
+ * Data is written to and read from NIO channels through a single working buffer.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class RunTableCodec
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Leading bytes of any encoded table. */
+    public static final byte[] MAGIC = new byte[]
+    { 'O', 'R', 'L', 'E' };
+
+    /** Current format version. */
+    public static final int VERSION = 1;
+
+    /** Size of working buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Size of working buffer, when encoding in memory. */
+    private static final int SMALL_BUFFER_SIZE = 1 << 8;
+
+    /** Maximum bytes for one varint. */
+    private static final int MAX_VARINT = 5;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /** Not meant to be instantiated. */
+    private RunTableCodec ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //--------//
+    // encode //
+    //--------//
+    /**
+     * Report the encoded data of the provided run table, as a byte array.
+     * <p>
+     * Two tables with the same dimension, orientation and runs give the same array.
+     *
+     * @param table the table to encode
+     * @return the encoded bytes
+     */
+    public static byte[] encode (RunTable table)
+    {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(SMALL_BUFFER_SIZE);
+
+        try {
+            write(table, Channels.newChannel(bos), SMALL_BUFFER_SIZE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // Cannot occur on an in-memory stream
+        }
+
+        return bos.toByteArray();
+    }
+
+    //------//
+    // fill //
+    //------//
+    /**
+     * Make sure at least the needed count of bytes is available in buffer (unless end of
+     * data is reached), buffer being left in read mode.
+     */
+    private static void fill (ReadableByteChannel channel,
+                              ByteBuffer buf,
+                              int needed)
+        throws IOException
+    {
+        if (buf.remaining() >= needed) {
+            return;
+        }
+
+        buf.compact();
+
+        while (buf.position() < needed) {
+            if (channel.read(buf) < 0) {
+                break;
+            }
+        }
+
+        buf.flip();
+    }
+
+    //-------//
+    // flush //
+    //-------//
+    private static void flush (WritableByteChannel channel,
+                               ByteBuffer buf)
+        throws IOException
+    {
+        buf.flip();
+
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+
+        buf.clear();
+    }
+
+    //-----------//
+    // isEncoded //
+    //-----------//
+    /**
+     * Check whether the provided input stream begins with encoded table data.
+     * The stream position is left unchanged.
+     *
+     * @param is the input stream, which must support mark/reset
+     * @return true if binary data is detected
+     * @throws IOException on IO error
+     */
+    public static boolean isEncoded (InputStream is)
+        throws IOException
+    {
+        if (!is.markSupported()) {
+            throw new IllegalArgumentException("RunTableCodec needs mark support");
+        }
+
+        is.mark(MAGIC.length);
+
+        try {
+            for (byte b : MAGIC) {
+                if (is.read() != b) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            is.reset();
+        }
+    }
+
+    //------//
+    // read //
+    //------//
+    /**
+     * Read a run table from the provided channel.
+     *
+     * @param channel the input channel, positioned at beginning of encoded data
+     * @return the decoded table
+     * @throws IOException if data is not a valid encoded table
+     */
+    public static RunTable read (ReadableByteChannel channel)
+        throws IOException
+    {
+        final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        buf.flip(); // Empty, in read mode
+        fill(channel, buf, MAGIC.length + 2);
+
+        for (byte b : MAGIC) {
+            if (!buf.hasRemaining() || buf.get() != b) {
+                throw new IOException("Not an encoded RunTable");
+            }
+        }
+
+        final int version = buf.get();
+
+        if (version > VERSION) {
+            throw new IOException("Unsupported RunTable format version " + version);
+        }
+
+        final Orientation orientation = (buf.get() == 0) ? Orientation.HORIZONTAL
+                : Orientation.VERTICAL;
+        final int width = readVarint(channel, buf);
+        final int height = readVarint(channel, buf);
+        final RunTable table = new RunTable(orientation, width, height);
+
+        for (int i = 0, iBreak = table.getSize(); i < iBreak; i++) {
+            final int count = readVarint(channel, buf) - 1;
+
+            if (count >= 0) {
+                final int[] rle = new int[count];
+
+                for (int j = 0; j < count; j++) {
+                    rle[j] = readVarint(channel, buf);
+                }
+
+                table.setRle(i, rle);
+            }
+        }
+
+        return table;
+    }
+
+    //------------//
+    // readVarint //
+    //------------//
+    private static int readVarint (ReadableByteChannel channel,
+                                   ByteBuffer buf)
+        throws IOException
+    {
+        fill(channel, buf, MAX_VARINT);
+
+        int value = 0;
+
+        for (int shift = 0; shift < (7 * MAX_VARINT); shift += 7) {
+            if (!buf.hasRemaining()) {
+                throw new EOFException("Truncated RunTable data");
+            }
+
+            final int b = buf.get();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint in RunTable data");
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the provided run table to the provided channel.
+     *
+     * @param table   the table to encode
+     * @param channel the output channel
+     * @throws IOException on IO error
+     */
+    public static void write (RunTable table,
+                              WritableByteChannel channel)
+        throws IOException
+    {
+        write(table, channel, BUFFER_SIZE);
+    }
+
+    //-------//
+    // write //
+    //-------//
+    private static void write (RunTable table,
+                               WritableByteChannel channel,
+                               int bufferSize)
+        throws IOException
+    {
+        final ByteBuffer buf = ByteBuffer.allocate(bufferSize);
+        buf.put(MAGIC);
+        buf.put((byte) VERSION);
+        buf.put((byte) (table.getOrientation().isVertical() ? 1 : 0));
+        writeVarint(table.getWidth(), channel, buf);
+        writeVarint(table.getHeight(), channel, buf);
+
+        for (int i = 0, iBreak = table.getSize(); i < iBreak; i++) {
+            final int[] rle = table.getRle(i);
+
+            if (rle == null) {
+                writeVarint(0, channel, buf);
+            } else {
+                writeVarint(rle.length + 1, channel, buf);
+
+                for (int val : rle) {
+                    writeVarint(val, channel, buf);
+                }
+            }
+        }
+
+        flush(channel, buf);
+    }
+
+    //-------------//
+    // writeVarint //
+    //-------------//
+    private static void writeVarint (int value,
+                                     WritableByteChannel channel,
+                                     ByteBuffer buf)
+        throws IOException
+    {
+        if (buf.remaining() < MAX_VARINT) {
+            flush(channel, buf);
+        }
+
+        int val = value;
+
+        while ((val & ~0x7F) != 0) {
+            buf.put((byte) ((val & 0x7F) | 0x80));
+            val >>>= 7;
+        }
+
+        buf.put((byte) val);
+    }
+}
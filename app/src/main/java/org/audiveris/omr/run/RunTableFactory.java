@@ -30,7 +30,6 @@ import net.jcip.annotations.ThreadSafe;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.util.List;
 
 /**
  * Class <code>RunTableFactory</code> retrieves the runs structure out of a given pixel
@@ -168,9 +167,9 @@ public class RunTableFactory
 
         @Override
         public void endPosition (int pos,
-                                 List<Run> runs)
+                                 int[] rle)
         {
-            table.setSequence(pos - tableOffset.y, RunTable.encode(runs));
+            table.setRle(pos - tableOffset.y, rle);
         }
 
         @Override
@@ -261,6 +260,8 @@ public class RunTableFactory
         //--------------//
         /**
          * The concurrency aspects of the adapter depends on the underlying PixelFilter.
+         * <p>
+         * A plain ByteProcessor is only read, hence it is safe.
          *
          * @return true if safe, false otherwise
          */
@@ -269,6 +270,10 @@ public class RunTableFactory
         {
             Class<?> classe = source.getClass();
 
+            if (classe == ByteProcessor.class) {
+                return true;
+            }
+
             // Check for @ThreadSafe annotation
             ThreadSafe safe = classe.getAnnotation(ThreadSafe.class);
 
@@ -314,9 +319,9 @@ public class RunTableFactory
 
         @Override
         public void endPosition (int pos,
-                                 List<Run> runs)
+                                 int[] rle)
         {
-            table.setSequence(pos - tableOffset.x, RunTable.encode(runs));
+            table.setRle(pos - tableOffset.x, rle);
         }
 
         @Override
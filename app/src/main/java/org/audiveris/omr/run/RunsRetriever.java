@@ -21,6 +21,8 @@
 // </editor-fold>
 package org.audiveris.omr.run;
 
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.util.Concurrency;
 import org.audiveris.omr.util.OmrExecutors;
@@ -29,15 +31,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Arrays;
 
 /**
  * Class <code>RunsRetriever</code> is in charge of reading a source of pixels and
  * retrieving foreground runs and background runs from it.
  * <p>
  * What is done with the retrieved runs is essentially the purpose of the provided adapter.
+ * <p>
+ * Runs of each position are directly encoded as an RLE sequence, within a primitive buffer,
+ * with no allocation of any Run instance.
+ * <p>
+ * The range of positions is split into chunks (see {@link OmrExecutors#processRange}),
+ * processed in parallel when parallelism is allowed and the adapter is thread-safe,
+ * each chunk using its own RLE buffer.
+ * Cancellation is checked between chunks.
  *
  * @author Hervé Bitteur
  */
@@ -45,6 +53,8 @@ public class RunsRetriever
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(RunsRetriever.class);
 
     //~ Instance fields ----------------------------------------------------------------------------
@@ -82,13 +92,18 @@ public class RunsRetriever
      * @param pos  the position in the pixels array (x for vertical)
      * @param cMin the starting coordinate (y for vertical)
      * @param cMax the ending coordinate
+     * @param rle  work buffer, large enough for the RLE sequence of a position
      */
     private void processPosition (int pos,
                                   int cMin,
-                                  int cMax)
+                                  int cMax,
+                                  int[] rle)
     {
-        /** Buffer of runs for current position. */
-        final List<Run> posRuns = new ArrayList<>();
+        // Number of RLE values written so far
+        int count = 0;
+
+        // Offset (WRT cMin) past the last accepted foreground run
+        int last = 0;
 
         // Current run is FOREGROUND or BACKGROUND
         boolean isFore = false;
@@ -98,7 +113,6 @@ public class RunsRetriever
 
         // Browse other dimension
         for (int c = cMin; c <= cMax; c++) {
-            ///logger.info("p:" + p + " c:" + c + " level:" + level);
             if (adapter.isFore(c, pos)) {
                 // We are on a foreground pixel
                 if (isFore) {
@@ -114,8 +128,9 @@ public class RunsRetriever
                 if (isFore) {
                     // End the previous foreground run
                     if (adapter.foreRun(c, pos, length)) {
-                        // Bufferize the runs
-                        posRuns.add(new Run(c - cMin - length, length));
+                        // Encode the run
+                        count = appendRun(rle, count, c - cMin - length - last, length);
+                        last = c - cMin;
                     }
 
                     // Initialize values for the starting background run
@@ -131,13 +146,13 @@ public class RunsRetriever
         // Process end of last run in this position
         if (isFore) {
             if (adapter.foreRun((cMax + 1) - cMin, pos, length)) {
-                // Bufferize the runs
-                posRuns.add(new Run((cMax + 1) - cMin - length, length));
+                // Encode the run
+                count = appendRun(rle, count, (cMax + 1) - cMin - length - last, length);
             }
         }
 
-        // Forward the buffer of runs
-        adapter.endPosition(pos, posRuns);
+        // Forward the RLE sequence
+        adapter.endPosition(pos, (count == 0) ? null : Arrays.copyOf(rle, count));
     }
 
     //--------------//
@@ -165,46 +180,80 @@ public class RunsRetriever
     /**
      * Retrieve runs row by row.
      * This method handles the pixels run either in a parallel or a serial way,
-     * according to the possibilities of the high OMR executor.
+     * according to the adapter thread-safety and the allowed parallelism.
      */
     private void rowBasedRetrieval (int pMin,
                                     int pMax,
                                     final int cMin,
                                     final int cMax)
     {
-        if ((OmrExecutors.defaultParallelism.getValue() == false) || !adapter.isThreadSafe()) {
-            // Sequential
+        if (!adapter.isThreadSafe()) {
+            // Sequential, using one RLE buffer, checking cancellation between chunks
+            final int[] rle = new int[cMax - cMin + 3];
+            final int chunkSize = constants.minChunkSize.getValue();
+
             for (int p = pMin; p <= pMax; p++) {
-                processPosition(p, cMin, cMax);
+                if ((((p - pMin) % chunkSize) == 0) && Thread.currentThread().isInterrupted()) {
+                    throw new ProcessingCancellationException("RunsRetriever interrupted");
+                }
+
+                processPosition(p, cMin, cMax, rle);
             }
-        } else {
-            // Parallel (TODO: should use Java 7 fork/join someday...)
-            try {
-                // Browse one dimension
-                List<Callable<Void>> tasks = new ArrayList<>(pMax - pMin + 1);
-
-                for (int p = pMin; p <= pMax; p++) {
-                    final int pp = p;
-                    tasks.add( () ->
-                    {
-                        processPosition(pp, cMin, cMax);
-
-                        return null;
-                    });
+
+            return;
+        }
+
+        // Chunks of positions, in parallel if allowed
+        try {
+            OmrExecutors.processRange(pMin, pMax, constants.minChunkSize.getValue(), (min, max) -> {
+                final int[] rle = new int[cMax - cMin + 3];
+
+                for (int p = min; p <= max; p++) {
+                    processPosition(p, cMin, cMax, rle);
                 }
+            });
+        } catch (ProcessingCancellationException pce) {
+            throw pce;
+        } catch (RuntimeException ex) {
+            logger.warn("Exception raised in ParallelRuns", ex);
+            throw ex;
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
 
-                // Launch the tasks and wait for their completion
-                OmrExecutors.getHighExecutor().invokeAll(tasks);
-            } catch (InterruptedException ex) {
-                logger.warn("ParallelRuns got interrupted");
-                throw new ProcessingCancellationException(ex);
-            } catch (ProcessingCancellationException pce) {
-                throw pce;
-            } catch (Throwable ex) {
-                logger.warn("Exception raised in ParallelRuns", ex);
-                throw new RuntimeException(ex);
+    //-----------//
+    // appendRun //
+    //-----------//
+    /**
+     * Append a foreground run to the RLE sequence being built.
+     * <p>
+     * A sequence always begins with a foreground length, which is 0 if the first run does not
+     * start at offset 0.
+     *
+     * @param rle        the RLE buffer
+     * @param count      number of RLE values already written
+     * @param background length of background before the run
+     * @param length     run length
+     * @return the new number of RLE values written
+     */
+    private static int appendRun (int[] rle,
+                                  int count,
+                                  int background,
+                                  int length)
+    {
+        if ((count == 0) && (background == 0)) {
+            rle[count++] = length;
+        } else {
+            if (count == 0) {
+                rle[count++] = 0; // Empty foreground
             }
+
+            rle[count++] = background;
+            rle[count++] = length;
         }
+
+        return count;
     }
 
     //~ Inner Interfaces ---------------------------------------------------------------------------
@@ -221,12 +270,15 @@ public class RunsRetriever
     {
         /**
          * Called at end of position.
+         * <p>
+         * The RLE sequence alternates foreground and background lengths, beginning with a
+         * foreground length (perhaps 0) and ending with a foreground length.
          *
-         * @param pos  position value
-         * @param runs sequence of runs for this position
+         * @param pos position value
+         * @param rle RLE sequence of runs for this position, or null if there is no run
          */
         void endPosition (int pos,
-                          List<Run> runs);
+                          int[] rle);
 
         /**
          * Called at end of a foreground run.
@@ -250,4 +302,18 @@ public class RunsRetriever
         boolean isFore (int coord,
                         int pos);
     }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer minChunkSize = new Constant.Integer(
+                "positions",
+                32,
+                "Minimum number of positions processed by one task");
+    }
 }
@@ -23,6 +23,14 @@ package org.audiveris.omr.score;
 
 import java.awt.Rectangle;
 import java.awt.Point;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +38,9 @@ import java.util.List;
  * Class <code>NoteMapping</code> collects note mapping entries during MusicXML export
  * and serializes to JSON. Maps every MusicXML note element to its pixel position on the
  * original sheet image for playback highlighting and singing assessment.
+ * <p>
+ * If a {@link NoteMappingStreamer} is provided, measure and note entries are handed over to it as
+ * soon as they are added, rather than being kept in this mapping.
  *
  * @author Hervé Bitteur
  */
@@ -61,8 +72,45 @@ public class NoteMapping
     /** List of note entries. */
     private final List<NoteEntry> notes = new ArrayList<>();
 
+    /** Number of note entries, whether kept or streamed. */
+    private int noteCount;
+
+    /** Streamer for measure and note entries (optional). */
+    private final NoteMappingStreamer streamer;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Create a <code>NoteMapping</code> which keeps all its entries in memory.
+     */
+    public NoteMapping ()
+    {
+        this(null);
+    }
+
+    /**
+     * Create a <code>NoteMapping</code> which hands measure and note entries over to the
+     * provided streamer.
+     *
+     * @param streamer the streamer for measure and note entries, or null to keep them in memory
+     */
+    public NoteMapping (NoteMappingStreamer streamer)
+    {
+        this.streamer = streamer;
+    }
+
     //~ Methods ------------------------------------------------------------------------------------
 
+    /**
+     * Report the divisions per quarter note.
+     *
+     * @return the divisions value
+     */
+    public int getDivisions ()
+    {
+        return divisions;
+    }
+
     /**
      * Set the divisions per quarter note.
      *
@@ -100,7 +148,11 @@ public class NoteMapping
      */
     public void addMeasure (MeasureInfo measure)
     {
-        measures.add(measure);
+        if (streamer != null) {
+            streamer.addMeasure(measure);
+        } else {
+            measures.add(measure);
+        }
     }
 
     /**
@@ -140,7 +192,13 @@ public class NoteMapping
      */
     public void addNote (NoteEntry note)
     {
-        notes.add(note);
+        noteCount++;
+
+        if (streamer != null) {
+            streamer.addNote(note);
+        } else {
+            notes.add(note);
+        }
     }
 
     /**
@@ -150,193 +208,275 @@ public class NoteMapping
      */
     public boolean isEmpty ()
     {
-        return notes.isEmpty();
+        return noteCount == 0;
     }
 
     /**
      * Serialize this mapping to JSON string.
+     * <p>
+     * For a large score, rather use {@link #writeJson(OutputStream)} which does not build the
+     * whole document in memory.
      *
      * @return JSON representation
      */
     public String toJson ()
     {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\n");
-        sb.append("  \"divisions\": ").append(divisions).append(",\n");
-        
-        // Tempos
-        sb.append("  \"tempos\": [\n");
-        for (int i = 0; i < tempos.size(); i++) {
-            TempoInfo t = tempos.get(i);
-            sb.append("    {\n");
-            sb.append("      \"partId\": ").append(jsonString(t.partId)).append(",\n");
-            sb.append("      \"measureNumber\": ").append(jsonString(t.measureNumber)).append(",\n");
-            sb.append("      \"timeOffset\": ").append(t.timeOffset).append(",\n");
-            sb.append("      \"bpm\": ").append(t.bpm).append(",\n");
-            sb.append("      \"beatUnit\": ").append(jsonString(t.beatUnit)).append("\n");
-            sb.append("    }");
-            if (i < tempos.size() - 1) sb.append(",");
-            sb.append("\n");
-        }
-        sb.append("  ],\n");
-        
-        // Time signatures
-        sb.append("  \"timeSignatures\": [\n");
-        for (int i = 0; i < timeSignatures.size(); i++) {
-            TimeSignatureInfo ts = timeSignatures.get(i);
-            sb.append("    {\n");
-            sb.append("      \"partId\": ").append(jsonString(ts.partId)).append(",\n");
-            sb.append("      \"measureNumber\": ").append(jsonString(ts.measureNumber)).append(",\n");
-            sb.append("      \"numerator\": ").append(ts.numerator).append(",\n");
-            sb.append("      \"denominator\": ").append(ts.denominator).append("\n");
-            sb.append("    }");
-            if (i < timeSignatures.size() - 1) sb.append(",");
-            sb.append("\n");
-        }
-        sb.append("  ],\n");
-        
-        // Key signatures
-        sb.append("  \"keySignatures\": [\n");
-        for (int i = 0; i < keySignatures.size(); i++) {
-            KeySignatureInfo ks = keySignatures.get(i);
-            sb.append("    {\n");
-            sb.append("      \"partId\": ").append(jsonString(ks.partId)).append(",\n");
-            sb.append("      \"measureNumber\": ").append(jsonString(ks.measureNumber)).append(",\n");
-            sb.append("      \"fifths\": ").append(ks.fifths).append(",\n");
-            sb.append("      \"mode\": ").append(jsonString(ks.mode)).append("\n");
-            sb.append("    }");
-            if (i < keySignatures.size() - 1) sb.append(",");
-            sb.append("\n");
-        }
-        sb.append("  ],\n");
-        
-        // Sheets
-        sb.append("  \"sheets\": [\n");
-        for (int i = 0; i < sheets.size(); i++) {
-            SheetInfo s = sheets.get(i);
-            sb.append("    {\n");
-            sb.append("      \"sheetNumber\": ").append(s.sheetNumber).append(",\n");
-            sb.append("      \"imageWidth\": ").append(s.imageWidth).append(",\n");
-            sb.append("      \"imageHeight\": ").append(s.imageHeight).append("\n");
-            sb.append("    }");
-            if (i < sheets.size() - 1) sb.append(",");
-            sb.append("\n");
-        }
-        sb.append("  ],\n");
-        
-        // Systems
-        sb.append("  \"systems\": [\n");
-        for (int i = 0; i < systems.size(); i++) {
-            SystemInfo sys = systems.get(i);
-            sb.append("    {\n");
-            sb.append("      \"systemIndex\": ").append(sys.systemIndex).append(",\n");
-            sb.append("      \"sheetNumber\": ").append(sys.sheetNumber).append(",\n");
-            sb.append("      \"bounds\": ").append(boundsToJson(sys.bounds)).append("\n");
-            sb.append("    }");
-            if (i < systems.size() - 1) sb.append(",");
-            sb.append("\n");
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        try {
+            writeJson(bos);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
-        sb.append("  ],\n");
-        
+
+        return bos.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serialize this mapping to JSON, directly into the provided output stream.
+     * <p>
+     * If entries have been streamed, the content of streamer spools is copied as is.
+     * The output stream is flushed but not closed.
+     *
+     * @param os the output stream
+     * @throws IOException if writing failed, or if streaming failed
+     */
+    public void writeJson (OutputStream os)
+        throws IOException
+    {
+        final Writer out = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        out.write("{\n");
+        out.write("  \"divisions\": " + divisions + ",\n");
+        writeArray(out, "tempos", tempos, NoteMapping::writeTempo);
+        writeArray(out, "timeSignatures", timeSignatures, NoteMapping::writeTimeSignature);
+        writeArray(out, "keySignatures", keySignatures, NoteMapping::writeKeySignature);
+        writeArray(out, "sheets", sheets, NoteMapping::writeSheet);
+        writeArray(out, "systems", systems, NoteMapping::writeSystem);
+
         // Measures
-        sb.append("  \"measures\": [\n");
-        for (int i = 0; i < measures.size(); i++) {
-            MeasureInfo m = measures.get(i);
-            sb.append("    {\n");
-            sb.append("      \"partId\": ").append(jsonString(m.partId)).append(",\n");
-            sb.append("      \"measureNumber\": ").append(jsonString(m.measureNumber)).append(",\n");
-            sb.append("      \"sheetNumber\": ").append(m.sheetNumber).append(",\n");
-            sb.append("      \"systemIndex\": ").append(m.systemIndex).append(",\n");
-            sb.append("      \"cumulativeTimeOffset\": ").append(m.cumulativeTimeOffset).append(",\n");
-            sb.append("      \"cumulativeTimeSeconds\": ").append(m.cumulativeTimeSeconds).append(",\n");
-            sb.append("      \"measureDuration\": ").append(m.measureDuration).append(",\n");
-            sb.append("      \"measureDurationSeconds\": ").append(m.measureDurationSeconds).append(",\n");
-            sb.append("      \"bounds\": ").append(boundsToJson(m.bounds)).append(",\n");
-            sb.append("      \"staves\": [\n");
-            for (int j = 0; j < m.staves.size(); j++) {
-                StaffInfo st = m.staves.get(j);
-                sb.append("        {\n");
-                sb.append("          \"staffIndex\": ").append(st.staffIndex).append(",\n");
-                sb.append("          \"topY\": ").append(st.topY).append(",\n");
-                sb.append("          \"bottomY\": ").append(st.bottomY).append("\n");
-                sb.append("        }");
-                if (j < m.staves.size() - 1) sb.append(",");
-                sb.append("\n");
-            }
-            sb.append("      ]\n");
-            sb.append("    }");
-            if (i < measures.size() - 1) sb.append(",");
-            sb.append("\n");
+        out.write("  \"measures\": [\n");
+
+        if (streamer != null) {
+            out.flush();
+            streamer.copyMeasures(os);
+        } else {
+            writeEntries(out, measures, NoteMapping::writeMeasure);
         }
-        sb.append("  ],\n");
-        
+
+        out.write("  ],\n");
+
         // Notes
-        sb.append("  \"notes\": [\n");
-        for (int i = 0; i < notes.size(); i++) {
-            NoteEntry n = notes.get(i);
-            sb.append("    {\n");
-            sb.append("      \"noteIndex\": ").append(n.noteIndex).append(",\n");
-            sb.append("      \"globalNoteIndex\": ").append(n.globalNoteIndex).append(",\n");
-            sb.append("      \"partId\": ").append(jsonString(n.partId)).append(",\n");
-            sb.append("      \"measureNumber\": ").append(jsonString(n.measureNumber)).append(",\n");
-            sb.append("      \"staff\": ").append(n.staff).append(",\n");
-            sb.append("      \"voice\": ").append(jsonString(n.voice)).append(",\n");
-            sb.append("      \"noteIndexInChord\": ").append(n.noteIndexInChord).append(",\n");
-            sb.append("      \"sheetNumber\": ").append(n.sheetNumber).append(",\n");
-            sb.append("      \"systemIndex\": ").append(n.systemIndex).append(",\n");
-            sb.append("      \"isRest\": ").append(n.isRest).append(",\n");
-            sb.append("      \"isGrace\": ").append(n.isGrace).append(",\n");
-            sb.append("      \"isMeasureRest\": ").append(n.isMeasureRest).append(",\n");
-            sb.append("      \"isTiedStart\": ").append(n.isTiedStart).append(",\n");
-            sb.append("      \"isTiedStop\": ").append(n.isTiedStop).append(",\n");
-            sb.append("      \"step\": ").append(jsonString(n.step)).append(",\n");
-            sb.append("      \"octave\": ").append(n.octave).append(",\n");
-            sb.append("      \"alter\": ").append(n.alter).append(",\n");
-            sb.append("      \"absolutePitch\": ").append(n.absolutePitch).append(",\n");
-            sb.append("      \"integerPitch\": ").append(n.integerPitch).append(",\n");
-            sb.append("      \"expectedFrequency\": ").append(n.expectedFrequency).append(",\n");
-            sb.append("      \"noteType\": ").append(jsonString(n.noteType)).append(",\n");
-            sb.append("      \"dots\": ").append(n.dots).append(",\n");
-            sb.append("      \"stemDirection\": ").append(n.stemDirection).append(",\n");
-            sb.append("      \"beamGroupId\": ").append(n.beamGroupId != null ? n.beamGroupId : "null").append(",\n");
-            sb.append("      \"timeOffset\": ").append(n.timeOffset).append(",\n");
-            sb.append("      \"duration\": ").append(n.duration).append(",\n");
-            sb.append("      \"timeOffsetSeconds\": ").append(n.timeOffsetSeconds).append(",\n");
-            sb.append("      \"durationSeconds\": ").append(n.durationSeconds).append(",\n");
-            sb.append("      \"tiedDuration\": ").append(n.tiedDuration).append(",\n");
-            sb.append("      \"tiedDurationSeconds\": ").append(n.tiedDurationSeconds).append(",\n");
-            sb.append("      \"bounds\": ").append(boundsToJson(n.bounds)).append(",\n");
-            sb.append("      \"center\": ").append(pointToJson(n.center)).append(",\n");
-            sb.append("      \"chordBounds\": ").append(boundsToJson(n.chordBounds)).append(",\n");
-            sb.append("      \"staffTopY\": ").append(n.staffTopY).append(",\n");
-            sb.append("      \"staffBottomY\": ").append(n.staffBottomY).append("\n");
-            sb.append("    }");
-            if (i < notes.size() - 1) sb.append(",");
-            sb.append("\n");
+        out.write("  \"notes\": [\n");
+
+        if (streamer != null) {
+            out.flush();
+            streamer.copyNotes(os);
+        } else {
+            writeEntries(out, notes, NoteMapping::writeNote);
         }
-        sb.append("  ]\n");
-        
-        sb.append("}");
-        return sb.toString();
+
+        out.write("  ]\n");
+        out.write("}");
+        out.flush();
     }
-    
-    private String jsonString (String s)
+
+    private static String jsonString (String s)
     {
         if (s == null) {
             return "null";
         }
         return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
     }
-    
-    private String boundsToJson (BoundsInfo b)
+
+    private static String boundsToJson (BoundsInfo b)
     {
-        return String.format("{\"x\": %d, \"y\": %d, \"width\": %d, \"height\": %d}", 
-                             b.x, b.y, b.width, b.height);
+        return "{\"x\": " + b.x + ", \"y\": " + b.y + ", \"width\": " + b.width
+                + ", \"height\": " + b.height + "}";
     }
-    
-    private String pointToJson (PointInfo p)
+
+    private static String pointToJson (PointInfo p)
     {
-        return String.format("{\"x\": %d, \"y\": %d}", p.x, p.y);
+        return "{\"x\": " + p.x + ", \"y\": " + p.y + "}";
+    }
+
+    /**
+     * Write a named array of entries, followed by a comma.
+     */
+    private static <T> void writeArray (Writer out,
+                                        String name,
+                                        List<T> entries,
+                                        EntryWriter<T> entryWriter)
+        throws IOException
+    {
+        out.write("  \"" + name + "\": [\n");
+        writeEntries(out, entries, entryWriter);
+        out.write("  ],\n");
+    }
+
+    /**
+     * Write the entries of an array, separated by a comma, one per line.
+     */
+    private static <T> void writeEntries (Writer out,
+                                          List<T> entries,
+                                          EntryWriter<T> entryWriter)
+        throws IOException
+    {
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                out.write(",\n");
+            }
+
+            entryWriter.write(out, entries.get(i));
+        }
+
+        if (!entries.isEmpty()) {
+            out.write("\n");
+        }
+    }
+
+    private static void writeKeySignature (Writer out,
+                                           KeySignatureInfo ks)
+        throws IOException
+    {
+        out.write("    {\n");
+        out.write("      \"partId\": " + jsonString(ks.partId) + ",\n");
+        out.write("      \"measureNumber\": " + jsonString(ks.measureNumber) + ",\n");
+        out.write("      \"fifths\": " + ks.fifths + ",\n");
+        out.write("      \"mode\": " + jsonString(ks.mode) + "\n");
+        out.write("    }");
+    }
+
+    /**
+     * Write the JSON object for one measure, with no trailing separator.
+     *
+     * @param out the character output
+     * @param m   the measure info
+     * @throws IOException on IO error
+     */
+    static void writeMeasure (Writer out,
+                              MeasureInfo m)
+        throws IOException
+    {
+        out.write("    {\n");
+        out.write("      \"partId\": " + jsonString(m.partId) + ",\n");
+        out.write("      \"measureNumber\": " + jsonString(m.measureNumber) + ",\n");
+        out.write("      \"sheetNumber\": " + m.sheetNumber + ",\n");
+        out.write("      \"systemIndex\": " + m.systemIndex + ",\n");
+        out.write("      \"cumulativeTimeOffset\": " + m.cumulativeTimeOffset + ",\n");
+        out.write("      \"cumulativeTimeSeconds\": " + m.cumulativeTimeSeconds + ",\n");
+        out.write("      \"measureDuration\": " + m.measureDuration + ",\n");
+        out.write("      \"measureDurationSeconds\": " + m.measureDurationSeconds + ",\n");
+        out.write("      \"bounds\": " + boundsToJson(m.bounds) + ",\n");
+        out.write("      \"staves\": [\n");
+        for (int j = 0; j < m.staves.size(); j++) {
+            StaffInfo st = m.staves.get(j);
+            out.write("        {\n");
+            out.write("          \"staffIndex\": " + st.staffIndex + ",\n");
+            out.write("          \"topY\": " + st.topY + ",\n");
+            out.write("          \"bottomY\": " + st.bottomY + "\n");
+            out.write("        }");
+            if (j < m.staves.size() - 1) out.write(",");
+            out.write("\n");
+        }
+        out.write("      ]\n");
+        out.write("    }");
+    }
+
+    /**
+     * Write the JSON object for one note, with no trailing separator.
+     *
+     * @param out the character output
+     * @param n   the note entry
+     * @throws IOException on IO error
+     */
+    static void writeNote (Writer out,
+                           NoteEntry n)
+        throws IOException
+    {
+        out.write("    {\n");
+        out.write("      \"noteIndex\": " + n.noteIndex + ",\n");
+        out.write("      \"globalNoteIndex\": " + n.globalNoteIndex + ",\n");
+        out.write("      \"partId\": " + jsonString(n.partId) + ",\n");
+        out.write("      \"measureNumber\": " + jsonString(n.measureNumber) + ",\n");
+        out.write("      \"staff\": " + n.staff + ",\n");
+        out.write("      \"voice\": " + jsonString(n.voice) + ",\n");
+        out.write("      \"noteIndexInChord\": " + n.noteIndexInChord + ",\n");
+        out.write("      \"sheetNumber\": " + n.sheetNumber + ",\n");
+        out.write("      \"systemIndex\": " + n.systemIndex + ",\n");
+        out.write("      \"isRest\": " + n.isRest + ",\n");
+        out.write("      \"isGrace\": " + n.isGrace + ",\n");
+        out.write("      \"isMeasureRest\": " + n.isMeasureRest + ",\n");
+        out.write("      \"isTiedStart\": " + n.isTiedStart + ",\n");
+        out.write("      \"isTiedStop\": " + n.isTiedStop + ",\n");
+        out.write("      \"step\": " + jsonString(n.step) + ",\n");
+        out.write("      \"octave\": " + n.octave + ",\n");
+        out.write("      \"alter\": " + n.alter + ",\n");
+        out.write("      \"absolutePitch\": " + n.absolutePitch + ",\n");
+        out.write("      \"integerPitch\": " + n.integerPitch + ",\n");
+        out.write("      \"expectedFrequency\": " + n.expectedFrequency + ",\n");
+        out.write("      \"noteType\": " + jsonString(n.noteType) + ",\n");
+        out.write("      \"dots\": " + n.dots + ",\n");
+        out.write("      \"stemDirection\": " + n.stemDirection + ",\n");
+        out.write("      \"beamGroupId\": " + n.beamGroupId + ",\n");
+        out.write("      \"timeOffset\": " + n.timeOffset + ",\n");
+        out.write("      \"duration\": " + n.duration + ",\n");
+        out.write("      \"timeOffsetSeconds\": " + n.timeOffsetSeconds + ",\n");
+        out.write("      \"durationSeconds\": " + n.durationSeconds + ",\n");
+        out.write("      \"tiedDuration\": " + n.tiedDuration + ",\n");
+        out.write("      \"tiedDurationSeconds\": " + n.tiedDurationSeconds + ",\n");
+        out.write("      \"bounds\": " + boundsToJson(n.bounds) + ",\n");
+        out.write("      \"center\": " + pointToJson(n.center) + ",\n");
+        out.write("      \"chordBounds\": " + boundsToJson(n.chordBounds) + ",\n");
+        out.write("      \"staffTopY\": " + n.staffTopY + ",\n");
+        out.write("      \"staffBottomY\": " + n.staffBottomY + "\n");
+        out.write("    }");
+    }
+
+    private static void writeSheet (Writer out,
+                                    SheetInfo s)
+        throws IOException
+    {
+        out.write("    {\n");
+        out.write("      \"sheetNumber\": " + s.sheetNumber + ",\n");
+        out.write("      \"imageWidth\": " + s.imageWidth + ",\n");
+        out.write("      \"imageHeight\": " + s.imageHeight + "\n");
+        out.write("    }");
+    }
+
+    private static void writeSystem (Writer out,
+                                     SystemInfo sys)
+        throws IOException
+    {
+        out.write("    {\n");
+        out.write("      \"systemIndex\": " + sys.systemIndex + ",\n");
+        out.write("      \"sheetNumber\": " + sys.sheetNumber + ",\n");
+        out.write("      \"bounds\": " + boundsToJson(sys.bounds) + "\n");
+        out.write("    }");
+    }
+
+    private static void writeTempo (Writer out,
+                                    TempoInfo t)
+        throws IOException
+    {
+        out.write("    {\n");
+        out.write("      \"partId\": " + jsonString(t.partId) + ",\n");
+        out.write("      \"measureNumber\": " + jsonString(t.measureNumber) + ",\n");
+        out.write("      \"timeOffset\": " + t.timeOffset + ",\n");
+        out.write("      \"bpm\": " + t.bpm + ",\n");
+        out.write("      \"beatUnit\": " + jsonString(t.beatUnit) + "\n");
+        out.write("    }");
+    }
+
+    private static void writeTimeSignature (Writer out,
+                                            TimeSignatureInfo ts)
+        throws IOException
+    {
+        out.write("    {\n");
+        out.write("      \"partId\": " + jsonString(ts.partId) + ",\n");
+        out.write("      \"measureNumber\": " + jsonString(ts.measureNumber) + ",\n");
+        out.write("      \"numerator\": " + ts.numerator + ",\n");
+        out.write("      \"denominator\": " + ts.denominator + "\n");
+        out.write("    }");
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -635,4 +775,18 @@ public class NoteMapping
             this.staffBottomY = staffBottomY;
         }
     }
+
+    //~ Inner Interfaces ---------------------------------------------------------------------------
+
+    /**
+     * Writes the JSON object for one entry.
+     *
+     * @param <T> the entry type
+     */
+    interface EntryWriter<T>
+    {
+        void write (Writer out,
+                    T entry)
+            throws IOException;
+    }
 }
@@ -0,0 +1,770 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                N o t e M a p p i n g C o d e c                                 //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.score.NoteMapping.BoundsInfo;
+import org.audiveris.omr.score.NoteMapping.MeasureInfo;
+import org.audiveris.omr.score.NoteMapping.NoteEntry;
+import org.audiveris.omr.score.NoteMapping.StaffInfo;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class <code>NoteMappingCodec</code> handles a compact binary format for {@link NoteMapping}
+ * measures and notes, as a sidecar of the JSON format, with an index for random access by
+ * measure.
+ * <p>
+ * Layout of the encoded data:
+ * <ol>
+ * <li>The 4 bytes {@link #MAGIC} ("ONMP"), followed by one byte for format {@link #VERSION},
+ * <li>The note records, measure after measure, in the order they were collected,
+ * <li>The measure index: the count of index entries, followed by each entry, that is partId,
+ * measure number, measure info if any, offset, count and byte length of its note records,
+ * <li>The trailer: divisions, offset of measure index and {@link #MAGIC} again.
+ * </ol>
+ * Since the trailer has a fixed size, a reader can locate the measure index directly, and then
+ * read the notes of any measure with a single positional read.
+ * <p>
+ * Numbers are written in big-endian order, strings as a 2-byte length (-1 for null) followed by
+ * their UTF-8 bytes.
+ * Within a note record, partId and measure number are not repeated, since they are given by the
+ * index entry.
+ * Tempos, signatures, sheets and systems are not part of this format, they remain available in
+ * the JSON format.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class NoteMappingCodec
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Leading (and trailing) bytes of any encoded mapping. */
+    public static final byte[] MAGIC = new byte[]
+    { 'O', 'N', 'M', 'P' };
+
+    /** Current format version. */
+    public static final int VERSION = 1;
+
+    /** Size of trailer: divisions, index offset and magic. */
+    private static final int TRAILER_SIZE = 4 + 8 + MAGIC.length;
+
+    /** Size of working buffer, large enough for any string. */
+    private static final int BUFFER_SIZE = 1 << 17;
+
+    // Flags in a note record
+    private static final int REST = 1;
+
+    private static final int GRACE = 2;
+
+    private static final int MEASURE_REST = 4;
+
+    private static final int TIED_START = 8;
+
+    private static final int TIED_STOP = 16;
+
+    private static final int BEAM_GROUP = 32;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /** Not meant to be instantiated. */
+    private NoteMappingCodec ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-----------//
+    // getBounds //
+    //-----------//
+    private static Rectangle getBounds (ByteBuffer buf)
+    {
+        return new Rectangle(buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt());
+    }
+
+    //-----------//
+    // getString //
+    //-----------//
+    private static String getString (ByteBuffer buf)
+    {
+        final int length = buf.getShort();
+
+        if (length < 0) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        buf.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //-----------//
+    // readFully //
+    //-----------//
+    private static ByteBuffer readFully (FileChannel channel,
+                                         long position,
+                                         int length)
+        throws IOException
+    {
+        final ByteBuffer buf = ByteBuffer.allocate(length);
+
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new EOFException("Truncated note mapping data");
+            }
+        }
+
+        return buf.flip();
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-------//
+    // Entry //
+    //-------//
+    /**
+     * Index entry for one measure.
+     */
+    public static class Entry
+    {
+        private final String partId;
+
+        private final String measureNumber;
+
+        /** Measure info, if it was collected. */
+        private final MeasureInfo info;
+
+        /** Offset of first note record. */
+        private long offset;
+
+        /** Count of note records. */
+        private int noteCount;
+
+        /** Byte length of all note records. */
+        private int length;
+
+        private Entry (String partId,
+                       String measureNumber,
+                       MeasureInfo info)
+        {
+            this.partId = partId;
+            this.measureNumber = measureNumber;
+            this.info = info;
+        }
+
+        /**
+         * Report the measure info.
+         *
+         * @return the measure info, perhaps null
+         */
+        public MeasureInfo getInfo ()
+        {
+            return info;
+        }
+
+        /**
+         * Report the measure number.
+         *
+         * @return the measure number
+         */
+        public String getMeasureNumber ()
+        {
+            return measureNumber;
+        }
+
+        /**
+         * Report the count of notes in this measure.
+         *
+         * @return the count of notes
+         */
+        public int getNoteCount ()
+        {
+            return noteCount;
+        }
+
+        /**
+         * Report the part id.
+         *
+         * @return the part id
+         */
+        public String getPartId ()
+        {
+            return partId;
+        }
+
+        private boolean matches (String partId,
+                                 String measureNumber)
+        {
+            return Objects.equals(this.partId, partId)
+                    && Objects.equals(this.measureNumber, measureNumber);
+        }
+
+        @Override
+        public String toString ()
+        {
+            return "Entry{" + partId + " m" + measureNumber + " notes:" + noteCount + "}";
+        }
+    }
+
+    //--------//
+    // Reader //
+    //--------//
+    /**
+     * Gives random access, measure by measure, to an encoded mapping file.
+     * <p>
+     * Only the measure index is loaded when the reader is opened.
+     */
+    public static class Reader
+            implements AutoCloseable
+    {
+        private final FileChannel channel;
+
+        private final int divisions;
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private final Map<String, Entry> entryMap = new HashMap<>();
+
+        /**
+         * Open an encoded mapping file and load its measure index.
+         *
+         * @param path the file to read
+         * @throws IOException if file could not be read or is not a valid encoded mapping
+         */
+        public Reader (Path path)
+            throws IOException
+        {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+
+            try {
+                final long size = channel.size();
+
+                if (size < (MAGIC.length + 1 + TRAILER_SIZE)) {
+                    throw new IOException("Not an encoded note mapping");
+                }
+
+                final ByteBuffer header = readFully(channel, 0, MAGIC.length + 1);
+                checkMagic(header);
+
+                final int version = header.get();
+
+                if (version > VERSION) {
+                    throw new IOException("Unsupported note mapping format version " + version);
+                }
+
+                final ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+                divisions = trailer.getInt();
+
+                final long indexOffset = trailer.getLong();
+                checkMagic(trailer);
+
+                final ByteBuffer index = readFully(
+                        channel,
+                        indexOffset,
+                        (int) (size - TRAILER_SIZE - indexOffset));
+
+                for (int i = 0, iBreak = index.getInt(); i < iBreak; i++) {
+                    final Entry entry = getEntry(index);
+                    entries.add(entry);
+                    entryMap.putIfAbsent(entry.partId + "/" + entry.measureNumber, entry);
+                }
+            } catch (IOException | RuntimeException ex) {
+                channel.close();
+
+                throw (ex instanceof IOException ioe) ? ioe
+                        : new IOException("Invalid note mapping data", ex);
+            }
+        }
+
+        private void checkMagic (ByteBuffer buf)
+            throws IOException
+        {
+            for (byte b : MAGIC) {
+                if (buf.get() != b) {
+                    throw new IOException("Not an encoded note mapping");
+                }
+            }
+        }
+
+        @Override
+        public void close ()
+            throws IOException
+        {
+            channel.close();
+        }
+
+        /**
+         * Report the divisions per quarter note.
+         *
+         * @return the divisions value
+         */
+        public int getDivisions ()
+        {
+            return divisions;
+        }
+
+        /**
+         * Report all index entries, in their collection order.
+         *
+         * @return the (unmodifiable) list of entries
+         */
+        public List<Entry> getEntries ()
+        {
+            return Collections.unmodifiableList(entries);
+        }
+
+        /**
+         * Report the (first) index entry for the provided measure.
+         *
+         * @param partId        the part id
+         * @param measureNumber the measure number
+         * @return the entry found, or null
+         */
+        public Entry getEntry (String partId,
+                               String measureNumber)
+        {
+            return entryMap.get(partId + "/" + measureNumber);
+        }
+
+        private Entry getEntry (ByteBuffer buf)
+        {
+            final String partId = getString(buf);
+            final String measureNumber = getString(buf);
+            MeasureInfo info = null;
+
+            if (buf.get() != 0) {
+                final int sheetNumber = buf.getInt();
+                final int systemIndex = buf.getInt();
+                final int cumulativeTimeOffset = buf.getInt();
+                final double cumulativeTimeSeconds = buf.getDouble();
+                final int measureDuration = buf.getInt();
+                final double measureDurationSeconds = buf.getDouble();
+                final Rectangle bounds = getBounds(buf);
+                final List<StaffInfo> staves = new ArrayList<>();
+
+                for (int i = 0, iBreak = buf.getInt(); i < iBreak; i++) {
+                    staves.add(new StaffInfo(buf.getInt(), buf.getInt(), buf.getInt()));
+                }
+
+                info = new MeasureInfo(
+                        partId,
+                        measureNumber,
+                        sheetNumber,
+                        systemIndex,
+                        cumulativeTimeOffset,
+                        cumulativeTimeSeconds,
+                        measureDuration,
+                        measureDurationSeconds,
+                        bounds,
+                        staves);
+            }
+
+            final Entry entry = new Entry(partId, measureNumber, info);
+            entry.offset = buf.getLong();
+            entry.noteCount = buf.getInt();
+            entry.length = buf.getInt();
+
+            return entry;
+        }
+
+        private NoteEntry getNote (ByteBuffer buf,
+                                   Entry entry)
+        {
+            final int noteIndex = buf.getInt();
+            final int globalNoteIndex = buf.getInt();
+            final int staff = buf.getInt();
+            final String voice = getString(buf);
+            final int noteIndexInChord = buf.getInt();
+            final int sheetNumber = buf.getInt();
+            final int systemIndex = buf.getInt();
+            final int flags = buf.get();
+            final String step = getString(buf);
+            final int octave = buf.getInt();
+            final int alter = buf.getInt();
+            final int absolutePitch = buf.getInt();
+            final int integerPitch = buf.getInt();
+            final double expectedFrequency = buf.getDouble();
+            final String noteType = getString(buf);
+            final int dots = buf.getInt();
+            final int stemDirection = buf.getInt();
+            final int beamGroup = buf.getInt();
+            final int timeOffset = buf.getInt();
+            final int duration = buf.getInt();
+            final double timeOffsetSeconds = buf.getDouble();
+            final double durationSeconds = buf.getDouble();
+            final int tiedDuration = buf.getInt();
+            final double tiedDurationSeconds = buf.getDouble();
+            final Rectangle bounds = getBounds(buf);
+            final Point center = new Point(buf.getInt(), buf.getInt());
+            final Rectangle chordBounds = getBounds(buf);
+            final int staffTopY = buf.getInt();
+            final int staffBottomY = buf.getInt();
+
+            return new NoteEntry(
+                    noteIndex,
+                    globalNoteIndex,
+                    entry.partId,
+                    entry.measureNumber,
+                    staff,
+                    voice,
+                    noteIndexInChord,
+                    sheetNumber,
+                    systemIndex,
+                    (flags & REST) != 0,
+                    (flags & GRACE) != 0,
+                    (flags & MEASURE_REST) != 0,
+                    (flags & TIED_START) != 0,
+                    (flags & TIED_STOP) != 0,
+                    step,
+                    octave,
+                    alter,
+                    absolutePitch,
+                    integerPitch,
+                    expectedFrequency,
+                    noteType,
+                    dots,
+                    stemDirection,
+                    ((flags & BEAM_GROUP) != 0) ? beamGroup : null,
+                    timeOffset,
+                    duration,
+                    timeOffsetSeconds,
+                    durationSeconds,
+                    tiedDuration,
+                    tiedDurationSeconds,
+                    bounds,
+                    center,
+                    chordBounds,
+                    staffTopY,
+                    staffBottomY);
+        }
+
+        /**
+         * Read the notes of the provided index entry.
+         *
+         * @param entry the index entry
+         * @return the measure notes, in their collection order
+         * @throws IOException on IO error
+         */
+        public List<NoteEntry> readNotes (Entry entry)
+            throws IOException
+        {
+            final List<NoteEntry> notes = new ArrayList<>(entry.noteCount);
+
+            if (entry.noteCount > 0) {
+                final ByteBuffer buf = readFully(channel, entry.offset, entry.length);
+
+                for (int i = 0; i < entry.noteCount; i++) {
+                    notes.add(getNote(buf, entry));
+                }
+            }
+
+            return notes;
+        }
+    }
+
+    //--------//
+    // Writer //
+    //--------//
+    /**
+     * Writes an encoded mapping file, as entries are collected.
+     * <p>
+     * Note records are written immediately, only the measure index is kept until the file is
+     * completed by {@link #finish}.
+     * If the writer is closed before completion, the incomplete file is deleted.
+     */
+    public static class Writer
+            implements AutoCloseable
+    {
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** Count of bytes already flushed to channel. */
+        private long flushed;
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        /** Entry for the notes being written. */
+        private Entry current;
+
+        private boolean completed;
+
+        /**
+         * Create a writer on the provided file.
+         *
+         * @param path the file to write
+         * @throws IOException if file could not be created
+         */
+        public Writer (Path path)
+            throws IOException
+        {
+            this.path = path;
+            channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            buf.put(MAGIC);
+            buf.put((byte) VERSION);
+        }
+
+        /**
+         * Record the provided measure, for which notes are about to be added.
+         *
+         * @param measure the measure info
+         */
+        public void addMeasure (MeasureInfo measure)
+        {
+            entries.add(current = new Entry(measure.partId, measure.measureNumber, measure));
+        }
+
+        /**
+         * Write the provided note.
+         *
+         * @param note the note entry
+         * @throws IOException on IO error
+         */
+        public void addNote (NoteEntry note)
+            throws IOException
+        {
+            if ((current == null) || !current.matches(note.partId, note.measureNumber)) {
+                entries.add(current = new Entry(note.partId, note.measureNumber, null));
+            }
+
+            final long start = position();
+
+            if (current.noteCount == 0) {
+                current.offset = start;
+            }
+
+            putNote(note);
+            current.noteCount++;
+            current.length += (int) (position() - start);
+        }
+
+        @Override
+        public void close ()
+            throws IOException
+        {
+            try {
+                channel.close();
+            } finally {
+                if (!completed) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+
+        /**
+         * Complete the file with measure index and trailer.
+         *
+         * @param divisions the divisions per quarter note
+         * @throws IOException on IO error
+         */
+        public void finish (int divisions)
+            throws IOException
+        {
+            final long indexOffset = position();
+            putInt(entries.size());
+
+            for (Entry entry : entries) {
+                putEntry(entry);
+            }
+
+            ensure(TRAILER_SIZE);
+            buf.putInt(divisions);
+            buf.putLong(indexOffset);
+            buf.put(MAGIC);
+            flush();
+            channel.close();
+            completed = true;
+        }
+
+        private void flush ()
+            throws IOException
+        {
+            buf.flip();
+
+            while (buf.hasRemaining()) {
+                flushed += channel.write(buf);
+            }
+
+            buf.clear();
+        }
+
+        /**
+         * Make sure the needed count of bytes is available in buffer.
+         */
+        private void ensure (int needed)
+            throws IOException
+        {
+            if (buf.remaining() < needed) {
+                flush();
+            }
+        }
+
+        /**
+         * Report the current position in file.
+         */
+        private long position ()
+        {
+            return flushed + buf.position();
+        }
+
+        private void putBounds (BoundsInfo b)
+            throws IOException
+        {
+            ensure(16);
+            buf.putInt(b.x).putInt(b.y).putInt(b.width).putInt(b.height);
+        }
+
+        private void putDouble (double value)
+            throws IOException
+        {
+            ensure(8);
+            buf.putDouble(value);
+        }
+
+        private void putEntry (Entry entry)
+            throws IOException
+        {
+            putString(entry.partId);
+            putString(entry.measureNumber);
+
+            final MeasureInfo m = entry.info;
+            ensure(1);
+            buf.put((byte) ((m != null) ? 1 : 0));
+
+            if (m != null) {
+                putInt(m.sheetNumber);
+                putInt(m.systemIndex);
+                putInt(m.cumulativeTimeOffset);
+                putDouble(m.cumulativeTimeSeconds);
+                putInt(m.measureDuration);
+                putDouble(m.measureDurationSeconds);
+                putBounds(m.bounds);
+                putInt(m.staves.size());
+
+                for (StaffInfo staff : m.staves) {
+                    putInt(staff.staffIndex);
+                    putInt(staff.topY);
+                    putInt(staff.bottomY);
+                }
+            }
+
+            ensure(16);
+            buf.putLong(entry.offset);
+            buf.putInt(entry.noteCount);
+            buf.putInt(entry.length);
+        }
+
+        private void putInt (int value)
+            throws IOException
+        {
+            ensure(4);
+            buf.putInt(value);
+        }
+
+        private void putNote (NoteEntry n)
+            throws IOException
+        {
+            putInt(n.noteIndex);
+            putInt(n.globalNoteIndex);
+            putInt(n.staff);
+            putString(n.voice);
+            putInt(n.noteIndexInChord);
+            putInt(n.sheetNumber);
+            putInt(n.systemIndex);
+
+            int flags = 0;
+            flags |= n.isRest ? REST : 0;
+            flags |= n.isGrace ? GRACE : 0;
+            flags |= n.isMeasureRest ? MEASURE_REST : 0;
+            flags |= n.isTiedStart ? TIED_START : 0;
+            flags |= n.isTiedStop ? TIED_STOP : 0;
+            flags |= (n.beamGroupId != null) ? BEAM_GROUP : 0;
+            ensure(1);
+            buf.put((byte) flags);
+
+            putString(n.step);
+            putInt(n.octave);
+            putInt(n.alter);
+            putInt(n.absolutePitch);
+            putInt(n.integerPitch);
+            putDouble(n.expectedFrequency);
+            putString(n.noteType);
+            putInt(n.dots);
+            putInt(n.stemDirection);
+            putInt((n.beamGroupId != null) ? n.beamGroupId : 0);
+            putInt(n.timeOffset);
+            putInt(n.duration);
+            putDouble(n.timeOffsetSeconds);
+            putDouble(n.durationSeconds);
+            putInt(n.tiedDuration);
+            putDouble(n.tiedDurationSeconds);
+            putBounds(n.bounds);
+            putInt(n.center.x);
+            putInt(n.center.y);
+            putBounds(n.chordBounds);
+            putInt(n.staffTopY);
+            putInt(n.staffBottomY);
+        }
+
+        private void putString (String s)
+            throws IOException
+        {
+            if (s == null) {
+                ensure(2);
+                buf.putShort((short) -1);
+
+                return;
+            }
+
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IOException("String too long for note mapping: " + bytes.length);
+            }
+
+            ensure(2 + bytes.length);
+            buf.putShort((short) bytes.length);
+            buf.put(bytes);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                             N o t e M a p p i n g S t r e a m e r                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.score.NoteMapping.MeasureInfo;
+import org.audiveris.omr.score.NoteMapping.NoteEntry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Class <code>NoteMappingStreamer</code> writes note mapping entries as soon as they are
+ * collected, so that the whole mapping of a large score is never held in memory.
+ * <p>
+ * Measure and note entries, which make the bulk of a mapping, are handed over by
+ * {@link NoteMapping} and immediately written as JSON fragments to two spool files.
+ * Once the score has been browsed, {@link NoteMapping#writeJson} writes the small sections
+ * (tempos, signatures, sheets, systems) followed by the content of both spools.
+ * <p>
+ * Optionally, the same entries are also written to a binary file (see {@link NoteMappingCodec}),
+ * to be completed by {@link #writeBinary}.
+ * <p>
+ * Spool files, as well as an incomplete binary file, are deleted when the streamer is closed.
+ *
+ * @author Hervé Bitteur
+ */
+public class NoteMappingStreamer
+        implements AutoCloseable
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteMappingStreamer.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Spool for measure entries. */
+    private final Spool<MeasureInfo> measures;
+
+    /** Spool for note entries. */
+    private final Spool<NoteEntry> notes;
+
+    /** Path to binary file, if any. */
+    private final Path binaryPath;
+
+    /** Writer for binary file, if any. */
+    private final NoteMappingCodec.Writer binary;
+
+    /** First exception raised while streaming, if any. */
+    private IOException failure;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Create a new <code>NoteMappingStreamer</code> object.
+     *
+     * @param binaryPath path to binary file, or null for no binary output
+     * @throws IOException if spool or binary files could not be created
+     */
+    public NoteMappingStreamer (Path binaryPath)
+        throws IOException
+    {
+        this.binaryPath = binaryPath;
+        measures = new Spool<>("audiveris-measures-", NoteMapping::writeMeasure);
+
+        try {
+            notes = new Spool<>("audiveris-notes-", NoteMapping::writeNote);
+            binary = (binaryPath != null) ? new NoteMappingCodec.Writer(binaryPath) : null;
+        } catch (IOException ex) {
+            close();
+
+            throw ex;
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //------------//
+    // addMeasure //
+    //------------//
+    /**
+     * Write the provided measure entry.
+     *
+     * @param measure the measure info
+     */
+    void addMeasure (MeasureInfo measure)
+    {
+        if (failure == null) {
+            try {
+                measures.add(measure);
+
+                if (binary != null) {
+                    binary.addMeasure(measure);
+                }
+            } catch (IOException ex) {
+                failed(ex);
+            }
+        }
+    }
+
+    //---------//
+    // addNote //
+    //---------//
+    /**
+     * Write the provided note entry.
+     *
+     * @param note the note entry
+     */
+    void addNote (NoteEntry note)
+    {
+        if (failure == null) {
+            try {
+                notes.add(note);
+
+                if (binary != null) {
+                    binary.addNote(note);
+                }
+            } catch (IOException ex) {
+                failed(ex);
+            }
+        }
+    }
+
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Release spool files, as well as binary file if not completed.
+     */
+    @Override
+    public void close ()
+    {
+        release(measures);
+        release(notes);
+
+        if (binary != null) {
+            try {
+                binary.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close {}", binaryPath, ex);
+            }
+        }
+    }
+
+    //------//
+    // copy //
+    //------//
+    private void copy (Spool<?> spool,
+                       OutputStream os)
+        throws IOException
+    {
+        if (failure != null) {
+            throw failure;
+        }
+
+        spool.finish();
+        Files.copy(spool.path, os);
+    }
+
+    //--------------//
+    // copyMeasures //
+    //--------------//
+    /**
+     * Copy the JSON measure entries to the provided output stream.
+     *
+     * @param os the output stream
+     * @throws IOException if streaming failed or if spool could not be copied
+     */
+    void copyMeasures (OutputStream os)
+        throws IOException
+    {
+        copy(measures, os);
+    }
+
+    //-----------//
+    // copyNotes //
+    //-----------//
+    /**
+     * Copy the JSON note entries to the provided output stream.
+     *
+     * @param os the output stream
+     * @throws IOException if streaming failed or if spool could not be copied
+     */
+    void copyNotes (OutputStream os)
+        throws IOException
+    {
+        copy(notes, os);
+    }
+
+    //--------//
+    // failed //
+    //--------//
+    private void failed (IOException ex)
+    {
+        logger.warn("Error streaming note mapping", ex);
+        failure = ex;
+    }
+
+    //---------------//
+    // getBinaryPath //
+    //---------------//
+    /**
+     * Report the path to binary file.
+     *
+     * @return the binary path, or null if there is no binary output
+     */
+    public Path getBinaryPath ()
+    {
+        return binaryPath;
+    }
+
+    //---------//
+    // release //
+    //---------//
+    private void release (Spool<?> spool)
+    {
+        if (spool != null) {
+            try {
+                spool.close();
+            } catch (IOException ex) {
+                logger.warn("Could not delete spool {}", spool.path, ex);
+            }
+        }
+    }
+
+    //-------------//
+    // writeBinary //
+    //-------------//
+    /**
+     * Complete the binary file with its measure index.
+     *
+     * @param divisions the divisions per quarter note
+     * @throws IOException if streaming failed or if binary file could not be completed
+     */
+    public void writeBinary (int divisions)
+        throws IOException
+    {
+        if (failure != null) {
+            throw failure;
+        }
+
+        if (binary != null) {
+            binary.finish(divisions);
+        }
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-------//
+    // Spool //
+    //-------//
+    /**
+     * Temporary file where the JSON objects of one array are written, separated by a comma.
+     *
+     * @param <T> the entry type
+     */
+    private static class Spool<T>
+    {
+        final Path path;
+
+        final Writer out;
+
+        final NoteMapping.EntryWriter<T> entryWriter;
+
+        int count;
+
+        boolean finished;
+
+        Spool (String prefix,
+               NoteMapping.EntryWriter<T> entryWriter)
+            throws IOException
+        {
+            this.entryWriter = entryWriter;
+            path = Files.createTempFile(prefix, ".json");
+            out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        }
+
+        void add (T entry)
+            throws IOException
+        {
+            if (count++ > 0) {
+                out.write(",\n");
+            }
+
+            entryWriter.write(out, entry);
+        }
+
+        void close ()
+            throws IOException
+        {
+            try {
+                finish();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+
+        void finish ()
+            throws IOException
+        {
+            if (!finished) {
+                finished = true;
+
+                try {
+                    if (count > 0) {
+                        out.write("\n");
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+        }
+    }
+}
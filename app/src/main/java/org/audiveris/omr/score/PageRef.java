@@ -270,6 +270,14 @@ public class PageRef
     //-------------//
     // getRealPage //
     //-------------//
+    /**
+     * Report the real page, loading its sheet if needed.
+     * <p>
+     * Outside of step processing, the caller should pin the related sheet while using the page
+     * (see {@link SheetStub#pinSheet}).
+     *
+     * @return the real page
+     */
     public Page getRealPage ()
     {
         final Sheet sheet = stub.getSheet(); // Avoid loading!
@@ -259,6 +259,10 @@ import java.util.concurrent.Future;
 /**
  * Class <code>PartwiseBuilder</code> builds a ProxyMusic MusicXML {@link ScorePartwise}
  * from an Audiveris {@link Score} instance.
+ * <p>
+ * When built via {@link #buildStreaming}, every measure is handed over to a {@link MeasureSink}
+ * as soon as it is completed, and then removed from its part.
+ * The resulting ScorePartwise thus contains only the score header and the (empty) parts.
  *
  * @author Hervé Bitteur
  */
@@ -328,6 +332,15 @@ public class PartwiseBuilder
     /** Note mapping collector for JSON export (optional). */
     private NoteMapping noteMapping;
 
+    /** Sink for completed measures (optional). */
+    private MeasureSink measureSink;
+
+    /** Last clef per staff number, for measures already handed over to sink, per part. */
+    private final Map<ScorePartwise.Part, Map<BigInteger, Clef>> sunkClefs = new HashMap<>();
+
+    /** First exception raised by the measure sink, if any. */
+    private Exception sinkException;
+
     /** Global note counter across all parts. */
     private int globalNoteCounter = 0;
 
@@ -594,15 +607,20 @@ public class PartwiseBuilder
         outermost:
         for (SheetStub stub : scoreStubs) {
             final Integer sheetPageId = score.getSheetPageId(stub.getNumber());
-            final Sheet sheet = stub.getSheet();
-            final Page page = sheet.getPages().get(sheetPageId - 1);
-            for (SystemInfo system : page.getSystems()) {
-                Part systemPart = system.getPartById(logicalPart.getId());
-                if (systemPart != null) {
-                    // we've found a SystemPart that corresponds to this LogicalPart
-                    isDrumLogicalPart = systemPart.isDrumPart();
-                    break outermost;
+            final Sheet sheet = stub.pinSheet();
+
+            try {
+                final Page page = sheet.getPages().get(sheetPageId - 1);
+                for (SystemInfo system : page.getSystems()) {
+                    Part systemPart = system.getPartById(logicalPart.getId());
+                    if (systemPart != null) {
+                        // we've found a SystemPart that corresponds to this LogicalPart
+                        isDrumLogicalPart = systemPart.isDrumPart();
+                        break outermost;
+                    }
                 }
+            } finally {
+                stub.unpinSheet();
             }
         }
         if (isDrumLogicalPart) {
@@ -1118,6 +1136,13 @@ public class PartwiseBuilder
             }
         }
 
+        // Look in measures already handed over to sink, if any
+        final Map<BigInteger, Clef> clefs = sunkClefs.get(current.pmPart);
+
+        if ((clefs != null) && clefs.containsKey(newClef.getNumber())) {
+            return !areEqual(clefs.get(newClef.getNumber()), newClef);
+        }
+
         return true; // Since no previous clef was found for the same staff
     }
 
@@ -3018,6 +3043,7 @@ public class PartwiseBuilder
             for (Measure measure : part.getMeasures()) {
                 if (!measure.getStack().isCautionary()) {
                     processMeasure(measure);
+                    sinkMeasures();
                 }
             }
         } catch (Exception ex) {
@@ -3049,7 +3075,13 @@ public class PartwiseBuilder
         logger.info("Exporting sheet(s): {}", Book.ids(scoreStubs));
 
         for (SheetStub stub : scoreStubs) {
-            processStub(stub, partMap);
+            stub.pinSheet(); // Sheet must stay in memory while its page is exported
+
+            try {
+                processStub(stub, partMap);
+            } finally {
+                stub.unpinSheet();
+            }
         }
     }
 
@@ -3790,6 +3822,47 @@ public class PartwiseBuilder
         }
     }
 
+    //--------------//
+    // sinkMeasures //
+    //--------------//
+    /**
+     * In streaming mode, hand over the completed measures of current part to the sink.
+     * <p>
+     * Clefs are remembered, since {@link #isNewClef} needs the previous clef of every staff.
+     */
+    private void sinkMeasures ()
+    {
+        if (measureSink == null) {
+            return;
+        }
+
+        final List<ScorePartwise.Part.Measure> pmMeasures = current.pmPart.getMeasure();
+        final Map<BigInteger, Clef> clefs = sunkClefs.computeIfAbsent(
+                current.pmPart,
+                p -> new HashMap<>());
+
+        for (ScorePartwise.Part.Measure pmMeasure : pmMeasures) {
+            for (Object obj : pmMeasure.getNoteOrBackupOrForward()) {
+                if (obj instanceof Attributes attributes) {
+                    for (Clef clef : attributes.getClef()) {
+                        clefs.put(clef.getNumber(), clef);
+                    }
+                }
+            }
+
+            if (sinkException == null) {
+                try {
+                    measureSink.accept(current.pmPart, pmMeasure);
+                } catch (Exception ex) {
+                    logger.warn("Error streaming measure {}", pmMeasure.getNumber(), ex);
+                    sinkException = ex;
+                }
+            }
+        }
+
+        pmMeasures.clear();
+    }
+
     //----------//
     // toTenths //
     //----------//
@@ -3877,6 +3950,41 @@ public class PartwiseBuilder
         return builder.scorePartwise;
     }
 
+    //----------------//
+    // buildStreaming //
+    //----------------//
+    /**
+     * Export a Score instance, handing over each measure to the provided sink as soon as it is
+     * completed, and collect note mapping data.
+     *
+     * @param score       the score to be exported
+     * @param sink        the sink for completed measures
+     * @param noteMapping the note mapping to populate
+     * @return BuildResult containing the ScorePartwise (with empty parts) and the NoteMapping
+     * @throws InterruptedException if the thread has been interrupted
+     * @throws ExecutionException   if a checked exception was thrown, notably by the sink
+     */
+    public static BuildResult buildStreaming (Score score,
+                                              MeasureSink sink,
+                                              NoteMapping noteMapping)
+        throws InterruptedException, ExecutionException
+    {
+        Objects.requireNonNull(score, "Trying to export a null score");
+        Objects.requireNonNull(sink, "Trying to export a score to a null sink");
+
+        final PartwiseBuilder builder = new PartwiseBuilder(score);
+        builder.noteMapping = Objects.requireNonNull(noteMapping, "Null note mapping");
+        builder.measureSink = sink;
+
+        builder.processScore();
+
+        if (builder.sinkException != null) {
+            throw new ExecutionException(builder.sinkException);
+        }
+
+        return new BuildResult(builder.scorePartwise, builder.noteMapping);
+    }
+
     //--------------------//
     // buildWithMapping   //
     //--------------------//
@@ -3890,11 +3998,32 @@ public class PartwiseBuilder
      */
     public static BuildResult buildWithMapping (Score score)
         throws InterruptedException, ExecutionException
+    {
+        return buildWithMapping(score, new NoteMapping());
+    }
+
+    //--------------------//
+    // buildWithMapping   //
+    //--------------------//
+    /**
+     * Export a Score instance to a ScorePartwise and populate the provided note mapping.
+     * <p>
+     * The note mapping may stream its entries, see {@link NoteMappingStreamer}.
+     *
+     * @param score       the score to be exported
+     * @param noteMapping the note mapping to populate
+     * @return BuildResult containing both ScorePartwise and NoteMapping
+     * @throws InterruptedException if the thread has been interrupted
+     * @throws ExecutionException   if a checked exception was thrown
+     */
+    public static BuildResult buildWithMapping (Score score,
+                                                NoteMapping noteMapping)
+        throws InterruptedException, ExecutionException
     {
         Objects.requireNonNull(score, "Trying to export a null score");
 
         final PartwiseBuilder builder = new PartwiseBuilder(score);
-        builder.noteMapping = new NoteMapping();
+        builder.noteMapping = Objects.requireNonNull(noteMapping, "Null note mapping");
 
         builder.processScore();
 
@@ -4331,4 +4460,26 @@ public class PartwiseBuilder
             }
         }
     }
+
+    //~ Inner Interfaces ---------------------------------------------------------------------------
+
+    //-------------//
+    // MeasureSink //
+    //-------------//
+    /**
+     * Interface for a consumer of measures, as soon as they are completed.
+     */
+    public static interface MeasureSink
+    {
+        /**
+         * Consume the provided completed measure.
+         *
+         * @param pmPart    the containing part
+         * @param pmMeasure the completed measure
+         * @throws Exception if anything goes wrong
+         */
+        void accept (ScorePartwise.Part pmPart,
+                     ScorePartwise.Part.Measure pmMeasure)
+            throws Exception;
+    }
 }
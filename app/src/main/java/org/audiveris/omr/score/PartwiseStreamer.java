@@ -0,0 +1,377 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                P a r t w i s e S t r e a m e r                                 //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.util.CustomXMLStreamWriter;
+import org.audiveris.proxymusic.Credit;
+import org.audiveris.proxymusic.Defaults;
+import org.audiveris.proxymusic.Encoding;
+import org.audiveris.proxymusic.Identification;
+import org.audiveris.proxymusic.ObjectFactory;
+import org.audiveris.proxymusic.PartList;
+import org.audiveris.proxymusic.ScorePart;
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.Work;
+import org.audiveris.proxymusic.util.Marshalling;
+import org.audiveris.proxymusic.util.ProgramId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Class <code>PartwiseStreamer</code> writes a MusicXML partwise document without ever holding
+ * all score measures in memory.
+ * <p>
+ * {@link PartwiseBuilder} browses the score page by page, and within each page part by part,
+ * while a partwise document is organized part by part.
+ * So, every measure handed over by the builder is immediately marshalled, as an XML fragment, to
+ * a spool file dedicated to its part, and then forgotten.
+ * <p>
+ * Once the whole score has been browsed, {@link #write} writes the document header (which depends
+ * on all pages, because of credits for example) followed by the content of each part spool.
+ * Spool files are deleted when the streamer is closed.
+ *
+ * @author Hervé Bitteur
+ */
+public class PartwiseStreamer
+        implements PartwiseBuilder.MeasureSink, AutoCloseable
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(PartwiseStreamer.class);
+
+    /** Document encoding. */
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+    /** Document version, as set by ProxyMusic marshalling. */
+    private static final String VERSION = ProgramId.VERSION;
+
+    /** Document type, as written by ProxyMusic marshalling. */
+    private static final String PARTWISE_DOCTYPE = "<!DOCTYPE score-partwise PUBLIC"
+            + " \"-//Recordare//DTD MusicXML " + VERSION + " Partwise//EN\""
+            + " \"http://www.musicxml.org/dtds/partwise.dtd\">";
+
+    private static final QName MEASURE = new QName("measure");
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Marshaller for all fragments. */
+    private final Marshaller marshaller;
+
+    /** Factory for XML stream writers. */
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
+
+    /** Spool per part. */
+    private final Map<ScorePartwise.Part, Spool> spools = new LinkedHashMap<>();
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Create a new <code>PartwiseStreamer</code> object.
+     *
+     * @throws JAXBException if JAXB context could not be set up
+     */
+    public PartwiseStreamer ()
+        throws JAXBException
+    {
+        marshaller = Marshalling.getContext(ScorePartwise.class).createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //--------//
+    // accept //
+    //--------//
+    @Override
+    public void accept (ScorePartwise.Part pmPart,
+                        ScorePartwise.Part.Measure pmMeasure)
+        throws JAXBException, IOException, XMLStreamException
+    {
+        Spool spool = spools.get(pmPart);
+
+        if (spool == null) {
+            spools.put(pmPart, spool = new Spool());
+        }
+
+        marshaller.marshal(
+                new JAXBElement<>(MEASURE, ScorePartwise.Part.Measure.class, pmMeasure),
+                spool.writer);
+    }
+
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Release all spool files.
+     */
+    @Override
+    public void close ()
+    {
+        for (Spool spool : spools.values()) {
+            try {
+                spool.close();
+            } catch (IOException ex) {
+                logger.warn("Could not delete spool {}", spool.path, ex);
+            }
+        }
+
+        spools.clear();
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the whole partwise document to the provided output stream.
+     * <p>
+     * The output stream is flushed but not closed.
+     *
+     * @param scorePartwise the score header, with parts whose measures have been streamed
+     * @param os            the output stream
+     * @param signed        should we inject ProxyMusic signature?
+     * @throws JAXBException                  if a fragment could not be marshalled
+     * @throws XMLStreamException             if XML could not be written
+     * @throws IOException                    if a spool could not be copied
+     * @throws DatatypeConfigurationException if signature date could not be built
+     */
+    public void write (ScorePartwise scorePartwise,
+                       OutputStream os,
+                       boolean signed)
+        throws JAXBException, XMLStreamException, IOException, DatatypeConfigurationException
+    {
+        Objects.requireNonNull(
+                scorePartwise.getPartList(),
+                "Trying to write a score with no part-list");
+
+        if (signed) {
+            sign(scorePartwise);
+        }
+
+        final XMLStreamWriter raw = outputFactory.createXMLStreamWriter(os, ENCODING);
+        final XMLStreamWriter writer = new CustomXMLStreamWriter(raw);
+        writer.writeStartDocument(ENCODING, "1.0");
+        writer.writeCharacters("\n");
+        writer.writeDTD(PARTWISE_DOCTYPE);
+        writer.writeStartElement("score-partwise");
+        writer.writeAttribute("version", VERSION);
+
+        // Header
+        writeElement(writer, "work", Work.class, scorePartwise.getWork());
+        writeElement(writer, "movement-number", String.class, scorePartwise.getMovementNumber());
+        writeElement(writer, "movement-title", String.class, scorePartwise.getMovementTitle());
+        writeElement(
+                writer,
+                "identification",
+                Identification.class,
+                scorePartwise.getIdentification());
+        writeElement(writer, "defaults", Defaults.class, scorePartwise.getDefaults());
+
+        for (Credit credit : scorePartwise.getCredit()) {
+            writeElement(writer, "credit", Credit.class, credit);
+        }
+
+        writeElement(writer, "part-list", PartList.class, scorePartwise.getPartList());
+
+        // Parts, with their spooled measures, directly copied to output stream.
+        // Part elements are written via the raw writer, since the custom writer would delay the
+        // start tag until some content arrives.
+        writer.flush();
+
+        for (ScorePartwise.Part pmPart : scorePartwise.getPart()) {
+            // Measures not streamed, if any
+            for (ScorePartwise.Part.Measure pmMeasure : pmPart.getMeasure()) {
+                accept(pmPart, pmMeasure);
+            }
+
+            final String id = ((ScorePart) pmPart.getId()).getId();
+            raw.writeCharacters("\n  ");
+            raw.writeStartElement("part");
+            raw.writeAttribute("id", id);
+            raw.writeCharacters(""); // To close the start tag
+            raw.flush();
+
+            final Spool spool = spools.get(pmPart);
+
+            if (spool != null) {
+                spool.finish();
+                Files.copy(spool.path, os);
+            }
+
+            raw.writeCharacters("\n  ");
+            raw.writeEndElement();
+        }
+
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+        os.flush();
+    }
+
+    //--------------//
+    // writeElement //
+    //--------------//
+    /**
+     * Marshal the provided value, if any, as an element fragment.
+     */
+    private <T> void writeElement (XMLStreamWriter writer,
+                                   String name,
+                                   Class<T> type,
+                                   T value)
+        throws JAXBException, XMLStreamException
+    {
+        if (value != null) {
+            marshaller.marshal(new JAXBElement<>(new QName(name), type, value), writer);
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //------//
+    // sign //
+    //------//
+    /**
+     * Inject ProxyMusic software and encoding date, the same way ProxyMusic marshalling does.
+     *
+     * @param scorePartwise the score header
+     * @throws DatatypeConfigurationException if date could not be built
+     */
+    private static void sign (ScorePartwise scorePartwise)
+        throws DatatypeConfigurationException
+    {
+        final ObjectFactory factory = new ObjectFactory();
+        Identification identification = scorePartwise.getIdentification();
+
+        if (identification == null) {
+            scorePartwise.setIdentification(identification = factory.createIdentification());
+        }
+
+        Encoding encoding = identification.getEncoding();
+
+        if (encoding == null) {
+            identification.setEncoding(encoding = factory.createEncoding());
+        }
+
+        final List<JAXBElement<?>> items = encoding.getEncodingDateOrEncoderOrSoftware();
+
+        for (Iterator<JAXBElement<?>> it = items.iterator(); it.hasNext();) {
+            final JAXBElement<?> item = it.next();
+            final String name = item.getName().getLocalPart();
+
+            if (name.equals("encoding-date") || (name.equals("software") && item.getValue()
+                    .toString().startsWith(ProgramId.NAME))) {
+                it.remove();
+            }
+        }
+
+        items.add(factory.createEncodingSoftware(ProgramId.NAME + " " + ProgramId.VERSION));
+
+        final XMLGregorianCalendar date = DatatypeFactory.newInstance().newXMLGregorianCalendar(
+                new GregorianCalendar());
+        date.setTimezone(DatatypeConstants.FIELD_UNDEFINED);
+        date.setTime(
+                DatatypeConstants.FIELD_UNDEFINED,
+                DatatypeConstants.FIELD_UNDEFINED,
+                DatatypeConstants.FIELD_UNDEFINED);
+        items.add(factory.createEncodingEncodingDate(date));
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-------//
+    // Spool //
+    //-------//
+    /**
+     * Temporary file where the measures of one part are marshalled.
+     */
+    private class Spool
+    {
+        final Path path;
+
+        final OutputStream os;
+
+        final XMLStreamWriter writer;
+
+        boolean finished;
+
+        Spool ()
+            throws IOException, XMLStreamException
+        {
+            path = Files.createTempFile("audiveris-part-", ".xml");
+            os = new BufferedOutputStream(Files.newOutputStream(path));
+            writer = new CustomXMLStreamWriter(outputFactory.createXMLStreamWriter(os, ENCODING));
+        }
+
+        void close ()
+            throws IOException
+        {
+            try {
+                finish();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+
+        void finish ()
+            throws IOException
+        {
+            if (!finished) {
+                finished = true;
+
+                try {
+                    writer.flush();
+                    writer.close();
+                } catch (XMLStreamException ex) {
+                    throw new IOException(ex);
+                } finally {
+                    os.close();
+                }
+            }
+        }
+    }
+}
@@ -474,6 +474,9 @@ public class Score
     //---------//
     /**
      * Report the Page corresponding to the provided PageNumber.
+     * <p>
+     * Outside of step processing, the caller should pin the related sheet while using the page
+     * (see {@link SheetStub#pinSheet}).
      *
      * @param pageNumber provided page number
      * @return the corresponding page
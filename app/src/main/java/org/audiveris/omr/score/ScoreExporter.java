@@ -22,6 +22,8 @@
 package org.audiveris.omr.score;
 
 import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.proxymusic.ScorePartwise;
 import org.audiveris.proxymusic.mxl.Mxl;
 import org.audiveris.proxymusic.mxl.RootFile;
@@ -32,14 +34,24 @@ import org.slf4j.LoggerFactory;
 
 import org.w3c.dom.Node;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
 
 /**
  * Class <code>ScoreExporter</code> exports the provided score to a MusicXML file, stream or
  * DOM.
+ * <p>
+ * Export to a stream can be performed in streaming mode (see {@link PartwiseStreamer}), where the
+ * score measures are written as soon as they are built, rather than first building the whole
+ * ScorePartwise tree in memory.
+ * <p>
+ * Export to a file is complemented by the export of note mapping to a JSON file, and optionally to
+ * a binary file indexed by measure (see {@link NoteMappingCodec}).
+ * Note mapping entries can also be streamed (see {@link NoteMappingStreamer}).
  *
  * @author Hervé Bitteur
  */
@@ -47,8 +59,16 @@ public class ScoreExporter
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(ScoreExporter.class);
 
+    /** Extension for JSON note mapping. */
+    private static final String JSON_MAPPING_EXTENSION = ".mapping.json";
+
+    /** Extension for binary note mapping. */
+    private static final String BINARY_MAPPING_EXTENSION = ".mapping.bin";
+
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** The related score. */
@@ -57,6 +77,9 @@ public class ScoreExporter
     /** Last collected note mapping (for export to JSON). */
     private NoteMapping lastNoteMapping;
 
+    /** Streamer for note mapping entries, if any, during export to a file. */
+    private NoteMappingStreamer mappingStreamer;
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -121,8 +144,16 @@ public class ScoreExporter
     {
         Objects.requireNonNull(os, "Trying to export a score to a null output stream");
 
+        if (constants.streamedExport.isSet()) {
+            exportStreamed(os, signed, scoreName, compressed);
+
+            return;
+        }
+
         // Build the ScorePartwise proxy with note mapping
-        PartwiseBuilder.BuildResult result = PartwiseBuilder.buildWithMapping(score);
+        PartwiseBuilder.BuildResult result = PartwiseBuilder.buildWithMapping(
+                score,
+                new NoteMapping(mappingStreamer));
         ScorePartwise scorePartwise = result.scorePartwise;
         this.lastNoteMapping = result.noteMapping;
 
@@ -164,13 +195,23 @@ public class ScoreExporter
                         boolean compressed)
         throws Exception
     {
-        try (OutputStream os = new FileOutputStream(path.toString())) {
-            export(os, signed, scoreName, compressed);
-            logger.info("Score {} exported to {}", scoreName, path);
+        final boolean binary = constants.binaryNoteMapping.isSet();
+        final boolean streamed = binary || constants.streamedNoteMapping.isSet();
+
+        try (NoteMappingStreamer streamer = streamed ? new NoteMappingStreamer(
+                binary ? getMappingPath(path, BINARY_MAPPING_EXTENSION) : null) : null) {
+            mappingStreamer = streamer;
+
+            try (OutputStream os = new FileOutputStream(path.toString())) {
+                export(os, signed, scoreName, compressed);
+                logger.info("Score {} exported to {}", scoreName, path);
+            }
+
+            // Export note mapping to JSON file
+            exportNoteMapping(path);
+        } finally {
+            mappingStreamer = null;
         }
-        
-        // Export note mapping to JSON file
-        exportNoteMapping(path);
     }
 
     //---------------------//
@@ -178,6 +219,8 @@ public class ScoreExporter
     //---------------------//
     /**
      * Export the note mapping to a JSON file alongside the MusicXML file.
+     * <p>
+     * If a binary output was requested, the binary file is completed as well.
      *
      * @param musicXmlPath the path to the MusicXML file
      */
@@ -188,24 +231,114 @@ public class ScoreExporter
         }
 
         try {
-            String pathStr = musicXmlPath.toString();
-            String jsonPathStr;
-            
-            // Determine JSON file path based on MusicXML file extension
-            if (pathStr.endsWith(".mxl")) {
-                jsonPathStr = pathStr.substring(0, pathStr.length() - 4) + ".mapping.json";
-            } else if (pathStr.endsWith(".xml")) {
-                jsonPathStr = pathStr.substring(0, pathStr.length() - 4) + ".mapping.json";
-            } else {
-                jsonPathStr = pathStr + ".mapping.json";
+            final Path jsonPath = getMappingPath(musicXmlPath, JSON_MAPPING_EXTENSION);
+
+            // Write JSON to file, with no intermediate string
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(jsonPath))) {
+                lastNoteMapping.writeJson(os);
+            }
+
+            logger.info("Note mapping exported to {}", jsonPath);
+
+            if ((mappingStreamer != null) && (mappingStreamer.getBinaryPath() != null)) {
+                mappingStreamer.writeBinary(lastNoteMapping.getDivisions());
+                logger.info("Binary note mapping exported to {}", mappingStreamer.getBinaryPath());
             }
-            
-            // Write JSON to file
-            java.nio.file.Files.writeString(java.nio.file.Path.of(jsonPathStr), 
-                                           lastNoteMapping.toJson());
-            logger.info("Note mapping exported to {}", jsonPathStr);
         } catch (Exception ex) {
             logger.warn("Could not export note mapping", ex);
         }
     }
+
+    //----------------//
+    // exportStreamed //
+    //----------------//
+    /**
+     * Export the score to an output stream, measure after measure.
+     *
+     * @param os         the output stream where XML data is written
+     * @param signed     should we inject ProxyMusic signature?
+     * @param scoreName  (for compressed only) simple score name, without extension
+     * @param compressed true for compressed output
+     * @throws Exception if something goes wrong
+     */
+    private void exportStreamed (OutputStream os,
+                                 boolean signed,
+                                 String scoreName,
+                                 boolean compressed)
+        throws Exception
+    {
+        try (PartwiseStreamer streamer = new PartwiseStreamer()) {
+            // Measures are spooled as soon as they are built
+            PartwiseBuilder.BuildResult result = PartwiseBuilder.buildStreaming(
+                    score,
+                    streamer,
+                    new NoteMapping(mappingStreamer));
+            this.lastNoteMapping = result.noteMapping;
+
+            if (compressed) {
+                Mxl.Output mof = new Mxl.Output(os);
+                OutputStream zos = mof.getOutputStream();
+
+                if (scoreName == null) {
+                    scoreName = "score"; // Fall-back value
+                }
+
+                mof.addEntry(
+                        new RootFile(
+                                scoreName + OMR.SCORE_EXTENSION,
+                                RootFile.MUSICXML_MEDIA_TYPE));
+                streamer.write(result.scorePartwise, zos, signed);
+                mof.close();
+            } else {
+                try (os) {
+                    streamer.write(result.scorePartwise, os, signed);
+                }
+            }
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //----------------//
+    // getMappingPath //
+    //----------------//
+    /**
+     * Determine the note mapping path, based on MusicXML file path and extension.
+     *
+     * @param musicXmlPath the path to the MusicXML file
+     * @param extension    the note mapping extension
+     * @return the note mapping path
+     */
+    private static Path getMappingPath (Path musicXmlPath,
+                                        String extension)
+    {
+        final String pathStr = musicXmlPath.toString();
+
+        if (pathStr.endsWith(".mxl") || pathStr.endsWith(".xml")) {
+            return Path.of(pathStr.substring(0, pathStr.length() - 4) + extension);
+        }
+
+        return Path.of(pathStr + extension);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Boolean streamedExport = new Constant.Boolean(
+                false,
+                "Should we export MusicXML measure after measure, to save memory on large scores?");
+
+        private final Constant.Boolean streamedNoteMapping = new Constant.Boolean(
+                false,
+                "Should we write note mapping entries as soon as they are collected?");
+
+        private final Constant.Boolean binaryNoteMapping = new Constant.Boolean(
+                false,
+                "Should we also export note mapping to a binary file indexed by measure?");
+    }
 }
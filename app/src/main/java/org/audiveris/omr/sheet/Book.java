@@ -30,6 +30,7 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.image.FilterParam;
 import org.audiveris.omr.image.ImageLoading;
+import org.audiveris.omr.image.LoaderCache;
 import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.score.OpusExporter;
 import org.audiveris.omr.score.Page;
@@ -59,12 +60,12 @@ import org.audiveris.omr.ui.symbol.TextFamily;
 import org.audiveris.omr.util.FileUtil;
 import org.audiveris.omr.util.Jaxb;
 import org.audiveris.omr.util.Jaxb.OmrSchemaOutputResolver;
-import org.audiveris.omr.util.Memory;
 import org.audiveris.omr.util.NaturalSpec;
 import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.StopWatch;
 import org.audiveris.omr.util.Version;
 import org.audiveris.omr.util.ZipFileSystem;
+import org.audiveris.omr.util.ZipReadSession;
 import org.audiveris.omr.util.param.IntegerParam;
 import org.audiveris.omr.util.param.Param;
 import org.audiveris.omr.util.param.StringParam;
@@ -92,8 +93,8 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -227,6 +228,9 @@ public class Book
     /** Project file lock. */
     private final Lock lock = new ReentrantLock();
 
+    /** Shared read access to book file. */
+    private final ZipReadSession readSession = new ZipReadSession();
+
     /** The related file radix (file name without extension). */
     private String radix;
 
@@ -375,7 +379,13 @@ public class Book
             for (SheetStub stub : theStubs) {
                 try {
                     LogUtil.start(stub);
-                    stub.getSheet().annotate(root);
+                    final Sheet sheet = stub.pinSheet();
+
+                    try {
+                        sheet.annotate(root);
+                    } finally {
+                        stub.unpinSheet();
+                    }
                 } catch (Exception ex) {
                     logger.warn("Error annotating {} {}", stub, ex.toString(), ex);
                 } finally {
@@ -495,8 +505,17 @@ public class Book
         // Remove from OMR instances
         OMR.engine.removeBook(this, sheetNumber);
 
-        // Time for some cleanup...
-        Memory.gc();
+        // Release book file
+        readSession.close();
+
+        // Release input file(s)
+        for (SheetStub stub : stubs) {
+            final Path inputPath = stub.getSheetInput().path;
+
+            if (inputPath != null) {
+                LoaderCache.getInstance().evict(inputPath);
+            }
+        }
 
         logger.debug("Book closed.");
     }
@@ -533,8 +552,14 @@ public class Book
 
                     score.addPageNumber(stub.getNumber(), pageRef);
                     if (stub.hasSheet()) {
-                        final Page page = pageRef.getRealPage();
-                        page.setScore(score);
+                        stub.pinSheet();
+
+                        try {
+                            final Page page = pageRef.getRealPage();
+                            page.setScore(score);
+                        } finally {
+                            stub.unpinSheet();
+                        }
                     }
                 }
             }
@@ -552,7 +577,7 @@ public class Book
      */
     public void createStubs ()
     {
-        final ImageLoading.Loader loader = ImageLoading.getLoader(path);
+        final ImageLoading.Loader loader = LoaderCache.getInstance().acquire(path);
 
         if (loader != null) {
             final int imageCount = loader.getImageCount();
@@ -990,6 +1015,22 @@ public class Book
         return parameters.switches;
     }
 
+    //----------------//
+    // getReadSession //
+    //----------------//
+    /**
+     * Report the session for shared read access to the book file.
+     * <p>
+     * Any writing to the book file must be bracketed by {@link ZipReadSession#lockForWrite()} and
+     * {@link ZipReadSession#unlockForWrite()}, while holding the book lock.
+     *
+     * @return the book read session
+     */
+    public ZipReadSession getReadSession ()
+    {
+        return readSession;
+    }
+
     //----------//
     // getRadix //
     //----------//
@@ -1939,98 +1980,12 @@ public class Book
                 if (isMultiSheet() && constants.processAllStubsInParallel.isSet()
                         && (OmrExecutors.defaultParallelism.getValue() == true)) {
 
-                    List<Callable<Boolean>> tasks = new ArrayList<>();
-
-                    // Initial session
-                    // Process all stubs in parallel, up until RHYTHMS & PAGE steps excluded
-                    final OmrStep maxStep = (target.compareTo(OmrStep.lastParallel()) > 0) //
-                            ? OmrStep.lastParallel()
-                            : target;
-
-                    if (force || target != maxStep) {
-                        logger.info("Initial book processing until {}", maxStep);
-                    }
-
-                    for (final SheetStub stub : theStubs) {
-                        tasks.add( () -> {
-                            LogUtil.start(stub);
-
-                            try {
-                                boolean ok = stub.reachStep(maxStep, force);
-
-                                if (ok && (OMR.gui == null)) {
-                                    stub.swapSheet(); // Save sheet & global book info to disk
-                                }
-
-                                return ok;
-                            } finally {
-                                stub.printWatch();
-                                LogUtil.stopStub();
-                            }
-                        });
-                    }
-
-                    try {
-                        List<Future<Boolean>> futures = OmrExecutors.getCachedLowExecutor()
-                                .invokeAll(tasks);
-
-                        for (Future<Boolean> future : futures) {
-                            try {
-                                if (!future.get()) {
-                                    someFailure = true;
-                                }
-                            } catch (InterruptedException | ExecutionException ex) {
-                                if (ex.getCause() instanceof StepPause) {
-                                    logger.debug("StepPause in Future {}", future);
-                                } else {
-                                    logger.warn("Future exception", ex);
-                                }
-                                someFailure = true;
-                            }
-                        }
-                    } catch (InterruptedException ex) {
-                        logger.warn("Error in parallel reachBookStep", ex);
-                        someFailure = true;
-                    }
+                    // Pipelined processing, bounded in number of stubs and threads
+                    someFailure = !new BookScheduler(target, force, swap).process(theStubs);
 
-                    // Final session?
-                    if (target.compareTo(OmrStep.lastParallel()) > 0) {
-                        logger.info("Final book processing until {}", target);
-
-                        // Final processing, one stub after the other
-                        for (SheetStub stub : theStubs) {
-                            LogUtil.start(stub);
-
-                            try {
-                                if (stub.reachStep(target, false)) {} else {
-                                    someFailure = true;
-                                }
-                            } catch (StepPause ex) {
-                                // Book pause required
-                                // Stop processing for the other stubs
-                                logger.info("Book processing stopped by user.");
-                                someFailure = true;
-                                break;
-                            } catch (ProcessingCancellationException ex) {
-                                // Exception (such as timeout) raised on stub
-                                // Let processing continue for the other stubs
-                                logger.warn("Error processing stub");
-                                someFailure = true;
-                            } catch (Exception ex) {
-                                // Exception raised on stub
-                                // Let processing continue for the other stubs
-                                logger.warn("Error processing stub {}", ex);
-                                someFailure = true;
-                            } finally {
-                                stub.printWatch();
-                                if (swap) {
-                                    swapAllSheets(); // Save sheet(s) & global book info to disk
-                                    logger.info("End of {}", stub);
-                                }
-
-                                LogUtil.stopStub();
-                            }
-                        }
+                    // Processed sheets have already been swapped out, failed ones are kept
+                    if (swap && (isModified() || isUpgraded())) {
+                        store(); // Save global book info to disk
                     }
                 } else {
                     // Process one stub after the other
@@ -2067,7 +2022,11 @@ public class Book
                             LogUtil.stopStub();
                         }
                     }
+                }
 
+                if (someFailure) {
+                    logger.warn("Book processed with failure(s).");
+                } else {
                     logger.info("Book processed.");
                 }
 
@@ -2190,8 +2149,13 @@ public class Book
     public void sample (List<SheetStub> theStubs)
     {
         for (SheetStub stub : theStubs) {
-            Sheet sheet = stub.getSheet();
-            sheet.sample();
+            Sheet sheet = stub.pinSheet();
+
+            try {
+                sheet.sample();
+            } finally {
+                stub.unpinSheet();
+            }
         }
     }
 
@@ -2455,8 +2419,6 @@ public class Book
     public void store (Path bookPath,
                        boolean withBackup)
     {
-        Memory.gc(); // Launch garbage collection, to save on weak glyph references ...
-
         boolean diskWritten = false; // Has disk actually been written?
 
         // Backup existing book file?
@@ -2472,6 +2434,7 @@ public class Book
 
         try {
             getLock().lock();
+            readSession.lockForWrite();
             checkRadixChange(bookPath);
             logger.debug("Storing book...");
 
@@ -2490,12 +2453,8 @@ public class Book
                 }
 
                 // Contained sheets
-                for (SheetStub stub : stubs) {
-                    if (stub.isModified() || stub.isUpgraded()) {
-                        final Path sheetFolder = root.resolve(INTERNALS_RADIX + stub.getNumber());
-                        stub.getSheet().store(sheetFolder, null);
-                        diskWritten = true;
-                    }
+                if (storeSheets(root, null)) {
+                    diskWritten = true;
                 }
 
                 // Separate repository
@@ -2521,13 +2480,11 @@ public class Book
                     if (Files.exists(oldSheetFolder)) {
                         FileUtil.copyTree(oldSheetFolder, sheetFolder);
                     }
-
-                    // Update modified sheet files
-                    if (stub.isModified() || stub.isUpgraded()) {
-                        stub.getSheet().store(sheetFolder, oldSheetFolder);
-                    }
                 }
 
+                // Update modified sheet files
+                storeSheets(root, oldRoot);
+
                 oldRoot.getFileSystem().close(); // Close old book file
             }
 
@@ -2545,6 +2502,7 @@ public class Book
                 } catch (IOException ignored) {}
             }
 
+            readSession.unlockForWrite();
             getLock().unlock();
         }
     }
@@ -2584,6 +2542,70 @@ public class Book
     {
     }
 
+    //-------------//
+    // storeSheets //
+    //-------------//
+    /**
+     * Store the modified sheets into book file system.
+     * <p>
+     * Sheets material (images and structure) is encoded in memory by worker threads, several
+     * sheets at a time, while the current thread writes the encoded sheets one after the other
+     * into the book file.
+     * The number of sheets encoded in advance is bounded, to limit memory consumption.
+     * <p>
+     * NOTA: This method assumes the book is properly locked.
+     *
+     * @param root    root path of (new) book file system
+     * @param oldRoot root path of old book file system, if any
+     * @return true if some sheet has been stored
+     * @throws InterruptedException if interrupted while waiting for an encoding
+     */
+    private boolean storeSheets (Path root,
+                                 Path oldRoot)
+        throws InterruptedException
+    {
+        final List<SheetStub> modifiedStubs = new ArrayList<>();
+
+        for (SheetStub stub : stubs) {
+            if (stub.isModified() || stub.isUpgraded()) {
+                modifiedStubs.add(stub);
+            }
+        }
+
+        final int count = modifiedStubs.size();
+        final int maxPending = (constants.maxPendingEncodings.getValue() > 0)
+                ? constants.maxPendingEncodings.getValue()
+                : OmrExecutors.getNumberOfCpus();
+        final ExecutorService pool = OmrExecutors.getLowExecutor();
+        final List<Future<Sheet.Encoding>> encodings = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            // Keep workers busy ahead of the writer
+            while ((encodings.size() < count) && (encodings.size() < (i + maxPending))) {
+                final Sheet sheet = modifiedStubs.get(encodings.size()).getSheet();
+                encodings.add(pool.submit(sheet::encode));
+            }
+
+            final SheetStub stub = modifiedStubs.get(i);
+            Sheet.Encoding encoding = null;
+
+            try {
+                encoding = encodings.get(i).get();
+            } catch (ExecutionException ex) {
+                // Sheet will be encoded by the writer itself
+                logger.warn("Error encoding {} {}", stub, ex.toString(), ex);
+            }
+
+            encodings.set(i, null); // Release encoded material as soon as possible
+
+            final String folderName = INTERNALS_RADIX + stub.getNumber();
+            final Path oldSheetFolder = (oldRoot != null) ? oldRoot.resolve(folderName) : null;
+            stub.getSheet().store(root.resolve(folderName), oldSheetFolder, encoding);
+        }
+
+        return count > 0;
+    }
+
     //---------------//
     // swapAllSheets //
     //---------------//
@@ -2778,14 +2800,19 @@ public class Book
             for (SheetStub stub : stubsToUpgrade) {
                 logger.debug("check " + stub);
                 watch.start("check " + stub);
-                stub.getSheet(); // Load sheet if needed, this performs the upgrade w/in sheet
-                upgraded.add(stub);
+                stub.pinSheet(); // Load sheet if needed, this performs the upgrade w/in sheet
 
-                // Store (or swap=store+dispose). This also cleans table files
-                if (stub == currentStub) {
-                    stub.storeSheet();
-                } else {
-                    stub.swapSheet();
+                try {
+                    upgraded.add(stub);
+
+                    // Store (or swap=store+dispose). This also cleans table files
+                    if (stub == currentStub) {
+                        stub.storeSheet();
+                    } else {
+                        stub.swapSheet();
+                    }
+                } finally {
+                    stub.unpinSheet();
                 }
             }
 
@@ -3071,6 +3098,11 @@ public class Book
                 false,
                 "Should we process all stubs of a book in parallel? (beware of many stubs)");
 
+        private final Constant.Integer maxPendingEncodings = new Constant.Integer(
+                "sheets",
+                0,
+                "Maximum sheets encoded in advance when storing a book (0 for number of CPUs)");
+
         private final Constant.Boolean checkBookVersion = new Constant.Boolean(
                 true,
                 "Should we check version of loaded book files?");
@@ -0,0 +1,301 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    B o o k S c h e d u l e r                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.log.LogUtil;
+import org.audiveris.omr.sheet.ui.StubsController;
+import org.audiveris.omr.step.OmrStep;
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.step.StepPause;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class <code>BookScheduler</code> processes a sequence of sheet stubs in a pipelined manner.
+ * <p>
+ * Each stub goes through two phases:
+ * <ol>
+ * <li>The <i>early</i> phase, up to {@link OmrStep#lastParallel()}, which is independent of any
+ * other stub and can thus run as soon as a worker is available.</li>
+ * <li>The <i>late</i> phase, from {@link OmrStep#lastParallel()} (excluded) up to the target step,
+ * which must be performed in stubs order.
+ * It is started as soon as both the stub early phase and the preceding stub late phase are
+ * completed.</li>
+ * </ol>
+ * Hence, while stub #n is in its late phase, the following stubs may still be in their early
+ * phase, and all cores are kept busy until the very end of the book.
+ * <p>
+ * Tasks are run on the bounded {@link OmrExecutors#getBookExecutor()} pool.
+ * The number of stubs admitted at the same time in the pipeline is bounded by the
+ * <code>maxPipelinedStubs</code> constant, which limits the number of sheets in memory when
+ * processed sheets get swapped out.
+ * <p>
+ * Stubs are admitted in their book order, so a late phase never waits for a stub not yet admitted.
+ *
+ * @author Hervé Bitteur
+ */
+class BookScheduler
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(BookScheduler.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** The target step. */
+    private final OmrStep target;
+
+    /** The last step of early phase. */
+    private final OmrStep earlyStep;
+
+    /** Should we force the early phase?. */
+    private final boolean force;
+
+    /** Should we swap out processed sheets?. */
+    private final boolean swap;
+
+    /** Bound on stubs present at the same time in the pipeline. */
+    private final Semaphore admissions;
+
+    /** Set as soon as one processing failed. */
+    private final AtomicBoolean someFailure = new AtomicBoolean();
+
+    /** Set when a pause has been required. */
+    private volatile boolean paused;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>BookScheduler</code> object.
+     *
+     * @param target the targeted step
+     * @param force  if true and step already reached, sheet is reset and processed until step
+     * @param swap   if true, swap out processed sheets
+     */
+    BookScheduler (OmrStep target,
+                   boolean force,
+                   boolean swap)
+    {
+        this.target = target;
+        this.force = force;
+        this.swap = swap;
+
+        earlyStep = (target.compareTo(OmrStep.lastParallel()) > 0) ? OmrStep.lastParallel()
+                : target;
+        admissions = new Semaphore(Math.max(1, constants.maxPipelinedStubs.getValue()));
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //---------//
+    // endStub //
+    //---------//
+    /**
+     * Finish the processing of provided stub, perhaps swapping it out, and release its
+     * pipeline admission.
+     * <p>
+     * The stub is swapped out whether its processing succeeded or failed, so that failed sheets
+     * do not stay resident, unless it is the stub currently displayed.
+     *
+     * @param stub the processed stub
+     * @param ok   true if stub processing succeeded
+     */
+    private void endStub (SheetStub stub,
+                          boolean ok)
+    {
+        try {
+            LogUtil.start(stub);
+            stub.printWatch();
+
+            if (swap || (OMR.gui == null)) {
+                final SheetStub currentStub = (OMR.gui != null) ? StubsController.getCurrentStub()
+                        : null;
+
+                if (stub != currentStub) {
+                    stub.swapSheet(); // Save sheet & global book info to disk
+                }
+
+                if (ok) {
+                    logger.info("End of {}", stub);
+                } else {
+                    logger.info("End of failed {}", stub);
+                }
+            }
+        } catch (Exception ex) {
+            logger.warn("Error ending stub {}", ex.toString(), ex);
+        } finally {
+            LogUtil.stopStub();
+            admissions.release();
+        }
+    }
+
+    //---------//
+    // process //
+    //---------//
+    /**
+     * Process the provided stubs until target step.
+     *
+     * @param theStubs the valid selected stubs, in book order
+     * @return true if OK on all stubs
+     */
+    boolean process (List<SheetStub> theStubs)
+    {
+        final ExecutorService pool = OmrExecutors.getBookExecutor();
+        final boolean withLate = target != earlyStep;
+        final List<CompletableFuture<Boolean>> ends = new ArrayList<>();
+        CompletableFuture<Boolean> previousLate = CompletableFuture.completedFuture(true);
+
+        if (force || withLate) {
+            logger.info("Pipelined book processing, in parallel until {}", earlyStep);
+        }
+
+        for (SheetStub stub : theStubs) {
+            try {
+                admissions.acquire();
+            } catch (InterruptedException ex) {
+                logger.warn("Interrupted book processing");
+                someFailure.set(true);
+
+                break;
+            }
+
+            if (paused) {
+                admissions.release();
+
+                break;
+            }
+
+            final CompletableFuture<Boolean> early = CompletableFuture.supplyAsync(
+                    () -> reach(stub, earlyStep, force),
+                    pool);
+            final CompletableFuture<Boolean> last;
+
+            if (withLate) {
+                // Late phase needs the stub early phase to be OK.
+                // Like in serial processing, a failure on preceding stub (already recorded in
+                // someFailure) does not prevent processing of this stub.
+                last = early.thenCombineAsync(
+                        previousLate,
+                        (ok, prevOk) -> {
+                            if (!prevOk) {
+                                logger.debug("{} follows a failed stub", stub);
+                            }
+
+                            return ok && reach(stub, target, false);
+                        },
+                        pool);
+                previousLate = last;
+            } else {
+                last = early;
+            }
+
+            ends.add(last.whenComplete( (ok, ex) -> endStub(stub, (ex == null) && ok)));
+        }
+
+        try {
+            CompletableFuture.allOf(ends.toArray(new CompletableFuture[ends.size()])).join();
+        } catch (CompletionException ex) {
+            logger.warn("Error in pipelined book processing {}", ex.toString(), ex);
+            someFailure.set(true);
+        }
+
+        return !someFailure.get() && !paused;
+    }
+
+    //-------//
+    // reach //
+    //-------//
+    /**
+     * Make provided stub reach the provided step.
+     * <p>
+     * No exception is propagated, to keep the pipeline running for the other stubs.
+     *
+     * @param stub  the stub to process
+     * @param step  the step to reach
+     * @param force true to force processing
+     * @return true if OK
+     */
+    private boolean reach (SheetStub stub,
+                           OmrStep step,
+                           boolean force)
+    {
+        if (paused) {
+            return false;
+        }
+
+        LogUtil.start(stub);
+
+        try {
+            if (stub.reachStep(step, force)) {
+                return true;
+            }
+        } catch (StepPause ex) {
+            // Book pause required
+            // Stop processing for the other stubs
+            logger.info("Book processing stopped by user.");
+            paused = true;
+        } catch (ProcessingCancellationException ex) {
+            // Exception (such as timeout) raised on stub
+            // Let processing continue for the other stubs
+            logger.warn("Error processing stub");
+        } catch (Exception ex) {
+            // Exception raised on stub
+            // Let processing continue for the other stubs
+            logger.warn("Error processing stub {}", ex.toString(), ex);
+        } finally {
+            LogUtil.stopStub();
+        }
+
+        someFailure.set(true);
+
+        return false;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer maxPipelinedStubs = new Constant.Integer(
+                "stubs",
+                8,
+                "Maximum number of stubs processed at the same time in a book");
+    }
+}
@@ -21,9 +21,13 @@
 // </editor-fold>
 package org.audiveris.omr.sheet;
 
+import static org.audiveris.omr.sheet.Sheet.INTERNALS_RADIX;
+import org.audiveris.omr.util.ZipReadSession;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
@@ -69,7 +73,7 @@ public abstract class DataHolder<T>
     //---------------
 
     /** Direct access to data, if any. */
-    protected T data;
+    protected volatile T data;
 
     /** To avoid useless marshalling to disk. */
     protected boolean modified = false;
@@ -116,13 +120,38 @@ public abstract class DataHolder<T>
         // data is left untouched, to not disturb any view opened on this data
     }
 
+    //--------//
+    // encode //
+    //--------//
+    /**
+     * Encode the data into memory, if data is available and modified.
+     * <p>
+     * This method does not access the book file, it can thus be called on any thread, without
+     * book lock, to prepare a later {@link #storeData(Path, Path, byte[])}.
+     *
+     * @return the encoded data, or null if there is nothing to write
+     * @throws Exception if anything goes wrong
+     */
+    public byte[] encode ()
+        throws Exception
+    {
+        if (!hasDataReady() || !modified) {
+            return null;
+        }
+
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        store(os);
+
+        return os.toByteArray();
+    }
+
     //---------//
     // getData //
     //---------//
     /**
      * Return the handled data.
      *
-     * @param stub the related sheet stub instance (to use book lock)
+     * @param stub the related sheet stub instance (to use book read session)
      * @return the data, ready to use
      */
     public T getData (SheetStub stub)
@@ -132,40 +161,17 @@ public abstract class DataHolder<T>
                 return null;
             }
 
-            final Book book = stub.getBook();
-
-            try {
-                book.getLock().lock();
-
+            synchronized (this) {
                 if (data == null) {
+                    final Book book = stub.getBook();
+
                     if (book.getBookPath() != null) {
-                        // Open book file system
-                        Path path = book.openSheetFolder(stub.getNumber()).resolve(pathString);
-                        logger.debug("path: {}", path);
-
-                        if (Files.exists(path)) {
-                            try (InputStream is = Files.newInputStream(
-                                    path,
-                                    StandardOpenOption.READ)) {
-                                data = load(is);
-                                logger.debug("Loaded {}", path);
-                            }
-                        } else {
-                            logger.debug("No {}", path);
-                            hasNoData = true;
-                        }
-
-                        path.getFileSystem().close(); // Close book file system
-                        setModified(false);
+                        loadData(book, stub.getNumber());
                     } else {
                         logger.debug("No bookpath for{}", book);
                         hasNoData = true;
                     }
                 }
-            } catch (Exception ex) {
-                logger.warn("Error reading data from " + pathString, ex);
-            } finally {
-                book.getLock().unlock();
             }
         }
 
@@ -237,6 +243,46 @@ public abstract class DataHolder<T>
     protected abstract T load (InputStream is)
         throws Exception;
 
+    //----------//
+    // loadData //
+    //----------//
+    /**
+     * Load data from the book file, through the book shared read session.
+     *
+     * @param book   the containing book
+     * @param number sheet number within book
+     */
+    private void loadData (Book book,
+                           int number)
+    {
+        final ZipReadSession session = book.getReadSession();
+
+        try {
+            final Path root = session.acquire(book.getBookPath());
+
+            try {
+                final Path path = root.resolve(INTERNALS_RADIX + number).resolve(pathString);
+                logger.debug("path: {}", path);
+
+                if (Files.exists(path)) {
+                    try (InputStream is = Files.newInputStream(path, StandardOpenOption.READ)) {
+                        data = load(is);
+                        logger.debug("Loaded {}", path);
+                    }
+                } else {
+                    logger.debug("No {}", path);
+                    hasNoData = true;
+                }
+
+                setModified(false);
+            } finally {
+                session.release();
+            }
+        } catch (Exception ex) {
+            logger.warn("Error reading data from " + pathString, ex);
+        }
+    }
+
     //------------//
     // removeData //
     //------------//
@@ -323,6 +369,26 @@ public abstract class DataHolder<T>
      */
     public boolean storeData (Path sheetFolder,
                               Path oldSheetFolder)
+    {
+        return storeData(sheetFolder, oldSheetFolder, null);
+    }
+
+    //-----------//
+    // storeData //
+    //-----------//
+    /**
+     * Store data to book project file, using data already encoded if any.
+     * <p>
+     * NOTA: This method assumes the containing book is properly locked.
+     *
+     * @param sheetFolder    path to sheet folder
+     * @param oldSheetFolder (optional) path to previous sheet folder for retrieval
+     * @param encoded        (optional) data as already encoded by {@link #encode()}
+     * @return true if OK
+     */
+    public boolean storeData (Path sheetFolder,
+                              Path oldSheetFolder,
+                              byte[] encoded)
     {
         final Path path = sheetFolder.resolve(pathString);
         boolean ok = true;
@@ -342,7 +408,12 @@ public abstract class DataHolder<T>
                 Files.deleteIfExists(path);
 
                 try (OutputStream os = Files.newOutputStream(path, CREATE);) {
-                    store(os);
+                    if (encoded != null) {
+                        os.write(encoded);
+                    } else {
+                        store(os);
+                    }
+
                     os.flush();
                     setModified(false);
                     logger.info("Stored {}", path);
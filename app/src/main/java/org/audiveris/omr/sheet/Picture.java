@@ -57,6 +57,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
 import java.awt.image.SampleModel;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
@@ -64,6 +65,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentSkipListMap;
 
@@ -487,6 +489,41 @@ public class Picture
         logger.info(sb.toString());
     }
 
+    //--------------//
+    // encodeImages //
+    //--------------//
+    /**
+     * Encode in memory the images to be stored, that is the images both available and modified.
+     * <p>
+     * This does not access the book file and can be run on any thread, to prepare a later
+     * {@link #store(Path, Path, Map)}.
+     *
+     * @return the encoded images, perhaps empty
+     */
+    public Map<ImageKey, byte[]> encodeImages ()
+    {
+        final Map<ImageKey, byte[]> encodings = new EnumMap<>(ImageKey.class);
+
+        for (Entry<ImageKey, ImageHolder> entry : images.entrySet()) {
+            final ImageHolder holder = entry.getValue();
+
+            if (!holder.isDiscarded()) {
+                try {
+                    final byte[] bytes = holder.encode();
+
+                    if (bytes != null) {
+                        encodings.put(entry.getKey(), bytes);
+                    }
+                } catch (Exception ex) {
+                    // Image will be encoded again when stored
+                    logger.warn("Error encoding {} {}", entry.getKey(), ex.toString(), ex);
+                }
+            }
+        }
+
+        return encodings;
+    }
+
     //------------------//
     // gaussianFiltered //
     //------------------//
@@ -516,6 +553,47 @@ public class Picture
         }
     }
 
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Report an approximate memory footprint of the picture data currently held in memory
+     * (images, sources and run tables).
+     *
+     * @return the approximate number of bytes
+     */
+    public long getFootprint ()
+    {
+        long bytes = 0;
+
+        for (ImageHolder holder : images.values()) {
+            if (holder.hasDataReady()) {
+                final DataBuffer buffer = holder.getData(sheet.getStub()).getRaster()
+                        .getDataBuffer();
+                bytes += ((long) buffer.getSize() * buffer.getNumBanks()
+                        * DataBuffer.getDataTypeSize(buffer.getDataType())) / 8;
+            }
+        }
+
+        for (SourceKey key : sources.keySet()) {
+            final ByteProcessor src = getStrongRef(key);
+
+            if (src != null) {
+                bytes += (long) src.getWidth() * src.getHeight();
+            }
+        }
+
+        for (TableKey key : tables.keySet()) {
+            final RunTable table = getStrongRef(key);
+
+            if (table != null) {
+                bytes += table.getFootprint();
+            }
+        }
+
+        return bytes;
+    }
+
     //--------------//
     // getGrayImage //
     //--------------//
@@ -1029,6 +1107,23 @@ public class Picture
      */
     public void store (Path sheetFolder,
                        Path oldSheetFolder)
+    {
+        store(sheetFolder, oldSheetFolder, null);
+    }
+
+    //-------//
+    // store //
+    //-------//
+    /**
+     * Store the picture images, using images already encoded if any.
+     *
+     * @param sheetFolder    target sheet folder
+     * @param oldSheetFolder optional source sheet folder (or null)
+     * @param encodings      optional images already encoded by {@link #encodeImages()}
+     */
+    public void store (Path sheetFolder,
+                       Path oldSheetFolder,
+                       Map<ImageKey, byte[]> encodings)
     {
         // Each handled image
         for (Iterator<Entry<ImageKey, ImageHolder>> it = images.entrySet().iterator(); it
@@ -1040,7 +1135,8 @@ public class Picture
             if (holder.isDiscarded()) {
                 holder.removeData(sheetFolder);
             } else {
-                boolean ok = holder.storeData(sheetFolder, oldSheetFolder);
+                final byte[] encoded = (encodings != null) ? encodings.get(iKey) : null;
+                boolean ok = holder.storeData(sheetFolder, oldSheetFolder, encoded);
 
                 if (ok) {
                     // Delete corresponding old table if any
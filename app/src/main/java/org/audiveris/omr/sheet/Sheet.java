@@ -24,6 +24,7 @@ package org.audiveris.omr.sheet;
 import org.audiveris.omr.OMR;
 import org.audiveris.omr.classifier.Annotations;
 import org.audiveris.omr.classifier.AnnotationsBuilder;
+import org.audiveris.omr.classifier.EvaluationCache;
 import org.audiveris.omr.classifier.SampleRepository;
 import org.audiveris.omr.classifier.SampleSheet;
 import org.audiveris.omr.constant.Constant;
@@ -35,6 +36,7 @@ import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.glyph.dynamic.FilamentIndex;
 import org.audiveris.omr.glyph.ui.GlyphsController;
 import org.audiveris.omr.image.ImageFormatException;
+import org.audiveris.omr.lag.Lag;
 import org.audiveris.omr.lag.LagManager;
 import org.audiveris.omr.lag.Lags;
 import org.audiveris.omr.run.RunTable;
@@ -85,6 +87,7 @@ import org.slf4j.LoggerFactory;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -97,6 +100,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -224,6 +228,9 @@ public class Sheet
     /** Dictionary of sheet lags. */
     private LagManager lagManager;
 
+    /** Classifier evaluations already computed on sheet glyphs. */
+    private final EvaluationCache evaluationCache = new EvaluationCache();
+
     /** For time measurement. */
     private StopWatch watch;
 
@@ -711,6 +718,36 @@ public class Sheet
         System.out.println("--- SystemInfos end ---");
     }
 
+    //--------//
+    // encode //
+    //--------//
+    /**
+     * Encode in memory the sheet internals to be stored, that is the modified picture images
+     * and the sheet structure.
+     * <p>
+     * This method does not access the book file, hence several sheets can be encoded in
+     * parallel, before being written one after the other via {@link #store(Path, Path, Encoding)}.
+     *
+     * @return the sheet encoding
+     */
+    public Encoding encode ()
+    {
+        final Map<Picture.ImageKey, byte[]> images = (picture != null) ? picture.encodeImages()
+                : null;
+        byte[] structure = null;
+
+        try {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            Jaxb.marshal(this, os, getJaxbContext());
+            structure = os.toByteArray();
+        } catch (JAXBException | XMLStreamException ex) {
+            // Structure will be marshalled again when stored
+            logger.warn("Error in encoding sheet structure " + ex, ex);
+        }
+
+        return new Encoding(images, structure);
+    }
+
     //--------//
     // export //
     //--------//
@@ -800,6 +837,19 @@ public class Sheet
         return errorsEditor;
     }
 
+    //--------------------//
+    // getEvaluationCache //
+    //--------------------//
+    /**
+     * Report the cache of classifier evaluations on glyphs of this sheet.
+     *
+     * @return the evaluation cache
+     */
+    public EvaluationCache getEvaluationCache ()
+    {
+        return evaluationCache;
+    }
+
     //------------------//
     // getFilamentIndex //
     //------------------//
@@ -817,6 +867,53 @@ public class Sheet
         return filamentIndex;
     }
 
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Report an approximate memory footprint of this sheet, based on picture data and on
+     * the number of sections, glyphs and inters currently held.
+     * <p>
+     * Data not yet loaded is not loaded by this method.
+     *
+     * @return the approximate number of bytes
+     */
+    public long getFootprint ()
+    {
+        long bytes = 0;
+
+        if (picture != null) {
+            bytes += picture.getFootprint();
+        }
+
+        if (lagManager != null) {
+            for (Lag lag : lagManager.getAllLags()) {
+                if (lag != null) {
+                    bytes += (long) constants.sectionFootprint.getValue()
+                            * lag.getEntities().size();
+
+                    final RunTable table = lag.getRunTable();
+
+                    if (table != null) {
+                        bytes += table.getFootprint();
+                    }
+                }
+            }
+        }
+
+        if (glyphIndex != null) {
+            bytes += (long) constants.glyphFootprint.getValue()
+                    * glyphIndex.getEntities().size();
+        }
+
+        if (interIndex != null) {
+            bytes += (long) constants.interFootprint.getValue()
+                    * interIndex.getEntities().size();
+        }
+
+        return bytes;
+    }
+
     //---------------//
     // getGlyphIndex //
     //---------------//
@@ -1378,6 +1475,10 @@ public class Sheet
                 sheetEditor = null;
         }
 
+        // Glyphs may be rebuilt and classifier retrained in the meantime
+        logger.debug("{} {}", step, evaluationCache);
+        evaluationCache.clear();
+
         // Clear errors and history for this step
         if (OMR.gui != null) {
             getErrorsEditor().clearStep(step);
@@ -1556,6 +1657,23 @@ public class Sheet
      */
     public void store (Path sheetFolder,
                        Path oldSheetFolder)
+    {
+        store(sheetFolder, oldSheetFolder, null);
+    }
+
+    //-------//
+    // store //
+    //-------//
+    /**
+     * Store sheet internals into book file system, using material already encoded if any.
+     *
+     * @param sheetFolder    path of sheet folder in (new) book file
+     * @param oldSheetFolder path of sheet folder in old book file, if any
+     * @param encoding       sheet material already encoded by {@link #encode()}, if any
+     */
+    public void store (Path sheetFolder,
+                       Path oldSheetFolder,
+                       Encoding encoding)
     {
         // Picture internals, if any
         if (picture != null) {
@@ -1564,7 +1682,10 @@ public class Sheet
                 Files.createDirectories(sheetFolder);
 
                 // Save picture images (and remove tables if any)
-                picture.store(sheetFolder, oldSheetFolder);
+                picture.store(
+                        sheetFolder,
+                        oldSheetFolder,
+                        (encoding != null) ? encoding.images : null);
             } catch (IOException ex) {
                 logger.warn("IOException on storing " + this, ex);
             }
@@ -1576,7 +1697,11 @@ public class Sheet
             Files.deleteIfExists(structurePath);
             Files.createDirectories(sheetFolder);
 
-            Jaxb.marshal(this, structurePath, getJaxbContext());
+            if ((encoding != null) && (encoding.structure != null)) {
+                Files.write(structurePath, encoding.structure);
+            } else {
+                Jaxb.marshal(this, structurePath, getJaxbContext());
+            }
 
             stub.setModified(false);
             stub.setUpgraded(false);
@@ -1608,7 +1733,7 @@ public class Sheet
     //----------------//
     // getJaxbContext //
     //----------------//
-    public static JAXBContext getJaxbContext ()
+    public static synchronized JAXBContext getJaxbContext ()
         throws JAXBException
     {
         // Lazy creation
@@ -1702,6 +1827,43 @@ public class Sheet
         private final Constant.Boolean useUnmarshalLogger = new Constant.Boolean(
                 false,
                 "Should we log every sheet unmarshalling?");
+
+        private final Constant.Integer sectionFootprint = new Constant.Integer(
+                "bytes",
+                200,
+                "Approximate memory footprint of one section");
+
+        private final Constant.Integer glyphFootprint = new Constant.Integer(
+                "bytes",
+                500,
+                "Approximate memory footprint of one glyph");
+
+        private final Constant.Integer interFootprint = new Constant.Integer(
+                "bytes",
+                400,
+                "Approximate memory footprint of one inter, with its relations");
+    }
+
+    //----------//
+    // Encoding //
+    //----------//
+    /**
+     * Sheet material encoded in memory, ready to be written to book file.
+     */
+    public static class Encoding
+    {
+        /** Encoded picture images, if any. */
+        private final Map<Picture.ImageKey, byte[]> images;
+
+        /** Encoded sheet structure, if any. */
+        private final byte[] structure;
+
+        Encoding (Map<Picture.ImageKey, byte[]> images,
+                  byte[] structure)
+        {
+            this.images = images;
+            this.structure = structure;
+        }
     }
 
     //-----------//
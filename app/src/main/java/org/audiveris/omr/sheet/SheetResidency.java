@@ -0,0 +1,281 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   S h e e t R e s i d e n c y                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Class <code>SheetResidency</code> keeps the sheets resident in memory within a heap budget.
+ * <p>
+ * Each stub whose sheet gets loaded is registered here.
+ * When the cumulated (approximate) footprint of resident sheets exceeds the budget, the least
+ * recently used stubs are swapped out in the background, until the footprint gets back within
+ * budget.
+ * <p>
+ * A stub is never evicted while it is being processed (its processing lock is held), nor while its
+ * sheet is pinned (see {@link SheetStub#pinSheet}).
+ * <p>
+ * This is the default eviction path in batch mode.
+ * It is disabled in interactive mode, since many GUI actions (board updates, editors, selections)
+ * use the sheet of a displayed stub without pinning it, and an evicted sheet would silently drop
+ * the user edits made in the meantime. There, sheets are swapped out only on explicit user action.
+ * <p>
+ * No garbage collection is explicitly triggered, the JVM reclaims the disposed sheets at its own
+ * pace.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class SheetResidency
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(SheetResidency.class);
+
+    private static final long MEGA = 1024L * 1024L;
+
+    /** Stubs whose sheet is (or was recently) resident. */
+    private static final Set<SheetStub> residents = ConcurrentHashMap.newKeySet();
+
+    /** To avoid concurrent eviction tasks. */
+    private static final AtomicBoolean evicting = new AtomicBoolean();
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /** Not meant to be instantiated. */
+    private SheetResidency ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-------------//
+    // checkBudget //
+    //-------------//
+    /**
+     * Check resident sheets against the heap budget, and launch a background eviction
+     * if needed.
+     * <p>
+     * This method returns immediately.
+     */
+    public static void checkBudget ()
+    {
+        if (!constants.useResidencyBudget.isSet() || (OMR.gui != null) || residents.size() <= 1) {
+            return;
+        }
+
+        if (evicting.compareAndSet(false, true)) {
+            try {
+                OmrExecutors.getCachedLowExecutor().submit( () -> {
+                    try {
+                        evict();
+                    } catch (Exception ex) {
+                        logger.warn("Error evicting sheets {}", ex.toString(), ex);
+                    } finally {
+                        evicting.set(false);
+                    }
+                });
+            } catch (Exception ex) {
+                evicting.set(false);
+                logger.debug("Could not launch sheets eviction {}", ex.toString());
+            }
+        }
+    }
+
+    //----------//
+    // disposed //
+    //----------//
+    /**
+     * Notify that the sheet of provided stub has been disposed of.
+     *
+     * @param stub the stub whose sheet is no longer resident
+     */
+    static void disposed (SheetStub stub)
+    {
+        residents.remove(stub);
+    }
+
+    //-------//
+    // evict //
+    //-------//
+    /**
+     * Swap out the least recently used sheets, until resident footprint fits in budget.
+     */
+    private static void evict ()
+    {
+        final long budget = getBudget();
+        final List<SheetStub> candidates = new ArrayList<>();
+        long total = 0;
+
+        for (SheetStub stub : residents) {
+            final Sheet sheet = stub.peekSheet();
+
+            if (sheet == null) {
+                residents.remove(stub);
+            } else {
+                total += footprintOf(sheet);
+                candidates.add(stub);
+            }
+        }
+
+        logger.debug(
+                "Resident sheets: {} footprint: {} MB budget: {} MB",
+                candidates.size(),
+                total / MEGA,
+                budget / MEGA);
+
+        if (total <= budget) {
+            return;
+        }
+
+        candidates.sort(Comparator.comparingLong(SheetStub::getLastAccess));
+
+        for (SheetStub stub : candidates) {
+            if (total <= budget) {
+                break;
+            }
+
+            final Lock lock = stub.getLock();
+
+            if (!lock.tryLock()) {
+                continue; // Stub being processed
+            }
+
+            try {
+                // Storing the sheet needs the book lock, which a pinning thread may hold
+                final Lock bookLock = stub.getBook().getLock();
+
+                if (!bookLock.tryLock()) {
+                    continue;
+                }
+
+                try {
+                    if (!stub.claimEviction()) {
+                        continue; // Sheet pinned
+                    }
+
+                    try {
+                        final Sheet sheet = stub.peekSheet();
+
+                        if (sheet != null) {
+                            final long footprint = footprintOf(sheet);
+                            logger.info("{} evicted, about {} MB", stub, footprint / MEGA);
+                            stub.swapSheet();
+                            total -= footprint;
+                        }
+                    } finally {
+                        stub.releaseEviction();
+                    }
+                } finally {
+                    bookLock.unlock();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    //-------------//
+    // footprintOf //
+    //-------------//
+    private static long footprintOf (Sheet sheet)
+    {
+        try {
+            return sheet.getFootprint();
+        } catch (Exception ex) {
+            // Sheet is being modified concurrently, its footprint is just not available
+            logger.debug("No footprint for {} {}", sheet, ex.toString());
+
+            return 0;
+        }
+    }
+
+    //-----------//
+    // getBudget //
+    //-----------//
+    /**
+     * Report the heap budget allocated to resident sheets.
+     *
+     * @return the budget, in bytes
+     */
+    public static long getBudget ()
+    {
+        final int megas = constants.heapBudget.getValue();
+
+        if (megas > 0) {
+            return megas * MEGA;
+        }
+
+        return (long) (Runtime.getRuntime().maxMemory() * constants.heapRatio.getValue());
+    }
+
+    //--------//
+    // loaded //
+    //--------//
+    /**
+     * Notify that the sheet of provided stub is now resident.
+     *
+     * @param stub the stub whose sheet has just been loaded
+     */
+    static void loaded (SheetStub stub)
+    {
+        residents.add(stub);
+        checkBudget();
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Boolean useResidencyBudget = new Constant.Boolean(
+                true,
+                "Should we swap out least recently used sheets beyond heap budget (batch only)?");
+
+        private final Constant.Integer heapBudget = new Constant.Integer(
+                "MB",
+                0,
+                "Heap budget for resident sheets (0 for a ratio of max heap)");
+
+        private final Constant.Ratio heapRatio = new Constant.Ratio(
+                0.5,
+                "Ratio of max heap used as budget for resident sheets, when no budget is set");
+    }
+}
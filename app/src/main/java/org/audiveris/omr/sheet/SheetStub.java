@@ -29,6 +29,7 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.image.FilterDescriptor;
 import org.audiveris.omr.image.FilterParam;
 import org.audiveris.omr.image.ImageLoading;
+import org.audiveris.omr.image.LoaderCache;
 import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.run.RunTable;
 import org.audiveris.omr.score.Page;
@@ -53,12 +54,12 @@ import org.audiveris.omr.ui.symbol.MusicFamily;
 import org.audiveris.omr.ui.symbol.TextFamily;
 import org.audiveris.omr.util.FileUtil;
 import org.audiveris.omr.util.Jaxb;
-import org.audiveris.omr.util.Memory;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.StopWatch;
 import org.audiveris.omr.util.Version;
 import org.audiveris.omr.util.ZipFileSystem;
+import org.audiveris.omr.util.ZipReadSession;
 import org.audiveris.omr.util.param.IntegerParam;
 import org.audiveris.omr.util.param.Param;
 import org.audiveris.omr.util.param.StringParam;
@@ -189,6 +190,15 @@ public class SheetStub
     /** Full sheet material, if any. */
     private volatile Sheet sheet;
 
+    /** Time of latest access to sheet material, for residency management. */
+    private volatile long lastAccess;
+
+    /** Count of pins on sheet material, or -1 while sheet is being evicted. */
+    private int pins;
+
+    /** Monitor for pins. */
+    private final Object pinMonitor = new Object();
+
     /** The step being performed on the sheet. */
     private volatile OmrStep currentStep;
 
@@ -357,6 +367,30 @@ public class SheetStub
         }
     }
 
+    //---------------//
+    // claimEviction //
+    //---------------//
+    /**
+     * Try to claim this stub for eviction of its sheet.
+     * <p>
+     * This succeeds only if sheet is not pinned. Until {@link #releaseEviction} is called, any
+     * {@link #pinSheet} call will wait.
+     *
+     * @return true if claimed
+     */
+    boolean claimEviction ()
+    {
+        synchronized (pinMonitor) {
+            if (pins != 0) {
+                return false;
+            }
+
+            pins = -1;
+
+            return true;
+        }
+    }
+
     //---------------//
     // clearPageRefs //
     //---------------//
@@ -520,6 +554,9 @@ public class SheetStub
                 logger.debug("calling storeSheet");
                 storeSheet();
             }
+
+            // Sheet footprint may have grown
+            SheetResidency.checkBudget();
         } catch (TimeoutException tex) {
             logger.warn("Timeout {} seconds for step {}", timeout, step, tex);
 
@@ -763,6 +800,19 @@ public class SheetStub
         return latest;
     }
 
+    //---------------//
+    // getLastAccess //
+    //---------------//
+    /**
+     * Report the time of latest access to sheet material.
+     *
+     * @return latest access time, as a System.nanoTime() value
+     */
+    long getLastAccess ()
+    {
+        return lastAccess;
+    }
+
     //---------//
     // getLock //
     //---------//
@@ -925,11 +975,16 @@ public class SheetStub
     //----------//
     /**
      * Make sure the sheet material is in memory.
+     * <p>
+     * Outside of step processing (where stub lock is held), a caller that keeps using the sheet
+     * should rather use {@link #pinSheet}, to prevent its eviction by {@link SheetResidency}.
      *
      * @return the sheet ready to use
      */
     public Sheet getSheet ()
     {
+        lastAccess = System.nanoTime();
+
         if (sheet != null) {
             return sheet;
         }
@@ -944,7 +999,10 @@ public class SheetStub
             if (!isDone(OmrStep.LOAD)) {
                 // LOAD not yet performed: load from book image file
                 try {
-                    return sheet = new Sheet(this, null, false);
+                    sheet = new Sheet(this, null, false);
+                    SheetResidency.loaded(this);
+
+                    return sheet;
                 } catch (StepException ignored) {
                     logger.info("Could not load sheet for stub {}", this);
                     return null;
@@ -962,10 +1020,12 @@ public class SheetStub
                 final Path sheetFile;
                 watch.start("unmarshal");
 
-                // Open the book file system
+                // Read from the shared book file system
+                final ZipReadSession session = book.getReadSession();
+                final Path root = session.acquire(book.getBookPath());
+
                 try {
-                    book.getLock().lock();
-                    sheetFile = book.openSheetFolder(number).resolve(
+                    sheetFile = root.resolve(INTERNALS_RADIX + number).resolve(
                             Sheet.getSheetFileName(number));
 
                     try (InputStream is = Files.newInputStream(
@@ -973,16 +1033,15 @@ public class SheetStub
                             StandardOpenOption.READ)) {
                         sheet = Sheet.unmarshal(is);
                     }
-
-                    sheetFile.getFileSystem().close();
                 } finally {
-                    book.getLock().unlock();
+                    session.release();
                 }
 
                 // Complete sheet reload
                 watch.start("afterReload");
                 sheet.afterReload(this);
                 setVersionValue(WellKnowns.TOOL_REF); // Sheet is now OK WRT tool version
+                SheetResidency.loaded(this);
 
                 if (OMR.gui != null) {
                     StubsController.getInstance().markTab(
@@ -1249,6 +1308,8 @@ public class SheetStub
     //---------------//
     /**
      * Actually load the image that corresponds to this sheet stub.
+     * <p>
+     * The input file loader is shared with the other sheets of the same input file.
      *
      * @return the loaded sheet image
      */
@@ -1263,23 +1324,25 @@ public class SheetStub
                 return null;
             }
 
-            final ImageLoading.Loader loader = ImageLoading.getLoader(si.path);
+            final ImageLoading.Loader loader = LoaderCache.getInstance().acquire(si.path);
 
             if (loader == null) {
                 return null;
             }
 
-            final BufferedImage img = loader.getImage(si.number);
-            logger.info(
-                    "Loaded image #{} {}x{} from {}",
-                    si.number,
-                    img.getWidth(),
-                    img.getHeight(),
-                    si.path);
-
-            loader.dispose();
-
-            return img;
+            try {
+                final BufferedImage img = loader.getImage(si.number);
+                logger.info(
+                        "Loaded image #{} {}x{} from {}",
+                        si.number,
+                        img.getWidth(),
+                        img.getHeight(),
+                        si.path);
+
+                return img;
+            } finally {
+                loader.dispose();
+            }
         } catch (IOException ex) {
             logger.warn("Error in SheetStub.loadGrayImage", ex);
 
@@ -1326,6 +1389,56 @@ public class SheetStub
         }
     }
 
+    //-----------//
+    // peekSheet //
+    //-----------//
+    /**
+     * Report the sheet material if it is resident, without loading it.
+     *
+     * @return the resident sheet, or null
+     */
+    Sheet peekSheet ()
+    {
+        return sheet;
+    }
+
+    //----------//
+    // pinSheet //
+    //----------//
+    /**
+     * Report the sheet material, loading it if needed, and pin it in memory.
+     * <p>
+     * A pinned sheet is never evicted by {@link SheetResidency}.
+     * Every call must be balanced by a call to {@link #unpinSheet}, typically in a finally clause,
+     * even if the returned sheet is null.
+     *
+     * @return the sheet, perhaps null
+     */
+    public Sheet pinSheet ()
+    {
+        synchronized (pinMonitor) {
+            while (pins < 0) {
+                try {
+                    pinMonitor.wait(); // Sheet being evicted
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+
+                    throw new ProcessingCancellationException(ex);
+                }
+            }
+
+            pins++;
+        }
+
+        try {
+            return getSheet();
+        } catch (RuntimeException | Error ex) {
+            unpinSheet();
+
+            throw ex;
+        }
+    }
+
     //------------//
     // printWatch //
     //------------//
@@ -1431,6 +1544,20 @@ public class SheetStub
         return ok;
     }
 
+    //-----------------//
+    // releaseEviction //
+    //-----------------//
+    /**
+     * Release the eviction claim on this stub.
+     */
+    void releaseEviction ()
+    {
+        synchronized (pinMonitor) {
+            pins = 0;
+            pinMonitor.notifyAll();
+        }
+    }
+
     //---------------//
     // removePageRef //
     //---------------//
@@ -1457,6 +1584,7 @@ public class SheetStub
         try {
             BufferedImage img = loadGrayImage();
             sheet = new Sheet(this, img, true);
+            SheetResidency.loaded(this);
             logger.info("Sheet#{} reset as valid.", number);
             display();
         } catch (Exception ex) {
@@ -1478,6 +1606,7 @@ public class SheetStub
             if (binaryTable != null) {
                 doReset();
                 sheet = new Sheet(this, binaryTable);
+                SheetResidency.loaded(this);
                 logger.info("Sheet#{} reset to binary.", number);
                 display();
             } else {
@@ -1502,6 +1631,7 @@ public class SheetStub
             if (img != null) {
                 doReset();
                 sheet = new Sheet(this, img, true);
+                SheetResidency.loaded(this);
                 logger.info("Sheet#{} reset to gray.", number);
                 display();
             } else {
@@ -1616,6 +1746,9 @@ public class SheetStub
     //------------//
     /**
      * Store sheet material into book.
+     * <p>
+     * Sheet material is encoded in memory before the book gets locked, so that only the actual
+     * writing to book file is serialized among sheets.
      *
      * @throws Exception if storing fails
      */
@@ -1623,8 +1756,10 @@ public class SheetStub
         throws Exception
     {
         if (isModified() || isUpgraded()) {
+            final Sheet.Encoding encoding = sheet.encode();
             final Lock bookLock = book.getLock();
             bookLock.lock();
+            book.getReadSession().lockForWrite();
 
             try {
                 Path bookPath = BookManager.getDefaultSavePath(book);
@@ -1632,9 +1767,10 @@ public class SheetStub
                 book.storeBookInfo(root); // Book info (book.xml)
 
                 Path sheetFolder = root.resolve(INTERNALS_RADIX + getNumber());
-                sheet.store(sheetFolder, null);
+                sheet.store(sheetFolder, null, encoding);
                 root.getFileSystem().close();
             } finally {
+                book.getReadSession().unlockForWrite();
                 bookLock.unlock();
             }
         }
@@ -1658,8 +1794,9 @@ public class SheetStub
 
             if (sheet != null) {
                 logger.info("Disposed sheet{}", sheet.getStub().getNum());
+                sheet.getEvaluationCache().clear();
                 sheet = null;
-                Memory.gc(); // Trigger a garbage collection...
+                SheetResidency.disposed(this); // No explicit GC, JVM will reclaim at its pace
             }
 
             if (OMR.gui != null) {
@@ -1702,6 +1839,21 @@ public class SheetStub
         return reachStep(OmrStep.last(), false);
     }
 
+    //------------//
+    // unpinSheet //
+    //------------//
+    /**
+     * Release a pin previously obtained by {@link #pinSheet}.
+     */
+    public void unpinSheet ()
+    {
+        synchronized (pinMonitor) {
+            if (pins > 0) {
+                pins--;
+            }
+        }
+    }
+
     //-------------------//
     // upgradeParameters //
     //-------------------//
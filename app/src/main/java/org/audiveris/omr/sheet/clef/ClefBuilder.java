@@ -65,6 +65,7 @@ import static org.audiveris.omr.util.HorizontalSide.RIGHT;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.VerticalSide;
 
+import org.jgrapht.Graph;
 import org.jgrapht.alg.connectivity.ConnectivityInspector;
 import org.jgrapht.graph.SimpleGraph;
 
@@ -246,7 +247,7 @@ public class ClefBuilder
 
         for (Set<Glyph> set : sets) {
             // Use only the subgraph for this set
-            SimpleGraph<Glyph, GlyphLink> subGraph = GlyphCluster.getSubGraph(set, graph, false);
+            Graph<Glyph, GlyphLink> subGraph = GlyphCluster.getSubGraph(set, graph);
             ClefAdapter adapter = new ClefAdapter(subGraph, bestMap);
             new GlyphCluster(adapter, null).decompose();
 
@@ -543,7 +544,7 @@ public class ClefBuilder
         /** Best inter per clef kind. */
         private final Map<ClefKind, ClefInter> bestMap;
 
-        ClefAdapter (SimpleGraph<Glyph, GlyphLink> graph,
+        ClefAdapter (Graph<Glyph, GlyphLink> graph,
                      Map<ClefKind, ClefInter> bestMap)
         {
             super(graph);
@@ -564,6 +565,7 @@ public class ClefBuilder
 
             Evaluation[] evals = classifier.evaluate(
                     glyph,
+                    sheet,
                     staff.getSpecificInterline(),
                     params.maxEvalRank,
                     Grades.clefMinGrade / Grades.intrinsicRatio,
@@ -164,53 +164,57 @@ public class ClumpPruner
 
         SystemLoop:
         for (SystemInfo system : systems) {
-            final List<Inter> sysChords = system.getSig().inters(HeadChordInter.class);
-            final ClumpLinker linker = new ClumpLinker(system, clump, bounds, sysChords);
-
-            // Select the slur with best chord links, if any
-            SlurEntry selected = linker.selectSlur(areas);
-
-            if (selected != null) {
-                // Either linked head may have a mirror head, so select proper head for tie.
-                // NOTA: It is a bit early to check for a tie, since for instance clef changes or
-                // head alterations are not yet available, but ties are here set for the sake of
-                // tie collision which will trigger chord splitting.
-                // Ties will be (re-)checked again at end of LINKS step.
-                SlurHeadLink leftLink = selected.links.get(LEFT);
-                HeadInter leftHead = (leftLink != null) ? (HeadInter) leftLink.partner : null;
-
-                SlurHeadLink rightLink = selected.links.get(RIGHT);
-                HeadInter rightHead = (rightLink != null) ? (HeadInter) rightLink.partner : null;
-
-                if ((leftHead != null) && (rightHead != null)) {
-                    final HeadInter leftMirror = (HeadInter) leftHead.getMirror();
-                    final HeadInter rightMirror = (HeadInter) rightHead.getMirror();
-
-                    if ((leftHead.getIntegerPitch() == rightHead.getIntegerPitch()) && (leftHead
-                            .getStaff() == rightHead.getStaff())) {
-                        final SlurInter slur = selected.slur;
-
-                        // Check there is no other chords in between
-                        if (slur.isSpaceClear(leftHead, rightHead, sysChords)) {
-                            slur.setTie(true);
-                        } else if (slur.isSpaceClear(leftMirror, rightHead, sysChords)) {
-                            slur.setTie(true);
-                            switchMirrorHead(selected, LEFT);
-                        } else if (slur.isSpaceClear(leftHead, rightMirror, sysChords)) {
-                            slur.setTie(true);
-                            switchMirrorHead(selected, RIGHT);
-                        } else if (slur.isSpaceClear(leftMirror, rightMirror, sysChords)) {
-                            slur.setTie(true);
-                            switchMirrorHead(selected, LEFT);
-                            switchMirrorHead(selected, RIGHT);
+            // Other systems may be processed concurrently, each on its own SIG
+            synchronized (system.getSig()) {
+                final List<Inter> sysChords = system.getSig().inters(HeadChordInter.class);
+                final ClumpLinker linker = new ClumpLinker(system, clump, bounds, sysChords);
+
+                // Select the slur with best chord links, if any
+                SlurEntry selected = linker.selectSlur(areas);
+
+                if (selected != null) {
+                    // Either linked head may have a mirror head, so select proper head for tie.
+                    // NOTA: It is a bit early to check for a tie, since for instance clef changes
+                    // or head alterations are not yet available, but ties are here set for the
+                    // sake of tie collision which will trigger chord splitting.
+                    // Ties will be (re-)checked again at end of LINKS step.
+                    SlurHeadLink leftLink = selected.links.get(LEFT);
+                    HeadInter leftHead = (leftLink != null) ? (HeadInter) leftLink.partner : null;
+
+                    SlurHeadLink rightLink = selected.links.get(RIGHT);
+                    HeadInter rightHead = (rightLink != null) ? (HeadInter) rightLink.partner
+                            : null;
+
+                    if ((leftHead != null) && (rightHead != null)) {
+                        final HeadInter leftMirror = (HeadInter) leftHead.getMirror();
+                        final HeadInter rightMirror = (HeadInter) rightHead.getMirror();
+
+                        if ((leftHead.getIntegerPitch() == rightHead.getIntegerPitch()) && (leftHead
+                                .getStaff() == rightHead.getStaff())) {
+                            final SlurInter slur = selected.slur;
+
+                            // Check there is no other chords in between
+                            if (slur.isSpaceClear(leftHead, rightHead, sysChords)) {
+                                slur.setTie(true);
+                            } else if (slur.isSpaceClear(leftMirror, rightHead, sysChords)) {
+                                slur.setTie(true);
+                                switchMirrorHead(selected, LEFT);
+                            } else if (slur.isSpaceClear(leftHead, rightMirror, sysChords)) {
+                                slur.setTie(true);
+                                switchMirrorHead(selected, RIGHT);
+                            } else if (slur.isSpaceClear(leftMirror, rightMirror, sysChords)) {
+                                slur.setTie(true);
+                                switchMirrorHead(selected, LEFT);
+                                switchMirrorHead(selected, RIGHT);
+                            }
                         }
                     }
-                }
 
-                // Put everything into sig
-                linker.doLink(selected);
+                    // Put everything into sig
+                    linker.doLink(selected);
 
-                return selected.slur;
+                    return selected.slur;
+                }
             }
         }
 
@@ -24,15 +24,23 @@ package org.audiveris.omr.sheet.curve;
 import org.audiveris.omr.OMR;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.log.LogUtil;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.sheet.Picture;
 import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sheet.SystemManager;
 import org.audiveris.omr.sheet.ui.ImageView;
 import org.audiveris.omr.sheet.ui.PixelBoard;
 import org.audiveris.omr.sheet.ui.ScrollImageView;
 import org.audiveris.omr.sig.inter.SegmentInter;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.ui.BoardsPane;
+import org.audiveris.omr.ui.action.AdvancedTopics;
 import org.audiveris.omr.ui.util.ItemRenderer;
 import org.audiveris.omr.util.IntUtil;
 import org.audiveris.omr.util.Navigable;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.StopWatch;
 
 import org.slf4j.Logger;
@@ -41,10 +49,17 @@ import org.slf4j.LoggerFactory;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Class <code>Curves</code> is the platform used to handle several kinds of curves (slurs,
@@ -52,6 +67,11 @@ import java.util.Set;
  * <p>
  * We have to visit each pixel of the buffer, detect junction points and arcs departing or arriving
  * at junction points.
+ * <p>
+ * Slurs and segments are built system per system, concurrently when systems are processed in
+ * parallel (see {@link AdvancedTopics#processSystemsInParallel()}).
+ * Arcs not contained by a single system are processed afterwards, in a final serial pass, as well
+ * as all the page-level reconciliations (such as orphan slurs connected across systems).
  *
  * @author Hervé Bitteur
  */
@@ -188,6 +208,43 @@ public class Curves
         return false;
     }
 
+    //--------------//
+    // dispatchArcs //
+    //--------------//
+    /**
+     * Dispatch the provided arcs to the single system that contains both ends of each arc.
+     *
+     * @param arcs   the arcs to dispatch, in processing order
+     * @param others (output) the arcs not contained by a single system
+     * @return the arcs per system, in sheet system order, each list keeping the arcs order
+     */
+    Map<SystemInfo, List<Arc>> dispatchArcs (List<Arc> arcs,
+                                             List<Arc> others)
+    {
+        final Map<SystemInfo, List<Arc>> map = new LinkedHashMap<>();
+
+        for (SystemInfo system : sheet.getSystems()) {
+            map.put(system, new ArrayList<>());
+        }
+
+        final SystemManager mgr = sheet.getSystemManager();
+        final List<SystemInfo> firsts = new ArrayList<>();
+        final List<SystemInfo> lasts = new ArrayList<>();
+
+        for (Arc arc : arcs) {
+            mgr.getSystemsOf(arc.getEnd(true), firsts);
+            mgr.getSystemsOf(arc.getEnd(false), lasts);
+
+            if ((firsts.size() == 1) && firsts.equals(lasts)) {
+                map.get(firsts.get(0)).add(arc);
+            } else {
+                others.add(arc);
+            }
+        }
+
+        return map;
+    }
+
     //-------------//
     // getSegments //
     //-------------//
@@ -236,6 +293,67 @@ public class Curves
         return slursBuilder;
     }
 
+    //----------------//
+    // processSystems //
+    //----------------//
+    /**
+     * Run the provided task on every system of the sheet, concurrently if so allowed.
+     * <p>
+     * When interleaved, even systems are processed first, then odd systems, so that two systems
+     * processed at the same time are never adjacent and thus never compete for the same arcs.
+     *
+     * @param task        the task to run on each system
+     * @param interleaved true to never process adjacent systems at the same time
+     */
+    void processSystems (Consumer<SystemInfo> task,
+                         boolean interleaved)
+    {
+        final List<SystemInfo> systems = sheet.getSystems();
+
+        if (!AdvancedTopics.processSystemsInParallel() || (systems.size() < 2)) {
+            for (SystemInfo system : systems) {
+                task.accept(system);
+            }
+
+            return;
+        }
+
+        // Build the shared (and weakly cached) binary table once, before any concurrent access
+        final RunTable binaryTable = sheet.getPicture().getVerticalTable(Picture.TableKey.BINARY);
+        final int phases = interleaved ? 2 : 1;
+
+        try {
+            for (int phase = 0; phase < phases; phase++) {
+                final List<Callable<Void>> tasks = new ArrayList<>();
+
+                for (int i = phase; i < systems.size(); i += phases) {
+                    final SystemInfo system = systems.get(i);
+                    tasks.add( () -> {
+                        try {
+                            LogUtil.start(sheet.getStub());
+                            task.accept(system);
+                        } finally {
+                            LogUtil.stopStub();
+                        }
+
+                        return null;
+                    });
+                }
+
+                for (Future<Void> future : OmrExecutors.getLowExecutor().invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException ex) {
+            logger.warn("processSystems got interrupted for {}", sheet);
+            throw new ProcessingCancellationException(ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        } finally {
+            Reference.reachabilityFence(binaryTable);
+        }
+    }
+
     //-------------//
     // selectPoint //
     //-------------//
@@ -68,11 +68,15 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class <code>CurvesBuilder</code> is an abstract basis to build curves on top of the
  * underlying skeleton for slurs (see {@link SlursBuilder}), as well as wedges and
  * endings (see {@link SegmentsBuilder}).
+ * <p>
+ * A builder instance is not thread-safe, hence curves are built concurrently by separate
+ * builders, one per system, which share the curve IDs of their master builder.
  *
  * @author Hervé Bitteur
  */
@@ -107,7 +111,7 @@ public abstract class CurvesBuilder
     protected final Skeleton skeleton;
 
     /** For unique curve IDs. (per page and per type of curve: slur or segment) */
-    protected int globalId = 0;
+    protected final AtomicInteger globalId;
 
     /** (Current) orientation for walking along a curve. */
     protected boolean reverse;
@@ -135,8 +139,26 @@ public abstract class CurvesBuilder
      * @param curves curves environment
      */
     public CurvesBuilder (Curves curves)
+    {
+        this(curves, new AtomicInteger());
+    }
+
+    /**
+     * Creates a new CurvesBuilder object, meant to work on one system on behalf of the
+     * provided master builder, with which it shares curve IDs.
+     *
+     * @param master the master builder
+     */
+    protected CurvesBuilder (CurvesBuilder master)
+    {
+        this(master.curves, master.globalId);
+    }
+
+    private CurvesBuilder (Curves curves,
+                           AtomicInteger globalId)
     {
         this.curves = curves;
+        this.globalId = globalId;
         sheet = curves.getSheet();
         skeleton = curves.getSkeleton();
         skew = sheet.getSkew();
@@ -28,6 +28,7 @@ import org.audiveris.omr.math.LineUtil;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.Staff;
 import org.audiveris.omr.sheet.StaffManager;
+import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.sig.GradeImpacts;
 import org.audiveris.omr.sig.inter.Inter;
 import org.audiveris.omr.sig.inter.Inters;
@@ -48,14 +49,20 @@ import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Class <code>SegmentsBuilder</code> retrieves straight segments that can be used to build
  * wedges or endings.
+ * <p>
+ * Seed arcs contained by a single system are processed by a per-system builder, and all systems
+ * may be processed concurrently.
+ * The remaining seed arcs are processed by this master builder.
  *
  * @author Hervé Bitteur
  */
@@ -75,7 +82,7 @@ public class SegmentsBuilder
     /** Scale-dependent parameters. */
     private final Parameters params;
 
-    /** All segments retrieved in sheet. */
+    /** All segments retrieved in sheet (or in system, for a per-system builder). */
     private final List<SegmentInter> segments;
 
     //~ Constructors -------------------------------------------------------------------------------
@@ -92,6 +99,18 @@ public class SegmentsBuilder
         segments = curves.getSegments();
     }
 
+    /**
+     * Creates a new SegmentsBuilder object, to process one system on behalf of master.
+     *
+     * @param master the master builder
+     */
+    private SegmentsBuilder (SegmentsBuilder master)
+    {
+        super(master);
+        params = new Parameters(sheet.getScale());
+        segments = new ArrayList<>();
+    }
+
     //~ Methods ------------------------------------------------------------------------------------
 
     //--------//
@@ -141,13 +160,26 @@ public class SegmentsBuilder
     public void buildSegments ()
     {
         try {
-            List<Arc> relevants = getSeedArcs();
+            // Build segments system per system, out of arcs contained by a single system
+            // Adjacent systems are not processed at the same time, since they may share arcs
+            final List<Arc> others = new ArrayList<>();
+            final Map<SystemInfo, List<Arc>> seeds = curves.dispatchArcs(getSeedArcs(), others);
+            final Map<SystemInfo, SegmentsBuilder> builders = new LinkedHashMap<>();
+
+            for (SystemInfo system : seeds.keySet()) {
+                builders.put(system, new SegmentsBuilder(this));
+            }
 
-            for (Arc arc : relevants) {
-                ///logger.info("buildSegments for {}", arc);
-                buildCurve(arc);
+            curves.processSystems(s -> builders.get(s).buildSegments(seeds.get(s)), true);
+
+            for (SegmentsBuilder builder : builders.values()) {
+                segments.addAll(builder.segments);
+                maxClumpSize = Math.max(maxClumpSize, builder.maxClumpSize);
             }
 
+            // Build segments out of the remaining arcs, which may span several systems
+            buildSegments(others);
+
             // Purge duplicates
             ///logger.info("purgeDuplicates...");
             purgeDuplicates();
@@ -159,6 +191,22 @@ public class SegmentsBuilder
         }
     }
 
+    //---------------//
+    // buildSegments //
+    //---------------//
+    /**
+     * Build segments out of the provided seed arcs.
+     *
+     * @param relevants the seed arcs, sorted by decreasing length
+     */
+    private void buildSegments (List<Arc> relevants)
+    {
+        for (Arc arc : relevants) {
+            ///logger.info("buildSegments for {}", arc);
+            buildCurve(arc);
+        }
+    }
+
     //----------------//
     // computeImpacts //
     //----------------//
@@ -190,7 +238,13 @@ public class SegmentsBuilder
                                     Model model,
                                     Collection<Arc> parts)
     {
-        return new SegmentInfo(++globalId, firstJunction, lastJunction, points, model, parts);
+        return new SegmentInfo(
+                globalId.incrementAndGet(),
+                firstJunction,
+                lastJunction,
+                points,
+                model,
+                parts);
     }
 
     @Override
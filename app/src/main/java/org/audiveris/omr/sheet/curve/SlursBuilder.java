@@ -74,6 +74,11 @@ import java.util.Set;
 
 /**
  * Class <code>SlursBuilder</code> builds all slur curves from a sheet skeleton.
+ * <p>
+ * Seed arcs contained by a single system are processed by a per-system builder, and all systems
+ * may be processed concurrently.
+ * The remaining seed arcs are processed by this master builder, which finally reconciles slurs
+ * at page level.
  *
  * @author Hervé Bitteur
  */
@@ -124,6 +129,19 @@ public class SlursBuilder
         params = new Parameters(sheet.getScale());
     }
 
+    /**
+     * Creates a new SlursBuilder object, to process one system on behalf of master.
+     *
+     * @param master the master builder
+     */
+    private SlursBuilder (SlursBuilder master)
+    {
+        super(master);
+        clumpPruner = new ClumpPruner(sheet);
+
+        params = new Parameters(sheet.getScale());
+    }
+
     //~ Methods ------------------------------------------------------------------------------------
 
     //--------//
@@ -207,32 +225,32 @@ public class SlursBuilder
     // buildSlurs //
     //------------//
     /**
-     * Build slurs for the system.
+     * Build slurs for the sheet.
      */
     public void buildSlurs ()
     {
         try {
-            final List<Arc> relevants = getSeedArcs();
-            maxLength = null;
-
-            // Build slurs from initial SLUR seed
-            // Extend slur seeds as much as possible through junction points & small gaps
-            for (Arc arc : relevants) {
-                if (!arc.isAssigned() && (arc.getShape() == ArcShape.SLUR)) {
-                    buildCurve(arc);
-                }
+            // Build slurs system per system, out of arcs contained by a single system
+            // Adjacent systems are not processed at the same time, since they may share arcs
+            final List<Arc> others = new ArrayList<>();
+            final Map<SystemInfo, List<Arc>> seeds = curves.dispatchArcs(getSeedArcs(), others);
+            final Map<SystemInfo, SlursBuilder> builders = new LinkedHashMap<>();
+
+            for (SystemInfo system : seeds.keySet()) {
+                builders.put(system, new SlursBuilder(this));
             }
 
-            // Build slurs from NO initial SLUR seed
-            // Since arcs are sorted by decreasing length, extension should
-            // never try to include an arc longer than the initial one.
-            for (Arc arc : relevants) {
-                if (!arc.isAssigned() && (arc.getShape() != ArcShape.SLUR)) {
-                    maxLength = arc.getLength();
-                    buildCurve(arc);
-                }
+            curves.processSystems(s -> builders.get(s).buildSlurs(seeds.get(s)), true);
+
+            for (SlursBuilder builder : builders.values()) {
+                pageInfos.addAll(builder.pageInfos);
+                pageSlurs.addAll(builder.pageSlurs);
+                maxClumpSize = Math.max(maxClumpSize, builder.maxClumpSize);
             }
 
+            // Build slurs out of the remaining arcs, which may span several systems
+            buildSlurs(others);
+
             // Handle tie collisions on same chord, although ties are not fully known
             // (because alterations & clefs have not been handled yet)
             handleTieCollisions();
@@ -255,6 +273,37 @@ public class SlursBuilder
         }
     }
 
+    //------------//
+    // buildSlurs //
+    //------------//
+    /**
+     * Build slurs out of the provided seed arcs.
+     *
+     * @param relevants the seed arcs, sorted by decreasing length
+     */
+    private void buildSlurs (List<Arc> relevants)
+    {
+        maxLength = null;
+
+        // Build slurs from initial SLUR seed
+        // Extend slur seeds as much as possible through junction points & small gaps
+        for (Arc arc : relevants) {
+            if (!arc.isAssigned() && (arc.getShape() == ArcShape.SLUR)) {
+                buildCurve(arc);
+            }
+        }
+
+        // Build slurs from NO initial SLUR seed
+        // Since arcs are sorted by decreasing length, extension should
+        // never try to include an arc longer than the initial one.
+        for (Arc arc : relevants) {
+            if (!arc.isAssigned() && (arc.getShape() != ArcShape.SLUR)) {
+                maxLength = arc.getLength();
+                buildCurve(arc);
+            }
+        }
+    }
+
     //----------------//
     // computeImpacts //
     //----------------//
@@ -473,7 +522,7 @@ public class SlursBuilder
                                     Collection<Arc> parts)
     {
         SlurInfo slur = new SlurInfo(
-                ++globalId,
+                globalId.incrementAndGet(),
                 firstJunction,
                 lastJunction,
                 points,
@@ -27,6 +27,7 @@ import org.audiveris.omr.glyph.dynamic.Filament;
 import org.audiveris.omr.lag.Lag;
 import org.audiveris.omr.lag.Lags;
 import org.audiveris.omr.lag.Section;
+import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.GeoPath;
 import org.audiveris.omr.math.LineUtil;
@@ -40,12 +41,14 @@ import org.audiveris.omr.sheet.StaffManager;
 import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.sheet.SystemManager;
 import static org.audiveris.omr.sheet.grid.StaffPeak.Attribute.BRACE;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.step.StepException;
 import org.audiveris.omr.util.Dumping;
 import org.audiveris.omr.util.HorizontalSide;
 import static org.audiveris.omr.util.HorizontalSide.LEFT;
 import static org.audiveris.omr.util.HorizontalSide.RIGHT;
 import org.audiveris.omr.util.Navigable;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.StopWatch;
 import org.audiveris.omr.util.VerticalSide;
 import static org.audiveris.omr.util.VerticalSide.BOTTOM;
@@ -74,6 +77,9 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Class <code>PeakGraph</code> handles the graph of all StaffPeak instances in a sheet,
@@ -805,15 +811,26 @@ public class PeakGraph
     //--------------//
     /**
      * Use individual staff projections to retrieve bar peaks.
+     * <p>
+     * Staves are independent at this point, hence their projections are processed in parallel,
+     * and the results are then merged in staff order.
      */
     private void findBarPeaks ()
     {
-        // Analysis staff per staff
         final List<Staff> staves = new ArrayList<>(staffManager.getStaves());
+        final List<StaffProjector> staffProjectors = new ArrayList<>();
+
+        for (Staff staff : staves) {
+            staffProjectors.add(new StaffProjector(sheet, staff, this));
+        }
+
+        // Analysis staff per staff
+        processProjectors(staffProjectors);
+
+        // Merge results, in staff order
         for (int idx = 0; idx < staves.size(); idx++) {
             final Staff staff = staves.get(idx);
-            final StaffProjector projector = new StaffProjector(sheet, staff, this);
-            projector.process();
+            final StaffProjector projector = staffProjectors.get(idx);
 
             if (staff.isOneLineStaff() && projector.getPeaks().size() <= 1) {
                 logger.info(
@@ -1131,6 +1148,54 @@ public class PeakGraph
         return all.subList(iMin, iMax + 1);
     }
 
+    //-------------------//
+    // processProjectors //
+    //-------------------//
+    /**
+     * Process the provided staff projectors, in parallel if so desired.
+     *
+     * @param staffProjectors the projectors to process
+     */
+    private void processProjectors (List<StaffProjector> staffProjectors)
+    {
+        final boolean parallel = constants.processStavesInParallel.isSet()
+                && (staffProjectors.size() > 1);
+
+        if (!parallel) {
+            for (StaffProjector projector : staffProjectors) {
+                projector.process();
+            }
+
+            return;
+        }
+
+        final List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (StaffProjector projector : staffProjectors) {
+            tasks.add( () -> {
+                try {
+                    LogUtil.start(sheet.getStub());
+                    projector.process();
+                } finally {
+                    LogUtil.stopStub();
+                }
+
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : OmrExecutors.getLowExecutor().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            logger.warn("processProjectors got interrupted for {}", sheet.getId());
+            throw new ProcessingCancellationException(ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
     //-------------//
     // projectorOf //
     //-------------//
@@ -1417,6 +1482,10 @@ public class PeakGraph
                 false,
                 "Should we print out the stop watch?");
 
+        private final Constant.Boolean processStavesInParallel = new Constant.Boolean(
+                true,
+                "Should we process staff projections in parallel?");
+
         private final Constant.Ratio maxAlignmentSlope = new Constant.Ratio(
                 0.06,
                 "Max slope for bar alignment");
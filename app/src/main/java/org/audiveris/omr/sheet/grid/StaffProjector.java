@@ -421,13 +421,16 @@ public class StaffProjector
      * For a OneLineStaff, we cannot use the (virtual) first and last lines.
      * So, we extrapolate ordinates around the mid line according to BarlineHeight specification.
      * <p>
-     * We also compute derivative threshold for this staff.
+     * We also compute derivative threshold for this staff, using only the top derivative values.
      */
     private void computeProjection ()
     {
         projection = new Projection.Short(0, sheet.getWidth() - 1);
 
-        final ArrayList<Integer> derivatives = new ArrayList<>();
+        final int top = constants.topDerivativeNumber.getValue();
+        final int[] topDerivatives = new int[top]; // Best derivatives, in ascending order
+        final byte[] pixels = (byte[]) pixelFilter.getPixels();
+        final int width = pixelFilter.getWidth();
         final LineInfo firstLine = !staff.isOneLineStaff() //
                 ? staff.getFirstLine()
                 : staff.getMidLine().yTranslated(-getBarlineHeight() / 2);
@@ -444,8 +447,8 @@ public class StaffProjector
             final int yMax = sheet.yClamp(lastLine.yAt(x) - 1);
             short count = 0;
 
-            for (int y = yMin; y <= yMax; y++) {
-                if (pixelFilter.get(x, y) == 0) {
+            for (int y = yMin, i = (yMin * width) + x; y <= yMax; y++, i += width) {
+                if (pixels[i] == 0) {
                     count++;
                 }
             }
@@ -453,19 +456,15 @@ public class StaffProjector
             projection.increment(x, count);
 
             if (x > xMin) {
-                derivatives.add(Math.abs(projection.getDerivative(x)));
+                insertTop(topDerivatives, Math.abs(projection.getDerivative(x)));
             }
         }
 
         // Computing minDerivative from observed top values
-        Collections.sort(derivatives);
-
-        final int size = derivatives.size();
-        final int top = constants.topDerivativeNumber.getValue();
         int derCumul = 0;
 
-        for (int i = 1; i <= top; i++) {
-            derCumul += derivatives.get(size - i);
+        for (int der : topDerivatives) {
+            derCumul += der;
         }
 
         final double eliteDer = (double) derCumul / top;
@@ -1574,6 +1573,36 @@ public class StaffProjector
         return "StaffProjector#" + staff.getId();
     }
 
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-----------//
+    // insertTop //
+    //-----------//
+    /**
+     * Insert the provided value into the array of top values, if it is large enough.
+     * <p>
+     * This is a partial selection, which avoids sorting all values.
+     *
+     * @param tops  the top values so far, in ascending order
+     * @param value the value to insert
+     */
+    private static void insertTop (int[] tops,
+                                   int value)
+    {
+        if ((tops.length == 0) || (value <= tops[0])) {
+            return;
+        }
+
+        int i = 1;
+
+        while ((i < tops.length) && (tops[i] < value)) {
+            tops[i - 1] = tops[i];
+            i++;
+        }
+
+        tops[i - 1] = value;
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
 
     //-------//
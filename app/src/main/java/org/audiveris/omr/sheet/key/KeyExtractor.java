@@ -48,6 +48,7 @@ import org.audiveris.omr.sheet.header.StaffHeader;
 import org.audiveris.omr.sig.SIGraph;
 import org.audiveris.omr.sig.inter.KeyAlterInter;
 
+import org.jgrapht.Graph;
 import org.jgrapht.alg.connectivity.ConnectivityInspector;
 import org.jgrapht.graph.SimpleGraph;
 
@@ -459,7 +460,7 @@ public class KeyExtractor
 
         for (Set<Glyph> set : sets) {
             // Use only the subgraph for this set
-            SimpleGraph<Glyph, GlyphLink> subGraph = GlyphCluster.getSubGraph(set, graph, false);
+            Graph<Glyph, GlyphLink> subGraph = GlyphCluster.getSubGraph(set, graph);
             MultipleAdapter adapter = new MultipleAdapter(
                     roi,
                     peaks,
@@ -562,7 +563,7 @@ public class KeyExtractor
         /** Relevant shapes. */
         protected final EnumSet<Shape> targetShapes = EnumSet.noneOf(Shape.class);
 
-        AbstractKeyAdapter (SimpleGraph<Glyph, GlyphLink> graph,
+        AbstractKeyAdapter (Graph<Glyph, GlyphLink> graph,
                             List<KeyPeak> peaks,
                             Set<Shape> targetShapes,
                             double minGrade)
@@ -620,6 +621,7 @@ public class KeyExtractor
 
             Evaluation[] evals = classifier.evaluate(
                     glyph,
+                    sheet,
                     sheet.getInterline(),
                     params.maxEvalRank,
                     minGrade / Grades.intrinsicRatio,
@@ -777,7 +779,7 @@ public class KeyExtractor
 
         MultipleAdapter (KeyRoi roi,
                          List<KeyPeak> peaks,
-                         SimpleGraph<Glyph, GlyphLink> graph,
+                         Graph<Glyph, GlyphLink> graph,
                          Set<Shape> targetShapes,
                          double minGrade)
         {
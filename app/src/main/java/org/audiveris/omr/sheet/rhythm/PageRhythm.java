@@ -21,6 +21,7 @@
 // </editor-fold>
 package org.audiveris.omr.sheet.rhythm;
 
+import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.math.Rational;
 import org.audiveris.omr.score.Page;
 import org.audiveris.omr.score.PageRef;
@@ -34,14 +35,22 @@ import org.audiveris.omr.sig.inter.Inters;
 import org.audiveris.omr.sig.inter.RestChordInter;
 import org.audiveris.omr.sig.inter.TupletInter;
 import static org.audiveris.omr.step.OmrStep.RHYTHMS;
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.ui.action.AdvancedTopics;
+import org.audiveris.omr.util.OmrExecutors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Class <code>PageRhythm</code> handles rhythm data on a sheet page.
@@ -65,9 +74,14 @@ import java.util.List;
  * Unfortunately, this took endless computations and led to no practical results.
  * So now we simply check the "time correctness" of each stack regarding its time slots and voices.
  * <p>
- * Processing is done system per system <b>sequentially</b> because of impact of potential
- * key-sig changes on the following systems. Hence, parallelism is NOT provided for this step.
- * Consistently, within a system, processing is done measure stack after measure stack.
+ * Time signatures are first retrieved system per system <b>sequentially</b>, because of impact of
+ * potential time-sig changes on the following systems.
+ * Once the time-sig ranges are known, the expected duration of every stack is known and the
+ * systems no longer depend on each other.
+ * They can then be processed in parallel, according to
+ * {@link AdvancedTopics#processSystemsInParallel()}.
+ * Within a system, processing is done measure stack after measure stack, since all stacks of a
+ * system share the system SIG which is not thread-safe.
  *
  * @author Hervé Bitteur
  */
@@ -254,9 +268,13 @@ public class PageRhythm
     //---------------//
     /**
      * Within each range, build the time slots and voices for each stack.
+     * <p>
+     * The expected duration of each stack is first read from the ranges, then the systems are
+     * processed, perhaps in parallel.
      */
     private void processRanges ()
     {
+        final Map<MeasureStack, Rational> durations = new HashMap<>();
         final Iterator<Range> it = ranges.iterator();
         Range range = it.next(); // Current range
 
@@ -269,12 +287,7 @@ public class PageRhythm
                     logger.debug("Starting {}", range);
                 }
 
-                try {
-                    logger.debug("\n--- Processing {} {} expDur:{}", sn, stack, range.duration);
-                    new StackRhythm(stack).process(range.duration);
-                } catch (Exception ex) {
-                    logger.warn("Error on stack " + stack + " " + ex, ex);
-                }
+                durations.put(stack, range.duration);
 
                 // End of range?
                 if (sn == range.stopSN) {
@@ -283,10 +296,71 @@ public class PageRhythm
                     }
                 }
             }
+        }
+
+        final List<SystemInfo> systems = page.getSystems();
+        final boolean parallel = AdvancedTopics.processSystemsInParallel() && (systems.size() > 1);
+
+        if (!parallel) {
+            for (SystemInfo system : systems) {
+                processSystem(system, durations);
+            }
 
-            // Refine voices IDs (and thus display colors) across all measures of the system
-            Voices.refineSystem(system);
+            return;
         }
+
+        final List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (SystemInfo system : systems) {
+            tasks.add( () -> {
+                try {
+                    LogUtil.start(system.getSheet().getStub());
+                    processSystem(system, durations);
+                } finally {
+                    LogUtil.stopStub();
+                }
+
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : OmrExecutors.getLowExecutor().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            logger.warn("processRanges got interrupted for {}", page);
+            throw new ProcessingCancellationException(ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    //---------------//
+    // processSystem //
+    //---------------//
+    /**
+     * Build the time slots and voices for each stack of the provided system.
+     *
+     * @param system    the system to process
+     * @param durations the expected duration of each stack
+     */
+    private void processSystem (SystemInfo system,
+                                Map<MeasureStack, Rational> durations)
+    {
+        for (MeasureStack stack : system.getStacks()) {
+            final Rational duration = durations.get(stack);
+
+            try {
+                logger.debug("\n--- Processing {} {} expDur:{}", seqNumOf(stack), stack, duration);
+                new StackRhythm(stack).process(duration);
+            } catch (Exception ex) {
+                logger.warn("Error on stack " + stack + " " + ex, ex);
+            }
+        }
+
+        // Refine voices IDs (and thus display colors) across all measures of the system
+        Voices.refineSystem(system);
     }
 
     //----------------//
@@ -45,6 +45,7 @@ import org.audiveris.omr.util.Dumping;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.StopWatch;
 
+import org.jgrapht.Graph;
 import org.jgrapht.alg.connectivity.ConnectivityInspector;
 import org.jgrapht.graph.SimpleGraph;
 
@@ -177,41 +178,20 @@ public class SymbolsBuilder
         }
     }
 
-    //---------------//
-    // evaluateGlyph //
-    //---------------//
+    //--------------//
+    // createInters //
+    //--------------//
     /**
-     * Evaluate a provided glyph and create all acceptable inter instances.
+     * Create one interpretation for each acceptable evaluation of a glyph.
      *
-     * @param glyph the glyph to evaluate
+     * @param glyph        the evaluated glyph
+     * @param evals        the acceptable evaluations
+     * @param closestStaff the staff closest to glyph
      */
-    private void evaluateGlyph (Glyph glyph)
+    private void createInters (Glyph glyph,
+                               Evaluation[] evals,
+                               Staff closestStaff)
     {
-        if (glyph.getId() == 0) {
-            glyph = sheet.getGlyphIndex().registerOriginal(glyph);
-        }
-
-        logger.debug("evaluateGlyph on {}", glyph);
-
-        if (glyph.isVip()) {
-            logger.info("VIP evaluateGlyph on {}", glyph);
-        }
-
-        final Point2D center = glyph.getCenter2D();
-        final Staff closestStaff = system.getClosestStaff(center); // Just an indication!
-
-        if (closestStaff == null) {
-            return;
-        }
-
-        final Evaluation[] evals = classifier.evaluate(
-                glyph,
-                system,
-                constants.maxEvaluationCount.getValue(),
-                Grades.symbolMinGrade,
-                EnumSet.of(Classifier.Condition.CHECKED));
-
-        // Create one interpretation for each acceptable evaluation
         final SIGraph sig = system.getSig();
         final List<Inter> createdInters = new ArrayList<>();
 
@@ -233,6 +213,69 @@ public class SymbolsBuilder
         }
     }
 
+    //---------------//
+    // evaluateGlyph //
+    //---------------//
+    /**
+     * Evaluate a provided glyph and create all acceptable inter instances.
+     *
+     * @param glyph the glyph to evaluate
+     */
+    private void evaluateGlyph (Glyph glyph)
+    {
+        evaluateGlyphs(Collections.singletonList(glyph));
+    }
+
+    //----------------//
+    // evaluateGlyphs //
+    //----------------//
+    /**
+     * Evaluate a list of glyphs in one classifier batch, and create all acceptable inter
+     * instances.
+     *
+     * @param glyphs the glyphs to evaluate
+     */
+    private void evaluateGlyphs (List<Glyph> glyphs)
+    {
+        final List<Glyph> candidates = new ArrayList<>(glyphs.size());
+        final List<Staff> staves = new ArrayList<>(glyphs.size());
+
+        for (Glyph glyph : glyphs) {
+            if (glyph.getId() == 0) {
+                glyph = sheet.getGlyphIndex().registerOriginal(glyph);
+            }
+
+            logger.debug("evaluateGlyph on {}", glyph);
+
+            if (glyph.isVip()) {
+                logger.info("VIP evaluateGlyph on {}", glyph);
+            }
+
+            final Point2D center = glyph.getCenter2D();
+            final Staff closestStaff = system.getClosestStaff(center); // Just an indication!
+
+            if (closestStaff != null) {
+                candidates.add(glyph);
+                staves.add(closestStaff);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        final Evaluation[][] evals = classifier.evaluate(
+                candidates,
+                system,
+                constants.maxEvaluationCount.getValue(),
+                Grades.symbolMinGrade,
+                EnumSet.of(Classifier.Condition.CHECKED));
+
+        for (int i = 0; i < evals.length; i++) {
+            createInters(candidates.get(i), evals[i], staves.get(i));
+        }
+    }
+
     //------------------//
     // getSymbolsGlyphs //
     //------------------//
@@ -322,12 +365,19 @@ public class SymbolsBuilder
 
         final int interline = sheet.getInterline();
         final int maxPartCount = constants.maxPartCount.getValue();
+        final List<Glyph> isolated = new ArrayList<>(); // Pending isolated glyphs, as a batch
 
         for (Set<Glyph> set : sets) {
             final int setSize = set.size();
             logger.debug("set size: {}", setSize);
 
             if (setSize > 1) {
+                // Flush pending isolated glyphs first, to keep inter creation in sets order
+                if (!isolated.isEmpty()) {
+                    evaluateGlyphs(isolated);
+                    isolated.clear();
+                }
+
                 final Set<Glyph> subSet; // Use an upper limit for set size
 
                 if (setSize <= maxPartCount) {
@@ -341,18 +391,21 @@ public class SymbolsBuilder
                 }
 
                 // Use just the subgraph for this (sub)set
-                final SimpleGraph<Glyph, GlyphLink> subGraph;
-                subGraph = GlyphCluster.getSubGraph(subSet, systemGraph, true);
+                final Graph<Glyph, GlyphLink> subGraph = GlyphCluster.getSubGraph(
+                        subSet,
+                        systemGraph);
                 new GlyphCluster(new SymbolAdapter(subGraph), GlyphGroup.SYMBOL).decompose();
             } else {
-                // The set is just an isolated glyph, to be evaluated directly
+                // The set is just an isolated glyph, to be evaluated in batch
                 final Glyph glyph = set.iterator().next();
 
                 if (classifier.isBigEnough(glyph, interline)) {
-                    evaluateGlyph(glyph);
+                    isolated.add(glyph);
                 }
             }
         }
+
+        evaluateGlyphs(isolated);
     }
 
     //-------------------//
@@ -467,7 +520,7 @@ public class SymbolsBuilder
     {
         private final Scale scale = sheet.getScale();
 
-        SymbolAdapter (SimpleGraph<Glyph, GlyphLink> graph)
+        SymbolAdapter (Graph<Glyph, GlyphLink> graph)
         {
             super(graph);
         }
@@ -89,6 +89,19 @@ public class SymbolsStep
         }
     }
 
+    //----------//
+    // doEpilog //
+    //----------//
+    @Override
+    protected void doEpilog (Sheet sheet,
+                             Context context)
+        throws StepException
+    {
+        // Compound evaluations are no longer needed
+        logger.debug("{} {}", sheet, sheet.getEvaluationCache());
+        sheet.getEvaluationCache().clear();
+    }
+
     //----------//
     // doProlog //
     //----------//
@@ -560,6 +560,7 @@ public class HeaderTimeBuilder
 
             Evaluation[] evals = ShapeClassifier.getInstance().evaluate(
                     glyph,
+                    system.getSheet(),
                     staff.getSpecificInterline(),
                     params.maxEvalRank,
                     Grades.timeMinGrade / Grades.intrinsicRatio,
@@ -689,6 +690,7 @@ public class HeaderTimeBuilder
 
             Evaluation[] evals = ShapeClassifier.getInstance().evaluate(
                     glyph,
+                    system.getSheet(),
                     staff.getSpecificInterline(),
                     params.maxEvalRank,
                     Grades.timeMinGrade / Grades.intrinsicRatio,
@@ -44,6 +44,8 @@ import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.Version;
 
 import org.jgrapht.Graphs;
+import org.jgrapht.event.GraphVertexChangeEvent;
+import org.jgrapht.event.VertexSetListener;
 import org.jgrapht.graph.DefaultListenableGraph;
 import org.jgrapht.graph.DirectedMultigraph;
 
@@ -59,12 +61,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
@@ -92,12 +96,16 @@ public class SIGraph
     /** Content for differed populating after unmarshalling. */
     private SigValue sigValue;
 
+    /** Inters partitioned by class, kept in sync with vertex set. */
+    private final ClassIndex classIndex = new ClassIndex();
+
     /**
      * No-argument constructor meant for JAXB.
      */
     private SIGraph ()
     {
         super(new DirectedMultigraph<>(Relation.class), true /* reuseEvents */);
+        addVertexSetListener(classIndex);
     }
 
     /**
@@ -121,6 +129,7 @@ public class SIGraph
     public SIGraph (SystemInfo system)
     {
         super(new DirectedMultigraph<>(Relation.class), true /* reuseEvents */);
+        addVertexSetListener(classIndex);
 
         Objects.requireNonNull(system, "A sig needs a non-null system");
         this.system = system;
@@ -812,6 +821,20 @@ public class SIGraph
         return false;
     }
 
+    //-----------//
+    // highGrade //
+    //-----------//
+    /**
+     * Report the highest best grade between source and target of provided relation.
+     *
+     * @param rel the provided relation
+     * @return the highest grade
+     */
+    private double highGrade (Relation rel)
+    {
+        return Math.max(getEdgeSource(rel).getBestGrade(), getEdgeTarget(rel).getBestGrade());
+    }
+
     //------------//
     // includeSig //
     //------------//
@@ -983,9 +1006,11 @@ public class SIGraph
      * @param classe the class to search for
      * @return the interpretations of desired class, perhaps empty but not null
      */
-    public List<Inter> inters (final Class classe)
+    public List<Inter> inters (final Class<?> classe)
     {
-        return inters(new ClassPredicate(classe));
+        final Predicate<Inter> predicate = new ClassPredicate(classe);
+
+        return classIndex.inters(c -> classe.isAssignableFrom(c), predicate);
     }
 
     //--------//
@@ -997,9 +1022,19 @@ public class SIGraph
      * @param classes array of desired classes
      * @return the interpretations of desired classes, perhaps empty but not null
      */
-    public List<Inter> inters (final Class[] classes)
+    public List<Inter> inters (final Class<?>[] classes)
     {
-        return inters(new ClassesPredicate(classes));
+        final Predicate<Inter> predicate = new ClassesPredicate(classes);
+
+        return classIndex.inters(c -> {
+            for (Class<?> classe : classes) {
+                if (classe.isAssignableFrom(c)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }, predicate);
     }
 
     //--------//
@@ -1069,9 +1104,15 @@ public class SIGraph
      * @return the list of interpretations found, perhaps empty but not null
      */
     public List<Inter> inters (final Staff staff,
-                               final Class classe)
+                               final Class<?> classe)
     {
-        return inters(new StaffClassPredicate(staff, classe));
+        final Predicate<Inter> predicate = new StaffClassPredicate(staff, classe);
+
+        if (classe == null) {
+            return inters(predicate);
+        }
+
+        return classIndex.inters(c -> classe.isAssignableFrom(c), predicate);
     }
 
     //-------------------//
@@ -1217,6 +1258,16 @@ public class SIGraph
      * <li>Recompute all impacted contextual grades values,</li>
      * <li>Iterate until no more exclusion is left.</li>
      * </ol>
+     * <p>
+     * Exclusions are kept in a priority queue, ordered by decreasing grade of their high inter,
+     * then by their position in the provided collection.
+     * When the contextual grade of an inter gets recomputed, its exclusions are re-queued with
+     * their new grade, and the obsolete queue entries are skipped when reached.
+     * This gives the same choices as a full scan of the exclusions at each iteration,
+     * at a much lower cost.
+     * <p>
+     * Upon return, the provided collection no longer contains the exclusions that have vanished
+     * from the SIG.
      *
      * @param exclusions the collection of exclusions to process
      * @return the set of vertices removed
@@ -1224,70 +1275,114 @@ public class SIGraph
     public Set<Inter> reduceExclusions (Collection<? extends Relation> exclusions)
     {
         final Set<Inter> removed = new LinkedHashSet<>();
-        Relation bestRel;
 
-        do {
-            // Choose exclusion with the highest source or target grade
-            double bestCP = 0;
-            bestRel = null;
+        // Current candidate for each exclusion
+        final Map<Relation, Candidate> candidates = new HashMap<>();
 
-            for (Iterator<? extends Relation> it = exclusions.iterator(); it.hasNext();) {
-                Relation rel = it.next();
+        // Exclusions each inter is involved in
+        final Map<Inter, List<Relation>> interExclusions = new HashMap<>();
 
-                if (containsEdge(rel)) {
-                    final double cp = Math.max(
-                            getEdgeSource(rel).getBestGrade(),
-                            getEdgeTarget(rel).getBestGrade());
+        final PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                Math.max(1, exclusions.size()));
+        int rank = 0;
 
-                    if (bestCP < cp) {
-                        bestCP = cp;
-                        bestRel = rel;
-                    }
-                } else {
-                    it.remove();
+        for (Relation rel : exclusions) {
+            if (containsEdge(rel) && !candidates.containsKey(rel)) {
+                final Candidate candidate = new Candidate(rel, highGrade(rel), rank++);
+                candidates.put(rel, candidate);
+                queue.add(candidate);
+
+                for (Inter inter : Arrays.asList(getEdgeSource(rel), getEdgeTarget(rel))) {
+                    interExclusions.computeIfAbsent(inter, i -> new ArrayList<>()).add(rel);
                 }
             }
+        }
+
+        while (!queue.isEmpty()) {
+            // Choose exclusion with the highest source or target grade
+            final Candidate best = queue.poll();
+            final Relation bestRel = best.rel;
+
+            if ((candidates.get(bestRel) != best) || !containsEdge(bestRel)) {
+                continue; // Obsolete entry
+            }
+
+            final double cp = highGrade(bestRel);
+
+            if (cp != best.grade) {
+                // Grade modified behind our back, re-queue with up-to-date grade
+                final Candidate candidate = new Candidate(bestRel, cp, best.rank);
+                candidates.put(bestRel, candidate);
+                queue.add(candidate);
+
+                continue;
+            }
+
+            if (cp <= 0) {
+                break;
+            }
 
             // Remove the weaker branch of the selected exclusion
-            if (bestRel != null) {
-                final Inter source = getEdgeSource(bestRel);
-                final double scp = source.getBestGrade();
-                final Inter target = getEdgeTarget(bestRel);
-                final double tcp = target.getBestGrade();
-                final Inter weaker = (scp < tcp) ? source : target;
-
-                if (weaker.isVip()) {
-                    logger.info(
-                            "VIP conflict {} deleting weaker {}",
-                            bestRel.toLongString(this),
-                            weaker);
+            final Inter source = getEdgeSource(bestRel);
+            final double scp = source.getBestGrade();
+            final Inter target = getEdgeTarget(bestRel);
+            final double tcp = target.getBestGrade();
+            final Inter weaker = (scp < tcp) ? source : target;
+
+            if (weaker.isVip()) {
+                logger.info(
+                        "VIP conflict {} deleting weaker {}",
+                        bestRel.toLongString(this),
+                        weaker);
+            }
+
+            // Which inters were involved in some support relation with this weaker inter?
+            final Set<Inter> involved = involvedInters(getSupports(weaker));
+            involved.remove(weaker);
+
+            final Set<Inter> weakerEnsembles = weaker.getAllEnsembles(); // Before weaker is deleted!
+
+            // Remove the weaker inter
+            removed.add(weaker);
+            weaker.remove();
+
+            // If removal of weaker has resulted in removal of an ensemble, count this ensemble
+            for (Inter ensemble : weakerEnsembles) {
+                if (ensemble.isRemoved()) {
+                    removed.add(ensemble);
                 }
+            }
+
+            // Update contextual values for all inters that were involved with 'weaker'
+            for (Inter inter : involved) {
+                computeContextualGrade(inter);
+            }
 
-                // Which inters were involved in some support relation with this weaker inter?
-                final Set<Inter> involved = involvedInters(getSupports(weaker));
-                involved.remove(weaker);
+            // Re-queue the exclusions of these inters, with their new grades
+            for (Inter inter : involved) {
+                final List<Relation> rels = interExclusions.get(inter);
 
-                final Set<Inter> weakerEnsembles = weaker.getAllEnsembles(); // Before weaker is deleted!
+                if (rels != null) {
+                    for (Relation rel : rels) {
+                        final Candidate old = candidates.get(rel);
 
-                // Remove the weaker inter
-                removed.add(weaker);
-                weaker.remove();
+                        if ((old != null) && containsEdge(rel)) {
+                            final double grade = highGrade(rel);
 
-                // If removal of weaker has resulted in removal of an ensemble, count this ensemble
-                for (Inter ensemble : weakerEnsembles) {
-                    if (ensemble.isRemoved()) {
-                        removed.add(ensemble);
+                            if (grade != old.grade) {
+                                final Candidate candidate = new Candidate(rel, grade, old.rank);
+                                candidates.put(rel, candidate);
+                                queue.add(candidate);
+                            }
+                        }
                     }
                 }
+            }
 
-                // Update contextual values for all inters that were involved with 'weaker'
-                for (Inter inter : involved) {
-                    computeContextualGrade(inter);
-                }
+            candidates.remove(bestRel);
+        }
 
-                exclusions.remove(bestRel);
-            }
-        } while (bestRel != null);
+        exclusions.removeIf(rel -> !containsEdge(rel));
 
         return removed;
     }
@@ -1471,6 +1566,132 @@ public class SIGraph
 
     //~ Inner Classes ------------------------------------------------------------------------------
 
+    //-----------//
+    // Candidate //
+    //-----------//
+    /**
+     * An exclusion queued for reduction, with the grade of its high inter when queued.
+     * <p>
+     * Candidates are ordered by decreasing grade, then by increasing rank.
+     */
+    private static class Candidate
+            implements Comparable<Candidate>
+    {
+        /** The exclusion relation. */
+        final Relation rel;
+
+        /** Highest grade of relation source and target, when queued. */
+        final double grade;
+
+        /** Position of relation in the collection of exclusions. */
+        final int rank;
+
+        Candidate (Relation rel,
+                   double grade,
+                   int rank)
+        {
+            this.rel = rel;
+            this.grade = grade;
+            this.rank = rank;
+        }
+
+        @Override
+        public int compareTo (Candidate that)
+        {
+            final int cmp = Double.compare(that.grade, this.grade);
+
+            if (cmp != 0) {
+                return cmp;
+            }
+
+            return Integer.compare(this.rank, that.rank);
+        }
+    }
+
+    //------------//
+    // ClassIndex //
+    //------------//
+    /**
+     * Secondary index which partitions the sig inters by their concrete class.
+     * <p>
+     * It listens to vertex additions and removals, whatever the way they are performed
+     * (addVertex, removeVertex, bulk populating or sig exclusion).
+     * <p>
+     * A class lookup thus browses only the partitions of matching classes, rather than the whole
+     * vertex set.
+     * Each inter is kept with its insertion rank, so that a lookup across several partitions
+     * can report inters in vertex set order, just like a scan of the vertex set would do.
+     * <p>
+     * The index is safe for concurrent use: partitions are concurrent maps, and since their
+     * iteration order is not the insertion order, found inters are always sorted by rank.
+     * <p>
+     * NOTA: Only the class is used as partition key, because it never changes for a given inter.
+     * Shape, staff and bounds can be modified or lazily computed after the inter has been added,
+     * hence queries on them still scan the vertex set.
+     */
+    private static class ClassIndex
+            implements VertexSetListener<Inter>
+    {
+        /** Inters per concrete class, each with its insertion rank. */
+        private final Map<Class<?>, Map<Inter, Long>> partitions = new ConcurrentHashMap<>();
+
+        /** Rank for the next inserted inter. */
+        private final AtomicLong nextRank = new AtomicLong();
+
+        /**
+         * Report the inters whose class matches, and which pass the provided predicate.
+         *
+         * @param classMatch test on concrete inter class
+         * @param predicate  test on each inter of matching class
+         * @return the list of inters found, in vertex set order, perhaps empty but not null
+         */
+        List<Inter> inters (Predicate<Class<?>> classMatch,
+                            Predicate<Inter> predicate)
+        {
+            final List<Map.Entry<Inter, Long>> entries = new ArrayList<>();
+
+            for (Map.Entry<Class<?>, Map<Inter, Long>> partition : partitions.entrySet()) {
+                if (classMatch.test(partition.getKey())) {
+                    for (Map.Entry<Inter, Long> entry : partition.getValue().entrySet()) {
+                        if (predicate.test(entry.getKey())) {
+                            entries.add(entry);
+                        }
+                    }
+                }
+            }
+
+            entries.sort(Map.Entry.comparingByValue());
+
+            final List<Inter> found = new ArrayList<>(entries.size());
+
+            for (Map.Entry<Inter, Long> entry : entries) {
+                found.add(entry.getKey());
+            }
+
+            return found;
+        }
+
+        @Override
+        public void vertexAdded (GraphVertexChangeEvent<Inter> e)
+        {
+            final Inter inter = e.getVertex();
+            partitions.computeIfAbsent(inter.getClass(), c -> new ConcurrentHashMap<>()).put(
+                    inter,
+                    nextRank.getAndIncrement());
+        }
+
+        @Override
+        public void vertexRemoved (GraphVertexChangeEvent<Inter> e)
+        {
+            final Inter inter = e.getVertex();
+            final Map<Inter, Long> partition = partitions.get(inter.getClass());
+
+            if (partition != null) {
+                partition.remove(inter);
+            }
+        }
+    }
+
     //----------//
     // Sequence //
     //----------//
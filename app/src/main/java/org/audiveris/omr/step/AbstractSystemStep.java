@@ -172,6 +172,7 @@ public abstract class AbstractSystemStep<C>
             if (parallel) {
                 // In parallel
                 OmrExecutors.getLowExecutor().invokeAll(tasks);
+                logger.debug("{} {}", this, sheet.getGlyphIndex());
             } else {
                 // In sequence
                 for (Callable<Void> task : tasks) {
@@ -26,7 +26,6 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.SheetStub;
 import org.audiveris.omr.sheet.ui.SheetTab;
-import org.audiveris.omr.util.Memory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,9 +73,6 @@ public class LoadStep
             final int max = constants.maxPixelCount.getValue();
 
             if ((max > 0) && (count > max)) {
-                Memory.gc();
-
-                ///logger.info("Occupied memory: {}", Memory.getValue());
                 final String msg = "Too large image: " + String.format("%,d", count)
                         + " pixels (vs " + String.format("%,d", max) + " max)";
                 stub.decideOnRemoval(msg, false); // This may throw StepException
@@ -95,6 +95,9 @@ public class TesseractOCR
     /** To assign a serial number to each image processing order. */
     private final AtomicInteger serial = new AtomicInteger(0);
 
+    /** Pool of initialized engines. */
+    private final TesseractPool enginePool = new TesseractPool();
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -183,6 +186,19 @@ public class TesseractOCR
         return Collections.emptySortedSet();
     }
 
+    //---------------//
+    // getEnginePool //
+    //---------------//
+    /**
+     * Report the pool of initialized Tesseract engines.
+     *
+     * @return the engine pool
+     */
+    TesseractPool getEnginePool ()
+    {
+        return enginePool;
+    }
+
     //------------------//
     // getMinConfidence //
     //------------------//
@@ -25,22 +25,24 @@ import org.audiveris.omr.WellKnowns;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.text.FontInfo;
 import org.audiveris.omr.text.OcrUtil;
 import org.audiveris.omr.text.TextChar;
 import org.audiveris.omr.text.TextLine;
 import org.audiveris.omr.text.TextWord;
-import static org.audiveris.omr.text.tesseract.TesseractOCR.LANGUAGE_FILE_EXT;
 
 import org.bytedeco.javacpp.BoolPointer;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.IntPointer;
 import org.bytedeco.leptonica.PIX;
+import static org.bytedeco.leptonica.global.leptonica.pixCreate;
 import static org.bytedeco.leptonica.global.leptonica.pixDestroy;
+import static org.bytedeco.leptonica.global.leptonica.pixGetData;
+import static org.bytedeco.leptonica.global.leptonica.pixGetWpl;
 import static org.bytedeco.leptonica.global.leptonica.pixReadMemTiff;
 import org.bytedeco.tesseract.ResultIterator;
 import org.bytedeco.tesseract.TessBaseAPI;
-import static org.bytedeco.tesseract.global.tesseract.OEM_TESSERACT_ONLY;
 import static org.bytedeco.tesseract.global.tesseract.RIL_SYMBOL;
 import static org.bytedeco.tesseract.global.tesseract.RIL_TEXTLINE;
 import static org.bytedeco.tesseract.global.tesseract.RIL_WORD;
@@ -52,8 +54,10 @@ import java.awt.Rectangle;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -61,6 +65,7 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -87,10 +92,10 @@ public class TesseractOrder
     private static final String UTF8 = "UTF-8";
 
     /** Tesseract variable name for white list. */
-    private static final String WHITE_LIST_NAME = "tessedit_char_whitelist";
+    static final String WHITE_LIST_NAME = "tessedit_char_whitelist";
 
     /** Tesseract variable name for black list. */
-    private static final String BLACK_LIST_NAME = "tessedit_char_blacklist";
+    static final String BLACK_LIST_NAME = "tessedit_char_blacklist";
 
     /** To avoid repetitive warnings if OCR binding failed. */
     private static volatile boolean userWarned;
@@ -123,7 +128,7 @@ public class TesseractOrder
     /** Desired handling of layout. */
     private final int segMode;
 
-    /** The dedicated API. */
+    /** The API borrowed from engine pool. */
     private TessBaseAPI api;
 
     /** The image being processed. */
@@ -140,7 +145,7 @@ public class TesseractOrder
      * @param saveImage     True to keep a disk copy of the image
      * @param langSpec      The language(s) specification
      * @param segMode       The desired page segmentation mode
-     * @param bufferedImage The image to process
+     * @param bufferedImage The image to process, preferably of TYPE_BYTE_GRAY
      * @throws UnsatisfiedLinkError When bridge to C++ could not be loaded
      * @throws IOException          When temporary Tiff buffer failed
      * @throws RuntimeException     When PIX image failed
@@ -161,10 +166,16 @@ public class TesseractOrder
         this.langSpec = langSpec;
         this.segMode = segMode;
 
-        // Build a PIX from the image provided
-        final ByteBuffer buf = toTiffBuffer(bufferedImage);
-        buf.position(0);
-        image = pixReadMemTiff(buf, buf.capacity(), 0);
+        // Build a PIX from the image provided, directly from its raster if possible
+        PIX pix = saveImage ? null : toPix(bufferedImage);
+
+        if (pix == null) {
+            final ByteBuffer buf = toTiffBuffer(bufferedImage);
+            buf.position(0);
+            pix = pixReadMemTiff(buf, buf.capacity(), 0);
+        }
+
+        image = pix;
 
         if (image == null) {
             logger.warn("Invalid image {}", label);
@@ -178,7 +189,9 @@ public class TesseractOrder
     // finish //
     //--------//
     /**
-     * Convenient way to cleanup Tesseract resources while ending the current processing
+     * Convenient way to cleanup Tesseract resources while ending the current processing.
+     * <p>
+     * The API, if any, is given back to the engine pool.
      *
      * @param lines the lines found, if any
      * @return the lines found, if nay
@@ -190,7 +203,8 @@ public class TesseractOrder
         }
 
         if (api != null) {
-            api.End();
+            TesseractOCR.getInstance().getEnginePool().giveBack(langSpec, api);
+            api = null;
         }
 
         return lines;
@@ -383,7 +397,7 @@ public class TesseractOrder
     // process //
     //---------//
     /**
-     * Actually allocate a Tesseract API and recognize the image.
+     * Actually borrow a Tesseract API initialized with proper language and recognize the image.
      *
      * @return the sequence of lines found
      */
@@ -393,27 +407,12 @@ public class TesseractOrder
             return Collections.emptyList();
         }
 
-        try {
-            api = new TessBaseAPI();
-
-            // Init API with proper language
-            final Path ocrFolder = TesseractOCR.getInstance().getOcrFolder();
+        final TesseractPool pool = TesseractOCR.getInstance().getEnginePool();
 
-            if (logger.isDebugEnabled()) {
-                logger.info("ocrFolder: {}", ocrFolder);
-                final File langsDir = ocrFolder.toFile();
-                for (File file : langsDir.listFiles()) {
-                    if (file.toString().endsWith(LANGUAGE_FILE_EXT)) {
-                        logger.info("Lang file: {} bytes: {}", file, file.length());
-                    }
-                }
-            }
-
-            if (api.Init(ocrFolder.toString(), langSpec, OEM_TESSERACT_ONLY) != 0) {
-                logger.warn(
-                        "TesseractOrder. Could not initialize TessBaseAPI languages: {} in legacy mode",
-                        langSpec);
+        try {
+            api = pool.borrow(langSpec);
 
+            if (api == null) {
                 return finish(null);
             }
 
@@ -462,6 +461,18 @@ public class TesseractOrder
             }
 
             throw new RuntimeException(ex);
+        } catch (InterruptedException ex) {
+            logger.info("{} OCR interrupted", label);
+            finish(null);
+            Thread.currentThread().interrupt();
+
+            throw new ProcessingCancellationException(ex);
+        } finally {
+            if (api != null) {
+                // Abnormal ending, the engine state is unknown
+                pool.discard(langSpec, api);
+                api = null;
+            }
         }
     }
 
@@ -546,6 +557,70 @@ public class TesseractOrder
         }
     }
 
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-------//
+    // toPix //
+    //-------//
+    /**
+     * Build a Leptonica 8-bit PIX directly from the raster of the provided gray image,
+     * without any image codec round-trip.
+     * <p>
+     * The image may be a sub-image, its raster offsets and scanline stride are taken into account.
+     * <p>
+     * NOTA: Leptonica stores pixels in 32-bit words, the first pixel of a word being in its most
+     * significant byte.
+     *
+     * @param img the provided image
+     * @return the PIX, or null if image is not a byte gray image
+     */
+    private static PIX toPix (BufferedImage img)
+    {
+        if (img.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            return null;
+        }
+
+        final Raster raster = img.getRaster();
+
+        if (!(raster.getSampleModel() instanceof ComponentSampleModel sm)
+                || !(raster.getDataBuffer() instanceof DataBufferByte db)) {
+            return null;
+        }
+
+        final int width = img.getWidth();
+        final int height = img.getHeight();
+        final byte[] data = db.getData();
+        final int stride = sm.getScanlineStride();
+        final int pixelStride = sm.getPixelStride();
+        final int base = db.getOffset() + sm.getOffset(
+                raster.getMinX() - raster.getSampleModelTranslateX(),
+                raster.getMinY() - raster.getSampleModelTranslateY());
+
+        final PIX pix = pixCreate(width, height, 8);
+
+        if (pix == null) {
+            return null;
+        }
+
+        final IntPointer pixData = pixGetData(pix);
+        final int wpl = pixGetWpl(pix);
+        final int[] words = new int[wpl];
+
+        for (int y = 0; y < height; y++) {
+            final int rowStart = base + (y * stride);
+            Arrays.fill(words, 0);
+
+            for (int x = 0; x < width; x++) {
+                final int val = data[rowStart + (x * pixelStride)] & 0xFF;
+                words[x >> 2] |= val << ((3 - (x & 3)) << 3);
+            }
+
+            pixData.position((long) y * wpl).put(words, 0, wpl);
+        }
+
+        return pix;
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
 
     //-----------//
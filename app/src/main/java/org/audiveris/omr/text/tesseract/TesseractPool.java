@@ -0,0 +1,391 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   T e s s e r a c t P o o l                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.text.tesseract;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import static org.audiveris.omr.text.tesseract.TesseractOCR.LANGUAGE_FILE_EXT;
+import static org.audiveris.omr.text.tesseract.TesseractOrder.BLACK_LIST_NAME;
+import static org.audiveris.omr.text.tesseract.TesseractOrder.WHITE_LIST_NAME;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.bytedeco.tesseract.TessBaseAPI;
+import static org.bytedeco.tesseract.global.tesseract.OEM_TESSERACT_ONLY;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class <code>TesseractPool</code> keeps a bounded pool of initialized Tesseract engines,
+ * per language specification.
+ * <p>
+ * Initializing a <code>TessBaseAPI</code> loads the language trained data, which is costly.
+ * Hence, rather than initializing a new engine for every OCR order, an order borrows an engine
+ * already initialized for the desired language specification, and gives it back once done.
+ * The engine is then cleared of any image and recognition results, and of the variables set per
+ * order, but keeps its language data.
+ * <p>
+ * The number of engines per language specification is bounded.
+ * When all engines for a specification are in use, the borrower waits for one to be given back.
+ * <p>
+ * The pool is closed by a JVM shutdown hook, which ends all idle engines and logs pool statistics
+ * at debug level.
+ *
+ * @author Hervé Bitteur
+ */
+class TesseractPool
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(TesseractPool.class);
+
+    /** Tesseract variables set per order, to be reset when an engine is given back. */
+    private static final String[] ORDER_VARIABLES = new String[]{WHITE_LIST_NAME, BLACK_LIST_NAME};
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Engines, per language specification. */
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    /** Borrowings served by an already initialized engine. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Borrowings that needed a new engine. */
+    private final LongAdder misses = new LongAdder();
+
+    /** Set when pool has been closed. */
+    private volatile boolean closed;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>TesseractPool</code> object, to be closed at JVM shutdown.
+     */
+    TesseractPool ()
+    {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "TesseractPool"));
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //--------//
+    // borrow //
+    //--------//
+    /**
+     * Borrow an engine initialized for the provided language specification.
+     * <p>
+     * The engine must later be given back via {@link #giveBack} or {@link #discard}.
+     *
+     * @param langSpec the language(s) specification
+     * @return the engine, or null if no engine could be initialized
+     * @throws InterruptedException if interrupted while waiting for an engine
+     */
+    TessBaseAPI borrow (String langSpec)
+        throws InterruptedException
+    {
+        final Slot slot = slots.computeIfAbsent(langSpec, k -> new Slot());
+
+        while (true) {
+            TessBaseAPI api = slot.idles.poll();
+
+            if (api != null) {
+                hits.increment();
+
+                return api;
+            }
+
+            if (slot.engines.incrementAndGet() <= getMaxEngines()) {
+                misses.increment();
+                api = create(langSpec);
+
+                if (api == null) {
+                    slot.engines.decrementAndGet();
+                }
+
+                logger.debug("{} {}", langSpec, this);
+
+                return api;
+            }
+
+            slot.engines.decrementAndGet();
+
+            // Wait for an engine to be given back
+            api = slot.idles.poll(constants.waitPeriod.getValue(), TimeUnit.MILLISECONDS);
+
+            if (api != null) {
+                hits.increment();
+
+                return api;
+            }
+        }
+    }
+
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Close this pool, by ending all its idle engines.
+     * <p>
+     * Engines still in use are ended when given back.
+     */
+    void close ()
+    {
+        closed = true;
+        logger.debug("Closing {}", this);
+
+        for (Slot slot : slots.values()) {
+            endIdles(slot);
+        }
+    }
+
+    //--------//
+    // create //
+    //--------//
+    /**
+     * Create and initialize a new engine.
+     *
+     * @param langSpec the language(s) specification
+     * @return the initialized engine, or null if failed
+     */
+    private TessBaseAPI create (String langSpec)
+    {
+        final TessBaseAPI api = new TessBaseAPI();
+        final Path ocrFolder = TesseractOCR.getInstance().getOcrFolder();
+
+        if (logger.isDebugEnabled()) {
+            logger.info("ocrFolder: {}", ocrFolder);
+            final File langsDir = ocrFolder.toFile();
+            for (File file : langsDir.listFiles()) {
+                if (file.toString().endsWith(LANGUAGE_FILE_EXT)) {
+                    logger.info("Lang file: {} bytes: {}", file, file.length());
+                }
+            }
+        }
+
+        if (api.Init(ocrFolder.toString(), langSpec, OEM_TESSERACT_ONLY) != 0) {
+            logger.warn(
+                    "TesseractPool. Could not initialize TessBaseAPI languages: {} in legacy mode",
+                    langSpec);
+            api.End();
+
+            return null;
+        }
+
+        return api;
+    }
+
+    //---------//
+    // discard //
+    //---------//
+    /**
+     * Discard an engine borrowed from this pool, which can no longer be trusted.
+     *
+     * @param langSpec the language(s) specification
+     * @param api      the engine to discard
+     */
+    void discard (String langSpec,
+                  TessBaseAPI api)
+    {
+        slots.get(langSpec).engines.decrementAndGet();
+        api.End();
+    }
+
+    //----------//
+    // endIdles //
+    //----------//
+    private void endIdles (Slot slot)
+    {
+        TessBaseAPI api;
+
+        while ((api = slot.idles.poll()) != null) {
+            slot.engines.decrementAndGet();
+            api.End();
+        }
+    }
+
+    //------------//
+    // getHitRate //
+    //------------//
+    /**
+     * Report the ratio of borrowings served by an already initialized engine.
+     *
+     * @return the hit rate, in [0..1]
+     */
+    public double getHitRate ()
+    {
+        final long h = hits.sum();
+        final long total = h + misses.sum();
+
+        return (total == 0) ? 0 : (double) h / total;
+    }
+
+    //---------//
+    // getHits //
+    //---------//
+    /**
+     * Report the number of borrowings served by an already initialized engine.
+     *
+     * @return the count of hits
+     */
+    public long getHits ()
+    {
+        return hits.sum();
+    }
+
+    //---------------//
+    // getMaxEngines //
+    //---------------//
+    private int getMaxEngines ()
+    {
+        final int max = constants.maxEnginesPerLanguage.getValue();
+
+        return (max > 0) ? max : OmrExecutors.getNumberOfCpus();
+    }
+
+    //-----------//
+    // getMisses //
+    //-----------//
+    /**
+     * Report the number of borrowings that required a new engine.
+     *
+     * @return the count of misses
+     */
+    public long getMisses ()
+    {
+        return misses.sum();
+    }
+
+    //---------//
+    // getSize //
+    //---------//
+    /**
+     * Report the current number of engines, whether idle or in use, for all languages.
+     *
+     * @return the count of engines
+     */
+    public int getSize ()
+    {
+        int size = 0;
+
+        for (Slot slot : slots.values()) {
+            size += slot.engines.get();
+        }
+
+        return size;
+    }
+
+    //----------//
+    // giveBack //
+    //----------//
+    /**
+     * Give back an engine borrowed from this pool.
+     * <p>
+     * The engine is cleared of its image and recognition results, and its per-order variables
+     * (character white and black lists) are reset, but it keeps its language data.
+     * If a variable cannot be reset, the engine is discarded.
+     * If the pool has been closed meanwhile, the engine is ended.
+     *
+     * @param langSpec the language(s) specification
+     * @param api      the engine to give back
+     */
+    void giveBack (String langSpec,
+                   TessBaseAPI api)
+    {
+        final Slot slot = slots.get(langSpec);
+        api.Clear();
+
+        for (String name : ORDER_VARIABLES) {
+            if (!api.SetVariable(name, "")) {
+                logger.warn("Could not reset Tesseract variable {}, discarding engine", name);
+                discard(langSpec, api);
+
+                return;
+            }
+        }
+
+        slot.idles.offer(api);
+
+        if (closed) {
+            endIdles(slot);
+        }
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return new StringBuilder("TesseractPool{")
+                .append("engines:").append(getSize())
+                .append(" hits:").append(getHits())
+                .append(" misses:").append(getMisses())
+                .append(String.format(" hitRate:%.2f", getHitRate()))
+                .append('}').toString();
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer maxEnginesPerLanguage = new Constant.Integer(
+                "engines",
+                0,
+                "Maximum Tesseract engines per language specification (0 for number of CPUs)");
+
+        private final Constant.Integer waitPeriod = new Constant.Integer(
+                "ms",
+                100,
+                "Period to check for an available Tesseract engine");
+    }
+
+    //------//
+    // Slot //
+    //------//
+    /**
+     * Engines for one language specification.
+     */
+    private static class Slot
+    {
+        /** Idle engines. */
+        final BlockingQueue<TessBaseAPI> idles = new LinkedBlockingQueue<>();
+
+        /** Count of engines, idle or in use. */
+        final AtomicInteger engines = new AtomicInteger();
+    }
+}
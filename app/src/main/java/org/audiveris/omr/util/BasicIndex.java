@@ -89,6 +89,9 @@ public class BasicIndex<E extends Entity>
     /** List of IDs for declared VIP entities. */
     private List<Integer> vipIds;
 
+    /** Spatial index on entities bounds, if any. */
+    private SpatialIndex<E> spatialIndex;
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -111,6 +114,23 @@ public class BasicIndex<E extends Entity>
 
     //~ Methods ------------------------------------------------------------------------------------
 
+    //--------------------//
+    // enableSpatialIndex //
+    //--------------------//
+    /**
+     * Opt into a spatial index, to speed up rectangle and point lookups.
+     * <p>
+     * This is relevant only for entities whose bounds no longer change once indexed,
+     * or which signal any bounds change via {@link #updateBounds}.
+     *
+     * @param lazy true for lazy mode, false for eager mode
+     * @see SpatialIndex
+     */
+    protected void enableSpatialIndex (boolean lazy)
+    {
+        spatialIndex = new SpatialIndex<>(() -> entities.values().iterator(), lazy);
+    }
+
     //------------//
     // generateId //
     //------------//
@@ -130,6 +150,10 @@ public class BasicIndex<E extends Entity>
     @Override
     public List<E> getContainedEntities (Rectangle rectangle)
     {
+        if (spatialIndex != null) {
+            return spatialIndex.containedEntities(rectangle);
+        }
+
         return Entities.containedEntities(iterator(), rectangle);
     }
 
@@ -139,6 +163,10 @@ public class BasicIndex<E extends Entity>
     @Override
     public List<E> getContainingEntities (Point point)
     {
+        if (spatialIndex != null) {
+            return spatialIndex.containingEntities(point);
+        }
+
         return Entities.containingEntities(iterator(), point);
     }
 
@@ -227,6 +255,10 @@ public class BasicIndex<E extends Entity>
     @Override
     public List<E> getIntersectedEntities (Rectangle rectangle)
     {
+        if (spatialIndex != null) {
+            return spatialIndex.intersectedEntities(rectangle);
+        }
+
         return Entities.intersectedEntities(iterator(), rectangle);
     }
 
@@ -269,6 +301,10 @@ public class BasicIndex<E extends Entity>
 
         entities.put(id, entity);
 
+        if (spatialIndex != null) {
+            spatialIndex.add(entity);
+        }
+
         if (isVipId(id)) {
             entity.setVip(true);
             logger.info("VIP insert {}", entity);
@@ -376,6 +412,10 @@ public class BasicIndex<E extends Entity>
 
         entities.put(id, entity);
 
+        if (spatialIndex != null) {
+            spatialIndex.add(entity);
+        }
+
         if (isVipId(id)) {
             entity.setVip(true);
             logger.info("VIP registered {}", entity);
@@ -390,7 +430,13 @@ public class BasicIndex<E extends Entity>
     @Override
     public E remove (E entity)
     {
-        return entities.remove(entity.getId());
+        final E removed = entities.remove(entity.getId());
+
+        if ((removed != null) && (spatialIndex != null)) {
+            spatialIndex.remove(removed);
+        }
+
+        return removed;
     }
 
     //-------//
@@ -401,6 +447,10 @@ public class BasicIndex<E extends Entity>
     {
         lastId.set(0);
         entities.clear();
+
+        if (spatialIndex != null) {
+            spatialIndex.clear();
+        }
     }
 
     //-------------//
@@ -470,6 +520,17 @@ public class BasicIndex<E extends Entity>
         return sb.toString();
     }
 
+    //--------------//
+    // updateBounds //
+    //--------------//
+    @Override
+    public void updateBounds (E entity)
+    {
+        if ((spatialIndex != null) && (entities.get(entity.getId()) == entity)) {
+            spatialIndex.update(entity);
+        }
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
 
     //--------------//
@@ -177,4 +177,11 @@ public interface EntityIndex<E extends Entity>
      * @param lastId ID assigned
      */
     void setLastId (int lastId);
+
+    /**
+     * Take into account a change in the bounds of the provided entity, if indexed.
+     *
+     * @param entity the modified entity
+     */
+    void updateBounds (E entity);
 }
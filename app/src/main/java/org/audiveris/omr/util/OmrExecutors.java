@@ -29,10 +29,15 @@ import org.audiveris.omr.util.param.Param;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -44,7 +49,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <li>lowExecutor: a fixed nb (#cpu+1) of threads with low priority</li>
  * <li>highExecutor: a fixed nb (#cpu+1) of threads with high priority</li>
  * <li>cachedLowExecutor: a varying nb of threads with low priority</li>
+ * <li>bookExecutor: a fixed nb (#cpu) of threads with low priority, to process book sheets</li>
  * </ul>
+ * <p>
+ * Method {@link #processRange} splits a range of indices into chunks, processed on the high
+ * executor when parallelism is allowed.
  *
  * @author Hervé Bitteur
  */
@@ -69,8 +78,10 @@ public class OmrExecutors
 
     private static final Pool cachedLows = new CachedLows();
 
+    private static final Pool books = new Books();
+
     /** To handle all the pools as a whole. */
-    private static final Collection<Pool> allPools = Arrays.asList(cachedLows, lows, highs);
+    private static final Collection<Pool> allPools = Arrays.asList(books, cachedLows, lows, highs);
 
     /** To prevent parallel creation of pools when closing. */
     private static volatile boolean creationAllowed = true;
@@ -95,6 +106,29 @@ public class OmrExecutors
 
     //~ Static Methods -----------------------------------------------------------------------------
 
+    //----------------//
+    // checkInterrupt //
+    //----------------//
+    private static void checkInterrupt ()
+    {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ProcessingCancellationException("Interrupted");
+        }
+    }
+
+    //-----------------//
+    // getBookExecutor //
+    //-----------------//
+    /**
+     * Return the (single) pool of threads dedicated to the processing of book sheets.
+     *
+     * @return the book pool, allocated if needed
+     */
+    public static ExecutorService getBookExecutor ()
+    {
+        return books.getPool();
+    }
+
     //----------------------//
     // getCachedLowExecutor //
     //----------------------//
@@ -147,6 +181,75 @@ public class OmrExecutors
         return cpuCount;
     }
 
+    //--------------//
+    // processRange //
+    //--------------//
+    /**
+     * Process a range of indices (image rows, run positions, sorted glyphs, ...) by chunks.
+     * <p>
+     * Chunks are processed in parallel on the high executor if parallelism is allowed,
+     * sequentially otherwise.
+     * The chunk processor must be able to run concurrently on disjoint chunks, and must not
+     * itself use the high executor.
+     * Cancellation is checked before every chunk.
+     *
+     * @param first     first index
+     * @param last      last index
+     * @param minChunk  minimum number of indices in a chunk
+     * @param processor the chunk processor
+     * @throws ProcessingCancellationException if the calling thread got interrupted
+     */
+    public static void processRange (int first,
+                                     int last,
+                                     int minChunk,
+                                     RangeProcessor processor)
+    {
+        final int count = last - first + 1;
+        final int chunk = Math.max(
+                Math.max(1, minChunk),
+                count / (constants.chunksPerCpu.getValue() * cpuCount));
+
+        if (!defaultParallelism.getValue() || (count <= chunk)) {
+            for (int min = first; min <= last; min += chunk) {
+                checkInterrupt();
+                processor.process(min, Math.min(last, min + chunk - 1));
+            }
+
+            return;
+        }
+
+        // Chunks run on pool threads, hence check the caller before submitting them
+        checkInterrupt();
+
+        final List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int min = first; min <= last; min += chunk) {
+            final int chunkMin = min;
+            final int chunkMax = Math.min(last, min + chunk - 1);
+            tasks.add( () -> {
+                checkInterrupt();
+                processor.process(chunkMin, chunkMax);
+
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : getHighExecutor().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingCancellationException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException rex) {
+                throw rex;
+            }
+
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
     //---------//
     // restart //
     //---------//
@@ -190,8 +293,50 @@ public class OmrExecutors
         return result;
     }
 
+    //~ Inner Interfaces ---------------------------------------------------------------------------
+
+    //----------------//
+    // RangeProcessor //
+    //----------------//
+    /**
+     * Processing of a chunk of indices.
+     */
+    public static interface RangeProcessor
+    {
+        /**
+         * Process indices from min to max.
+         *
+         * @param min first index
+         * @param max last index
+         */
+        void process (int min,
+                      int max);
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
 
+    //-------//
+    // Books //
+    //-------//
+    /** Fixed pool with low priority, meant for sheets of a book. */
+    private static class Books
+            extends Pool
+    {
+        @Override
+        protected ExecutorService createPool ()
+        {
+            return Executors.newFixedThreadPool(
+                    defaultParallelism.getValue() ? cpuCount : 1,
+                    new Factory(getName(), Thread.MIN_PRIORITY, 0));
+        }
+
+        @Override
+        public String getName ()
+        {
+            return "book";
+        }
+    }
+
     //------------//
     // CachedLows //
     //------------//
@@ -230,6 +375,11 @@ public class OmrExecutors
                 "seconds",
                 60,
                 "Time to wait for terminating tasks");
+
+        private final Constant.Integer chunksPerCpu = new Constant.Integer(
+                "chunks",
+                4,
+                "Target number of range chunks per CPU, for load balancing");
     }
 
     //---------//
@@ -0,0 +1,508 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    S p a t i a l I n d e x                                     //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Class <code>SpatialIndex</code> is a concurrent uniform grid over the bounds of entities,
+ * meant to speed up rectangle and point lookups in an entity index.
+ * <p>
+ * Each entity is registered in all the grid cells its bounds intersect.
+ * A lookup thus browses only the cells covered by the provided rectangle or point, rather than
+ * the whole collection of entities.
+ * Candidates are finally checked against their current bounds, and the resulting list is sorted
+ * by entity ID, just like a linear scan of the entity index would provide.
+ * <p>
+ * Two modes are supported:
+ * <ul>
+ * <li><b>Eager</b>: An entity is registered in the grid as soon as it is added.
+ * This is meant for entities whose bounds are known and fixed when they get indexed,
+ * like glyphs.
+ * <li><b>Lazy</b>: An added entity is just kept as pending, and gets registered in the existing
+ * grid cells on the next lookup, provided its bounds are known by then.
+ * This is meant for entities which are indexed before being completed, like lag sections which
+ * get their ID before their runs.
+ * </ul>
+ * An indexed entity whose bounds change must be signalled via {@link #update}, otherwise it
+ * would remain in the cells of its former bounds and be missed by lookups.
+ * In lazy mode, the entity is simply put back as pending, so that the many updates of a
+ * section being built cost no grid browsing.
+ * <p>
+ * Removal is always incremental.
+ * The grid is rebuilt from the entity index only when first used or explicitly invalidated
+ * (after a bulk change).
+ *
+ * @param <E> precise type for indexed entities
+ * @author Hervé Bitteur
+ */
+public class SpatialIndex<E extends Entity>
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Provider of all indexed entities, used to rebuild the grid. */
+    private final Supplier<Iterator<E>> source;
+
+    /** True for lazy mode. */
+    private final boolean lazy;
+
+    /** Side of a grid cell. */
+    private final int cellSize;
+
+    /** Entities (by ID) registered in each non-empty cell. */
+    private final Map<Long, Map<Integer, E>> cells = new ConcurrentHashMap<>();
+
+    /** Bounds used when each entity (by ID) was registered. */
+    private final Map<Integer, Rectangle> boxes = new ConcurrentHashMap<>();
+
+    /** Entities (by ID) added in lazy mode and not yet registered. */
+    private final Map<Integer, E> pendings = new ConcurrentHashMap<>();
+
+    /** Lock to exclude updates while grid is being rebuilt. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Is the grid consistent with the entity index?. */
+    private volatile boolean valid;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>SpatialIndex</code> object.
+     * <p>
+     * The grid starts invalid, so that it gets built from the source on first lookup.
+     *
+     * @param source provider of an iterator on all indexed entities
+     * @param lazy   true for lazy mode, false for eager mode
+     */
+    public SpatialIndex (Supplier<Iterator<E>> source,
+                         boolean lazy)
+    {
+        this.source = source;
+        this.lazy = lazy;
+        cellSize = constants.cellSize.getValue();
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-----//
+    // add //
+    //-----//
+    /**
+     * Take into account an entity just added to the entity index.
+     *
+     * @param entity the added entity
+     */
+    public void add (E entity)
+    {
+        if (lazy) {
+            pendings.put(entity.getId(), entity);
+
+            return;
+        }
+
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+
+        try {
+            register(entity);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    //------------//
+    // candidates //
+    //------------//
+    /**
+     * Report the entities registered in the cells covered by the provided rectangle and
+     * which satisfy the provided predicate.
+     *
+     * @param rect      the rectangle to cover
+     * @param predicate the final check on every candidate
+     * @return the entities found, sorted by ID, perhaps empty but not null
+     */
+    private List<E> candidates (Rectangle rect,
+                                Predicate<E> predicate)
+    {
+        if (!valid) {
+            rebuild();
+        } else if (!pendings.isEmpty()) {
+            registerPendings();
+        }
+
+        final Map<Integer, E> found = new TreeMap<>();
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+
+        try {
+            final int x1 = Math.floorDiv(rect.x, cellSize);
+            final int y1 = Math.floorDiv(rect.y, cellSize);
+            final int x2 = Math.floorDiv(rect.x + Math.max(rect.width, 1) - 1, cellSize);
+            final int y2 = Math.floorDiv(rect.y + Math.max(rect.height, 1) - 1, cellSize);
+
+            if (((long) (x2 - x1 + 1) * (y2 - y1 + 1)) > cells.size()) {
+                // Rectangle covers more cells than populated ones: browse populated cells
+                for (Map<Integer, E> cell : cells.values()) {
+                    collect(cell, predicate, found);
+                }
+            } else {
+                for (int cy = y1; cy <= y2; cy++) {
+                    for (int cx = x1; cx <= x2; cx++) {
+                        final Map<Integer, E> cell = cells.get(key(cx, cy));
+
+                        if (cell != null) {
+                            collect(cell, predicate, found);
+                        }
+                    }
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        if (found.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return new ArrayList<>(found.values());
+    }
+
+    //-------//
+    // clear //
+    //-------//
+    /**
+     * Clear the grid, consistently with an empty entity index.
+     */
+    public void clear ()
+    {
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+
+        try {
+            cells.clear();
+            boxes.clear();
+            pendings.clear();
+            valid = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    //-------------------//
+    // containedEntities //
+    //-------------------//
+    /**
+     * Report all entities contained in the provided rectangle.
+     *
+     * @param rect the containing rectangle
+     * @return the entities found, sorted by ID, perhaps empty but not null
+     */
+    public List<E> containedEntities (Rectangle rect)
+    {
+        return candidates(rect, e -> {
+            final Rectangle bounds = e.getBounds();
+
+            return (bounds != null) && rect.contains(bounds);
+        });
+    }
+
+    //--------------------//
+    // containingEntities //
+    //--------------------//
+    /**
+     * Report all entities that contain the provided point.
+     *
+     * @param point the provided point
+     * @return the entities found, sorted by ID, perhaps empty but not null
+     */
+    public List<E> containingEntities (Point point)
+    {
+        return candidates(new Rectangle(point.x, point.y, 1, 1), e -> e.contains(point));
+    }
+
+    //---------------------//
+    // intersectedEntities //
+    //---------------------//
+    /**
+     * Report all entities that intersect the provided rectangle.
+     *
+     * @param rect the intersecting rectangle
+     * @return the entities found, sorted by ID, perhaps empty but not null
+     */
+    public List<E> intersectedEntities (Rectangle rect)
+    {
+        return candidates(rect, e -> {
+            final Rectangle bounds = e.getBounds();
+
+            return (bounds != null) && rect.intersects(bounds);
+        });
+    }
+
+    //------------//
+    // invalidate //
+    //------------//
+    /**
+     * Flag the grid as no longer consistent with the entity index, so that it gets
+     * rebuilt on next lookup.
+     * <p>
+     * This is meant for bulk changes only, since a rebuild browses the whole entity index.
+     */
+    public void invalidate ()
+    {
+        valid = false;
+    }
+
+    //---------//
+    // rebuild //
+    //---------//
+    private void rebuild ()
+    {
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+
+        try {
+            if (valid) {
+                return; // Already rebuilt by another thread
+            }
+
+            cells.clear();
+            boxes.clear();
+            pendings.clear();
+            valid = true; // Set before browsing, so that any concurrent addition invalidates
+
+            for (Iterator<E> it = source.get(); it.hasNext();) {
+                final E entity = it.next();
+
+                if (entity != null) {
+                    register(entity);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    //----------//
+    // register //
+    //----------//
+    private void register (E entity)
+    {
+        final int id = entity.getId();
+        unregister(id);
+
+        final Rectangle box = entity.getBounds();
+
+        if (box == null) {
+            return;
+        }
+
+        boxes.put(id, box);
+
+        final int x2 = Math.floorDiv(box.x + Math.max(box.width, 1) - 1, cellSize);
+        final int y2 = Math.floorDiv(box.y + Math.max(box.height, 1) - 1, cellSize);
+
+        for (int cy = Math.floorDiv(box.y, cellSize); cy <= y2; cy++) {
+            for (int cx = Math.floorDiv(box.x, cellSize); cx <= x2; cx++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new ConcurrentHashMap<>()).put(id, entity);
+            }
+        }
+    }
+
+    //------------------//
+    // registerPendings //
+    //------------------//
+    /**
+     * Register the pending entities whose bounds are now known.
+     * Entities with no bounds yet remain pending.
+     */
+    private void registerPendings ()
+    {
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+
+        try {
+            for (E entity : pendings.values()) {
+                if ((entity.getBounds() != null) && pendings.remove(entity.getId(), entity)) {
+                    register(entity);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    //--------//
+    // remove //
+    //--------//
+    /**
+     * Take into account an entity just removed from the entity index.
+     *
+     * @param entity the removed entity
+     */
+    public void remove (E entity)
+    {
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+
+        try {
+            pendings.remove(entity.getId());
+            unregister(entity.getId());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return new StringBuilder(getClass().getSimpleName()).append('{')
+                .append(lazy ? "lazy" : "eager")
+                .append(" cells:").append(cells.size())
+                .append(" entities:").append(boxes.size())
+                .append(" pendings:").append(pendings.size())
+                .append(valid ? "" : " invalid")
+                .append('}').toString();
+    }
+
+    //------------//
+    // unregister //
+    //------------//
+    private void unregister (int id)
+    {
+        final Rectangle box = boxes.remove(id);
+
+        if (box == null) {
+            return;
+        }
+
+        final int x2 = Math.floorDiv(box.x + Math.max(box.width, 1) - 1, cellSize);
+        final int y2 = Math.floorDiv(box.y + Math.max(box.height, 1) - 1, cellSize);
+
+        for (int cy = Math.floorDiv(box.y, cellSize); cy <= y2; cy++) {
+            for (int cx = Math.floorDiv(box.x, cellSize); cx <= x2; cx++) {
+                final Map<Integer, E> cell = cells.get(key(cx, cy));
+
+                if (cell != null) {
+                    cell.remove(id);
+                }
+            }
+        }
+    }
+
+    //--------//
+    // update //
+    //--------//
+    /**
+     * Take into account a change in the bounds of an indexed entity.
+     *
+     * @param entity the modified entity
+     */
+    public void update (E entity)
+    {
+        if (!valid) {
+            return; // Entity will be registered with its current bounds on rebuild
+        }
+
+        if (lazy) {
+            pendings.put(entity.getId(), entity);
+
+            return;
+        }
+
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+
+        try {
+            register(entity);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //---------//
+    // collect //
+    //---------//
+    private static <E extends Entity> void collect (Map<Integer, E> cell,
+                                                    Predicate<E> predicate,
+                                                    Map<Integer, E> found)
+    {
+        for (Map.Entry<Integer, E> entry : cell.entrySet()) {
+            final Integer id = entry.getKey();
+
+            if (!found.containsKey(id)) {
+                final E entity = entry.getValue();
+
+                if (predicate.test(entity)) {
+                    found.put(id, entity);
+                }
+            }
+        }
+    }
+
+    //-----//
+    // key //
+    //-----//
+    private static long key (int cx,
+                             int cy)
+    {
+        return (((long) cx) << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+        private final Constant.Integer cellSize = new Constant.Integer(
+                "Pixels",
+                128,
+                "Side of a cell in entities spatial index");
+    }
+}
@@ -211,6 +211,16 @@ public interface Table
             }
         }
 
+        /**
+         * Tell whether this table is a view on another table.
+         *
+         * @return true for a view
+         */
+        public boolean isView ()
+        {
+            return roi != null;
+        }
+
         /**
          * Print the lines of abscissa values for the table.
          *
@@ -388,6 +398,28 @@ public interface Table
             data = new short[width * height];
         }
 
+        /**
+         * Creates a table backed by the first <code>width * height</code> cells of the provided
+         * array, which can thus be reused for a sequence of tables.
+         *
+         * @param data   the backing array, perhaps larger than needed
+         * @param width  table width
+         * @param height table height
+         */
+        public Short (short[] data,
+                      int width,
+                      int height)
+        {
+            super(width, height, null);
+
+            if (data.length < (width * height)) {
+                throw new IllegalArgumentException(
+                        "Backing array too small " + data.length + " for " + width + "x" + height);
+            }
+
+            this.data = data;
+        }
+
         protected Short (Short table,
                          Rectangle roi)
         {
@@ -399,7 +431,7 @@ public interface Table
         public void fill (int val)
         {
             if (roi == null) {
-                Arrays.fill(data, (short) val);
+                Arrays.fill(data, 0, width * height, (short) val);
             } else {
                 super.fill(val);
             }
@@ -412,7 +444,7 @@ public interface Table
 
             if (roi == null) {
                 copy = new Short(width, height);
-                System.arraycopy(data, 0, copy.data, 0, data.length);
+                System.arraycopy(data, 0, copy.data, 0, width * height);
             } else {
                 checkRoi(roi);
 
@@ -445,6 +477,14 @@ public interface Table
             return data[(y * width) + x];
         }
 
+        /**
+         * Report the underlying array.
+         * <p>
+         * NOTA: If the table is backed by a shared array, the array may be longer than
+         * <code>width * height</code>.
+         *
+         * @return the underlying array
+         */
         public short[] getValues ()
         {
             if (roi != null) {
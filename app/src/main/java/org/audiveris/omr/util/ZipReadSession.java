@@ -0,0 +1,218 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   Z i p R e a d S e s s i o n                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Class <code>ZipReadSession</code> provides a shared, reference-counted, read access to a zip
+ * file system.
+ * <p>
+ * The underlying zip file system is opened on first {@link #acquire(Path)} and kept open across
+ * subsequent read accesses, so that the zip central directory is parsed only once.
+ * Any number of readers can use the session concurrently, each read access being bracketed by
+ * {@link #acquire(Path)} and {@link #release()}:
+ *
+ * <pre>
+ * final Path root = session.acquire(zipPath);
+ * try {
+ *     // read from root...
+ * } finally {
+ *     session.release();
+ * }
+ * </pre>
+ * <p>
+ * Before writing to the zip file, a writer must call {@link #lockForWrite()}, which waits for
+ * on-going reads to complete and closes the cached file system, and {@link #unlockForWrite()}
+ * once writing is over.
+ * <p>
+ * NOTA: The cached file system is opened via its path (not its URI), so that it does not
+ * conflict with other file systems opened on the same zip file by {@link ZipFileSystem}.
+ *
+ * @author Hervé Bitteur
+ */
+public class ZipReadSession
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipReadSession.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Readers share the read lock, writers get the write lock. */
+    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+
+    /** Cached file system, if any. */
+    private FileSystem fileSystem;
+
+    /** Path of the zip file behind cached file system. */
+    private Path zipPath;
+
+    /** Number of actual openings, for statistics. */
+    private int openings;
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //---------//
+    // acquire //
+    //---------//
+    /**
+     * Acquire read access to the zip file system.
+     * <p>
+     * Each successful call must be balanced by a call to {@link #release()}.
+     *
+     * @param zipPath path to zip file
+     * @return the root path of the (zipped) file system
+     * @throws IOException if zip file system could not be opened
+     */
+    public Path acquire (Path zipPath)
+        throws IOException
+    {
+        Objects.requireNonNull(zipPath, "ZipReadSession.acquire: zipPath is null");
+        rwLock.readLock().lock();
+
+        try {
+            return getRoot(zipPath);
+        } catch (IOException | RuntimeException ex) {
+            rwLock.readLock().unlock();
+            throw ex;
+        }
+    }
+
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Close the cached file system, if any, once on-going reads are completed.
+     */
+    public void close ()
+    {
+        lockForWrite();
+        unlockForWrite();
+    }
+
+    //---------//
+    // closeFs //
+    //---------//
+    private synchronized void closeFs ()
+    {
+        if (fileSystem != null) {
+            try {
+                fileSystem.close();
+                logger.debug("Closed read session on {}", zipPath);
+            } catch (IOException ex) {
+                logger.warn("Error closing {} {}", zipPath, ex.toString(), ex);
+            }
+
+            fileSystem = null;
+            zipPath = null;
+        }
+    }
+
+    //-------------//
+    // getOpenings //
+    //-------------//
+    /**
+     * Report how many times the zip file system has actually been opened.
+     *
+     * @return the count of openings
+     */
+    public synchronized int getOpenings ()
+    {
+        return openings;
+    }
+
+    //---------//
+    // getRoot //
+    //---------//
+    private synchronized Path getRoot (Path zipPath)
+        throws IOException
+    {
+        if ((fileSystem != null) && fileSystem.isOpen()) {
+            if (zipPath.equals(this.zipPath)) {
+                return fileSystem.getPath(fileSystem.getSeparator());
+            }
+
+            // Zip file has been renamed without any write, other readers may be active
+            throw new IllegalStateException("Read session on " + this.zipPath + " not " + zipPath);
+        }
+
+        fileSystem = FileSystems.newFileSystem(zipPath, (ClassLoader) null);
+        this.zipPath = zipPath;
+        openings++;
+        logger.debug("Opened read session #{} on {}", openings, zipPath);
+
+        return fileSystem.getPath(fileSystem.getSeparator());
+    }
+
+    //--------------//
+    // lockForWrite //
+    //--------------//
+    /**
+     * Get exclusive access to the zip file, for writing.
+     * <p>
+     * This waits for on-going reads to complete, and closes the cached file system.
+     * It must be balanced by a call to {@link #unlockForWrite()}.
+     */
+    public void lockForWrite ()
+    {
+        rwLock.writeLock().lock();
+        closeFs();
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Release a read access previously acquired.
+     */
+    public void release ()
+    {
+        rwLock.readLock().unlock();
+    }
+
+    //----------------//
+    // unlockForWrite //
+    //----------------//
+    /**
+     * Release exclusive access to the zip file.
+     * <p>
+     * Any file system opened meanwhile by the writer thread itself is closed, since it may not
+     * reflect the written file.
+     */
+    public void unlockForWrite ()
+    {
+        try {
+            closeFs();
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                G l y p h C l u s t e r T e s t                                 //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph;
+
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.Run;
+import org.audiveris.omr.run.RunTable;
+
+import org.jgrapht.graph.SimpleGraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Class <code>GlyphClusterTest</code> checks that cluster decomposition evaluates every
+ * connected subset of parts exactly once.
+ *
+ * @author Hervé Bitteur
+ */
+public class GlyphClusterTest
+{
+    /**
+     * Count connected subsets of the graph, by brute force on all subsets.
+     */
+    private int countConnectedSubsets (List<Glyph> parts,
+                                       SimpleGraph<Glyph, GlyphLink> graph)
+    {
+        int count = 0;
+
+        for (int mask = 1; mask < (1 << parts.size()); mask++) {
+            final Set<Glyph> set = new HashSet<>();
+
+            for (int i = 0; i < parts.size(); i++) {
+                if ((mask & (1 << i)) != 0) {
+                    set.add(parts.get(i));
+                }
+            }
+
+            // Flood from one member
+            final Set<Glyph> reached = new HashSet<>();
+            final List<Glyph> queue = new ArrayList<>();
+            queue.add(set.iterator().next());
+            reached.add(queue.get(0));
+
+            while (!queue.isEmpty()) {
+                final Glyph glyph = queue.remove(queue.size() - 1);
+
+                for (GlyphLink link : graph.edgesOf(glyph)) {
+                    final Glyph other = (graph.getEdgeSource(link) == glyph) ? graph
+                            .getEdgeTarget(link) : graph.getEdgeSource(link);
+
+                    if (set.contains(other) && reached.add(other)) {
+                        queue.add(other);
+                    }
+                }
+            }
+
+            if (reached.size() == set.size()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private SimpleGraph<Glyph, GlyphLink> createGraph (int count,
+                                                       long seed)
+    {
+        final Random random = new Random(seed);
+        final SimpleGraph<Glyph, GlyphLink> graph = new SimpleGraph<>(GlyphLink.class);
+        final List<Glyph> parts = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            // Distinct glyphs, with distinct weights
+            final RunTable table = new RunTable(Orientation.HORIZONTAL, i + 1, 1);
+            table.addRun(0, new Run(0, i + 1));
+
+            final Glyph glyph = new Glyph(10 * i, 0, table);
+            parts.add(glyph);
+            graph.addVertex(glyph);
+        }
+
+        for (int i = 1; i < count; i++) {
+            // Keep the graph connected, then add a few random edges
+            final Glyph other = parts.get(random.nextInt(i));
+            graph.addEdge(parts.get(i), other, new GlyphLink.Nearby(1));
+
+            for (int j = 0; j < i; j++) {
+                if ((random.nextInt(4) == 0) && !graph.containsEdge(parts.get(i), parts.get(j))) {
+                    graph.addEdge(parts.get(i), parts.get(j), new GlyphLink.Nearby(1));
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    @Test
+    public void testDecompose ()
+    {
+        for (int count = 1; count <= 9; count++) {
+            final SimpleGraph<Glyph, GlyphLink> graph = createGraph(count, count);
+            final List<Set<Glyph>> evaluated = new ArrayList<>();
+
+            new GlyphCluster(new GlyphCluster.AbstractAdapter(graph)
+            {
+                @Override
+                public void evaluateGlyph (Glyph glyph,
+                                           Set<Glyph> parts)
+                {
+                    evaluated.add(new LinkedHashSet<>(parts));
+                }
+            }, null).decompose();
+
+            assertEquals(
+                    "Duplicate subsets",
+                    evaluated.size(),
+                    new HashSet<>(evaluated).size());
+            assertEquals(
+                    "Missing subsets",
+                    countConnectedSubsets(new ArrayList<>(graph.vertexSet()), graph),
+                    evaluated.size());
+        }
+    }
+
+    @Test
+    public void testTooHeavy ()
+    {
+        final SimpleGraph<Glyph, GlyphLink> graph = createGraph(8, 3);
+        final List<Set<Glyph>> evaluated = new ArrayList<>();
+
+        new GlyphCluster(new GlyphCluster.AbstractAdapter(graph)
+        {
+            @Override
+            public void evaluateGlyph (Glyph glyph,
+                                       Set<Glyph> parts)
+            {
+                evaluated.add(parts);
+            }
+
+            @Override
+            public boolean isTooHeavy (int weight)
+            {
+                return weight > 10;
+            }
+        }, null).decompose();
+
+        for (Set<Glyph> set : evaluated) {
+            assertTrue(Glyphs.weightOf(set) <= 10);
+        }
+    }
+}
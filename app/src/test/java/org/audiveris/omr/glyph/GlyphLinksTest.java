@@ -0,0 +1,159 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                  G l y p h L i n k s T e s t                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph;
+
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.RunTable;
+
+import org.jgrapht.graph.SimpleGraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Check that {@link Glyphs#buildLinks} gives the same graph as the former sequential
+ * implementation, which allocated a new distance table per glyph.
+ *
+ * @author Hervé Bitteur
+ */
+public class GlyphLinksTest
+{
+    //-----------------//
+    // buildLinksNaive //
+    //-----------------//
+    /**
+     * Former implementation of Glyphs.buildLinks.
+     */
+    private static SimpleGraph<Glyph, GlyphLink> buildLinksNaive (List<Glyph> glyphs,
+                                                                  double maxGap)
+    {
+        final int gapInt = (int) Math.ceil(maxGap);
+        final List<Glyph> sortedGlyphs = new ArrayList<>(glyphs);
+        Collections.sort(sortedGlyphs, Glyphs.byAbscissa);
+
+        final SimpleGraph<Glyph, GlyphLink> graph = new SimpleGraph<>(GlyphLink.class);
+
+        for (Glyph glyph : sortedGlyphs) {
+            graph.addVertex(glyph);
+        }
+
+        for (int i = 0; i < sortedGlyphs.size(); i++) {
+            final Glyph glyph = sortedGlyphs.get(i);
+            final Rectangle fatBox = glyph.getBounds();
+            fatBox.grow(gapInt, gapInt);
+
+            final int xBreak = fatBox.x + fatBox.width;
+            GlyphDistances glyphDistances = null;
+
+            for (Glyph other : sortedGlyphs.subList(i + 1, sortedGlyphs.size())) {
+                final Rectangle otherBox = other.getBounds();
+
+                if (!fatBox.intersects(otherBox)) {
+                    continue;
+                } else if (otherBox.x > xBreak) {
+                    break;
+                }
+
+                if (glyphDistances == null) {
+                    glyphDistances = new GlyphDistances(glyph, fatBox);
+                }
+
+                final double dist = glyphDistances.distanceTo(other);
+
+                if ((dist <= maxGap) && !glyph.equals(other)) {
+                    graph.addEdge(glyph, other, new GlyphLink.Nearby(dist));
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    //-------------//
+    // createGlyph //
+    //-------------//
+    private static Glyph createGlyph (Random random)
+    {
+        final Orientation orientation = random.nextBoolean() ? Orientation.HORIZONTAL
+                : Orientation.VERTICAL;
+        final int width = 1 + random.nextInt(25);
+        final int height = 1 + random.nextInt(25);
+        final RunTable table = new RunTable(orientation, width, height);
+        final int length = orientation.isVertical() ? height : width;
+
+        for (int iSeq = 0; iSeq < table.getSize(); iSeq++) {
+            final int start = random.nextInt(length);
+            table.addRun(iSeq, start, 1 + random.nextInt(length - start));
+        }
+
+        return new Glyph(random.nextInt(600), random.nextInt(150), table);
+    }
+
+    //--------//
+    // render //
+    //--------//
+    /**
+     * Render graph edges in their order, with vertices as indices in provided list.
+     */
+    private static List<String> render (SimpleGraph<Glyph, GlyphLink> graph,
+                                        List<Glyph> glyphs)
+    {
+        final List<String> edges = new ArrayList<>();
+
+        for (GlyphLink link : graph.edgeSet()) {
+            edges.add(
+                    glyphs.indexOf(graph.getEdgeSource(link)) + "-"
+                            + glyphs.indexOf(graph.getEdgeTarget(link)) + ":"
+                            + ((GlyphLink.Nearby) link).getDistance());
+        }
+
+        return edges;
+    }
+
+    @Test
+    public void testRandomGlyphs ()
+    {
+        for (long seed = 1; seed <= 10; seed++) {
+            final Random random = new Random(seed);
+            final List<Glyph> glyphs = new ArrayList<>();
+
+            for (int i = 0; i < 400; i++) {
+                glyphs.add(createGlyph(random));
+            }
+
+            final double maxGap = 1 + (random.nextInt(8) / 2.0);
+            final SimpleGraph<Glyph, GlyphLink> expected = buildLinksNaive(glyphs, maxGap);
+            final SimpleGraph<Glyph, GlyphLink> actual = Glyphs.buildLinks(glyphs, maxGap);
+
+            assertEquals("seed " + seed, expected.vertexSet(), actual.vertexSet());
+            assertTrue("seed " + seed, !expected.edgeSet().isEmpty());
+            assertEquals("seed " + seed, render(expected, glyphs), render(actual, glyphs));
+        }
+    }
+}
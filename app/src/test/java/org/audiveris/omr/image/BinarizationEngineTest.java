@@ -0,0 +1,94 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                          B i n a r i z a t i o n E n g i n e T e s t                           //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import ij.process.ByteProcessor;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Class <code>BinarizationEngineTest</code> checks that binarization of a whole image
+ * gives the same result as the per-pixel filter decision.
+ *
+ * @author Hervé Bitteur
+ */
+public class BinarizationEngineTest
+{
+    /**
+     * Build a gray image with some dark strokes over a noisy varying background.
+     */
+    private ByteProcessor createImage (int width,
+                                       int height)
+    {
+        final Random random = new Random(456);
+        final ByteProcessor img = new ByteProcessor(width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int back = 150 + ((100 * x) / width) + random.nextInt(6);
+                final boolean stroke = ((y % 17) < 2) || ((x % 41) < 3);
+                img.set(x, y, stroke ? random.nextInt(80) : Math.min(255, back));
+            }
+        }
+
+        return img;
+    }
+
+    private void check (PixelFilter filter,
+                        ByteProcessor result)
+    {
+        for (int y = 0; y < result.getHeight(); y++) {
+            for (int x = 0; x < result.getWidth(); x++) {
+                final int expected = filter.isFore(x, y) ? PixelSource.FOREGROUND
+                        : PixelSource.BACKGROUND;
+                assertEquals("x:" + x + " y:" + y, expected, result.get(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testAdaptive ()
+    {
+        final ByteProcessor source = createImage(331, 277);
+        final RandomFilter filter = new RandomFilter(source, 0.7, 0.9);
+        check(filter, filter.filteredImage());
+    }
+
+    @Test
+    public void testAdaptiveSmall ()
+    {
+        final ByteProcessor source = createImage(23, 11);
+        final RandomFilter filter = new RandomFilter(source, 0.7, 0.9);
+        check(filter, filter.filteredImage());
+    }
+
+    @Test
+    public void testGlobal ()
+    {
+        final ByteProcessor source = createImage(331, 277);
+        final GlobalFilter filter = new GlobalFilter(source, 140);
+        check(filter, filter.filteredImage());
+    }
+}
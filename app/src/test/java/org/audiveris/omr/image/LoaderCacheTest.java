@@ -0,0 +1,83 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 L o a d e r C a c h e T e s t                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.net.URL;
+import java.nio.file.Path;
+
+/**
+ * Class <code>LoaderCacheTest</code> checks that images loaded through a shared loader,
+ * whether prefetched or not, are identical to images loaded directly.
+ *
+ * @author Hervé Bitteur
+ */
+public class LoaderCacheTest
+{
+    private static byte[] pixelsOf (BufferedImage img)
+    {
+        return ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+    }
+
+    @Test
+    public void testAcquire ()
+        throws Exception
+    {
+        final URL url = getClass().getResource("Dichterliebe01.pdf");
+        final Path path = Path.of(url.toURI());
+
+        // Direct loading
+        final ImageLoading.Loader direct = ImageLoading.getLoader(path);
+        final BufferedImage expected1 = direct.getImage(1);
+        final BufferedImage expected2 = direct.getImage(2);
+        direct.dispose();
+
+        // Shared loading
+        final LoaderCache cache = LoaderCache.getInstance();
+        final long hits = cache.getHits();
+        final long misses = cache.getMisses();
+
+        final ImageLoading.Loader first = cache.acquire(path);
+        assertNotNull(first);
+        assertEquals(2, first.getImageCount());
+        assertArrayEquals(pixelsOf(expected1), pixelsOf(first.getImage(1)));
+        first.dispose();
+
+        final ImageLoading.Loader second = cache.acquire(path);
+        assertArrayEquals(pixelsOf(expected2), pixelsOf(second.getImage(2))); // Perhaps prefetched
+        assertArrayEquals(pixelsOf(expected1), pixelsOf(second.getImage(1))); // Not prefetched
+        second.dispose();
+
+        assertEquals(misses + 1, cache.getMisses());
+        assertEquals(hits + 1, cache.getHits());
+
+        final int size = cache.getSize();
+        cache.evict(path);
+        assertEquals(size - 1, cache.getSize());
+    }
+}
@@ -28,6 +28,8 @@ import org.junit.Test;
 import java.awt.image.BufferedImage;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Class <code>MedianGrayFilterTest</code>
@@ -118,6 +120,35 @@ public class MedianGrayFilterTest
         }
     }
 
+    @Test
+    public void testProcess_random ()
+    {
+        System.out.println("\nprocess_random");
+
+        final Random random = new Random(123);
+        final BufferedImage image = new BufferedImage(
+                301,
+                257,
+                BufferedImage.TYPE_BYTE_GRAY);
+        final WritableRaster out = image.getRaster();
+        final int[] pixel = new int[1];
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                pixel[0] = random.nextInt(256);
+                out.setPixel(x, y, pixel);
+            }
+        }
+
+        for (int radius = 1; radius <= 4; radius++) {
+            final BufferedImage result = new MedianGrayFilter(radius).filter(image);
+
+            if (!areEqual(referenceFilter(image, radius), result)) {
+                fail("Images are not equal for radius " + radius);
+            }
+        }
+    }
+
     @Ignore
     @Test
     public void testProcess_white_1 ()
@@ -233,4 +264,41 @@ public class MedianGrayFilterTest
             System.out.println();
         }
     }
+
+    /**
+     * Straightforward median, computed from scratch for every pixel.
+     */
+    private BufferedImage referenceFilter (BufferedImage image,
+                                           int radius)
+    {
+        final Raster in = image.getRaster();
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        final WritableRaster out = img.getRaster();
+        final int[] pixel = new int[1];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int rad = Math.min(
+                        radius,
+                        Math.min(Math.min(x, y), Math.min(width - 1 - x, height - 1 - y)));
+                final int side = (2 * rad) + 1;
+                final int[] values = new int[side * side];
+                int n = 0;
+
+                for (int j = y - rad; j <= (y + rad); j++) {
+                    for (int i = x - rad; i <= (x + rad); i++) {
+                        values[n++] = in.getPixel(i, j, pixel)[0];
+                    }
+                }
+
+                Arrays.sort(values);
+                pixel[0] = values[values.length - ((values.length + 1) / 2)];
+                out.setPixel(x, y, pixel);
+            }
+        }
+
+        return img;
+    }
 }
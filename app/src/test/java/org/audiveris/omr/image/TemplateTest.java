@@ -0,0 +1,113 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    T e m p l a t e T e s t                                     //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import static org.audiveris.omr.image.ChamferDistance.VALUE_UNKNOWN;
+import org.audiveris.omr.glyph.Shape;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class <code>TemplateTest</code> checks that packed template evaluation gives the same
+ * results as the generic evaluation.
+ *
+ * @author Hervé Bitteur
+ */
+public class TemplateTest
+{
+    private static final int TPL_WIDTH = 12;
+
+    private static final int TPL_HEIGHT = 9;
+
+    @Test
+    public void testPackedEvaluation ()
+    {
+        final Random random = new Random(456);
+        final Template template = createTemplate(random);
+        final DistanceTable.Short table = createTable(random, 80, 50);
+
+        // A view on the whole table is not flat, hence evaluated the generic way
+        final DistanceTable view = table.getView(new Rectangle(0, 0, 80, 50));
+
+        for (int y = -5; y < 55; y++) {
+            for (int x = -5; x < 85; x++) {
+                assertEquals(
+                        "evaluate at " + x + "," + y,
+                        template.evaluate(x, y, null, view),
+                        template.evaluate(x, y, null, table),
+                        0);
+                assertEquals(
+                        template.evaluateHole(x, y, null, view),
+                        template.evaluateHole(x, y, null, table),
+                        0);
+            }
+        }
+    }
+
+    //-------------//
+    // createTable //
+    //-------------//
+    private DistanceTable.Short createTable (Random random,
+                                             int width,
+                                             int height)
+    {
+        final DistanceTable.Short table = new DistanceTable.Short(width, height, 3);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int r = random.nextInt(10);
+                table.setValue(x, y, (r == 0) ? VALUE_UNKNOWN : ((r < 5) ? 0 : r));
+            }
+        }
+
+        return table;
+    }
+
+    //----------------//
+    // createTemplate //
+    //----------------//
+    private Template createTemplate (Random random)
+    {
+        final List<PixelDistance> keyPoints = new ArrayList<>();
+
+        for (int y = 0; y < TPL_HEIGHT; y++) {
+            for (int x = 0; x < TPL_WIDTH; x++) {
+                keyPoints.add(new PixelDistance(x, y, random.nextInt(3) - 1));
+            }
+        }
+
+        return new Template(
+                Shape.NOTEHEAD_BLACK,
+                null,
+                0,
+                TPL_WIDTH,
+                TPL_HEIGHT,
+                keyPoints,
+                new Rectangle(0, 0, TPL_WIDTH, TPL_HEIGHT));
+    }
+}
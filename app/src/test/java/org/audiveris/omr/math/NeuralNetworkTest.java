@@ -0,0 +1,75 @@
+/*
+ *
+ * Copyright © Audiveris 2025. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version
+ * 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this
+ * program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.audiveris.omr.math;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * Check that batch run of NeuralNetwork is consistent with single run.
+ *
+ * @author Hervé Bitteur
+ */
+public class NeuralNetworkTest
+{
+    @Test
+    public void testRunBatch ()
+    {
+        final int inputSize = 12;
+        final int hiddenSize = 7;
+        final int outputSize = 5;
+        final NeuralNetwork network = new NeuralNetwork(
+                inputSize,
+                hiddenSize,
+                outputSize,
+                0.5,
+                labels("in", inputSize),
+                labels("out", outputSize));
+
+        // More vectors than one batch block, and not a multiple of it
+        final Random random = new Random(123);
+        final double[][] inputs = new double[75][inputSize];
+
+        for (double[] ins : inputs) {
+            for (int i = 0; i < inputSize; i++) {
+                ins[i] = random.nextGaussian();
+            }
+        }
+
+        final double[][] outputs = network.runBatch(inputs);
+        assertEquals(inputs.length, outputs.length);
+
+        for (int v = 0; v < inputs.length; v++) {
+            final double[] expected = network.run(inputs[v], null, null);
+            assertArrayEquals(expected, outputs[v], 0.0);
+        }
+    }
+
+    private static String[] labels (String prefix,
+                                    int count)
+    {
+        final String[] labels = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            labels[i] = prefix + i;
+        }
+
+        return labels;
+    }
+}
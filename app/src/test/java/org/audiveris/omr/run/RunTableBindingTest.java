@@ -22,16 +22,22 @@
 package org.audiveris.omr.run;
 
 import static org.audiveris.omr.run.Orientation.HORIZONTAL;
+import static org.audiveris.omr.run.Orientation.VERTICAL;
 import org.audiveris.omr.util.BaseTestCase;
 import org.audiveris.omr.util.Jaxb;
 
 import org.junit.Test;
 
 import java.awt.Dimension;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
+import java.util.Arrays;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -54,6 +60,36 @@ public class RunTableBindingTest
 
     private JAXBContext jaxbContext;
 
+    @Test
+    public void testCodecTable ()
+            throws IOException,
+                   JAXBException
+    {
+        RunTable table = createHorizontalInstance();
+        RunTable newTable = roundTrip(table);
+        assertEquals(table.dumpOf(), newTable.dumpOf());
+        assertEquals(table, newTable);
+
+        // Large values need several bytes each
+        RunTable large = new RunTable(VERTICAL, 3000, 400);
+        large.addRun(0, new Run(0, 1));
+        large.addRun(0, new Run(130, 250));
+        large.addRun(2999, new Run(200, 200));
+
+        for (int i = 1000; i < 2000; i++) {
+            large.addRun(i, new Run(i % 300, 1 + (i % 50)));
+        }
+
+        RunTable newLarge = roundTrip(large);
+        assertEquals(VERTICAL, newLarge.getOrientation());
+        assertEquals(large, newLarge);
+
+        // In-memory encoding, as a signature of table runs
+        assertTrue(Arrays.equals(RunTableCodec.encode(large), RunTableCodec.encode(newLarge)));
+        newLarge.addRun(2998, new Run(10, 1));
+        assertFalse(Arrays.equals(RunTableCodec.encode(large), RunTableCodec.encode(newLarge)));
+    }
+
     @Test
     public void testMarshalTable ()
             throws PropertyException,
@@ -119,4 +155,19 @@ public class RunTableBindingTest
 
         return instance;
     }
+
+    //-----------//
+    // roundTrip //
+    //-----------//
+    private RunTable roundTrip (RunTable table)
+            throws IOException,
+                   JAXBException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        RunTableCodec.write(table, Channels.newChannel(os));
+        System.out.println("Encoded " + table + " in " + os.size() + " bytes");
+
+        return RunTable.unmarshal(
+                new BufferedInputStream(new ByteArrayInputStream(os.toByteArray())));
+    }
 }
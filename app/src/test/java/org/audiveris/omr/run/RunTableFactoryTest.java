@@ -0,0 +1,156 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                             R u n T a b l e F a c t o r y T e s t                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.run;
+
+import ij.process.ByteProcessor;
+
+import static org.audiveris.omr.run.Orientation.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Class <code>RunTableFactoryTest</code> checks the runs retrieved by RunTableFactory.
+ *
+ * @author Hervé Bitteur
+ */
+public class RunTableFactoryTest
+{
+    private static final int WIDTH = 523;
+
+    private static final int HEIGHT = 311;
+
+    /**
+     * Check horizontal runs against pixels.
+     */
+    @Test
+    public void testHorizontal ()
+    {
+        checkTable(HORIZONTAL, 0);
+    }
+
+    /**
+     * Check horizontal runs against pixels, with a length filter.
+     */
+    @Test
+    public void testHorizontalFiltered ()
+    {
+        checkTable(HORIZONTAL, 3);
+    }
+
+    /**
+     * Check vertical runs against pixels.
+     */
+    @Test
+    public void testVertical ()
+    {
+        checkTable(VERTICAL, 0);
+    }
+
+    /**
+     * Check vertical runs against pixels, with a length filter.
+     */
+    @Test
+    public void testVerticalFiltered ()
+    {
+        checkTable(VERTICAL, 3);
+    }
+
+    //------------//
+    // checkTable //
+    //------------//
+    private void checkTable (Orientation orientation,
+                             int minLength)
+    {
+        final ByteProcessor source = createSource();
+        final RunTableFactory factory = (minLength > 0) ? new RunTableFactory(
+                orientation,
+                new RunTableFactory.LengthFilter(minLength)) : new RunTableFactory(orientation);
+        final RunTable table = factory.createTable(source);
+        final RunTable expected = expectedTable(source, orientation, minLength);
+
+        assertEquals(expected, table);
+    }
+
+    //--------------//
+    // createSource //
+    //--------------//
+    private ByteProcessor createSource ()
+    {
+        final Random random = new Random(123);
+        final ByteProcessor source = new ByteProcessor(WIDTH, HEIGHT);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                source.set(x, y, (random.nextInt(3) == 0) ? 255 : 0);
+            }
+        }
+
+        // Some long runs, with first and last pixels set
+        for (int x = 0; x < WIDTH; x++) {
+            source.set(x, 0, 0);
+        }
+
+        for (int y = 0; y < HEIGHT; y++) {
+            source.set(WIDTH - 1, y, 0);
+        }
+
+        return source;
+    }
+
+    //---------------//
+    // expectedTable //
+    //---------------//
+    private RunTable expectedTable (ByteProcessor source,
+                                    Orientation orientation,
+                                    int minLength)
+    {
+        final boolean vertical = orientation.isVertical();
+        final int posCount = vertical ? WIDTH : HEIGHT;
+        final int coordCount = vertical ? HEIGHT : WIDTH;
+        final RunTable table = new RunTable(orientation, WIDTH, HEIGHT);
+
+        for (int p = 0; p < posCount; p++) {
+            int start = -1;
+
+            for (int c = 0; c <= coordCount; c++) {
+                final boolean fore = (c < coordCount)
+                        && ((vertical ? source.get(p, c) : source.get(c, p)) == 0);
+
+                if (fore) {
+                    if (start == -1) {
+                        start = c;
+                    }
+                } else if (start != -1) {
+                    if ((c - start) >= minLength) {
+                        table.addRun(p, new Run(start, c - start));
+                    }
+
+                    start = -1;
+                }
+            }
+        }
+
+        return table;
+    }
+}
@@ -0,0 +1,185 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                            P a r t w i s e S t r e a m e r T e s t                             //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.score.NoteMapping.MeasureInfo;
+import org.audiveris.omr.score.NoteMapping.NoteEntry;
+import org.audiveris.omr.score.NoteMapping.SheetInfo;
+import org.audiveris.omr.score.NoteMapping.StaffInfo;
+import org.audiveris.omr.score.NoteMapping.TempoInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class <code>NoteMappingStreamerTest</code> checks that a streamed note mapping gives the same
+ * JSON document as an in-memory one, and that its binary file gives access to notes by measure.
+ *
+ * @author Hervé Bitteur
+ */
+public class NoteMappingStreamerTest
+{
+    private NoteEntry createNote (String partId,
+                                  String measureNumber,
+                                  int index)
+    {
+        return new NoteEntry(
+                index,
+                100 + index,
+                partId,
+                measureNumber,
+                1,
+                "1",
+                0,
+                1,
+                0,
+                false,
+                false,
+                false,
+                index == 2,
+                false,
+                "C\"",
+                4,
+                -1,
+                60 + index,
+                60,
+                261.63,
+                "quarter",
+                1,
+                -1,
+                (index == 1) ? 7 : null,
+                index * 480,
+                480,
+                index * 0.5,
+                0.5,
+                480,
+                0.5,
+                new Rectangle(10 * index, 20, 12, 10),
+                new Point(10 * index + 6, 25),
+                new Rectangle(10 * index, 5, 12, 40),
+                0,
+                80);
+    }
+
+    private MeasureInfo createMeasure (String partId,
+                                       String measureNumber)
+    {
+        return new MeasureInfo(
+                partId,
+                measureNumber,
+                1,
+                0,
+                960,
+                1.0,
+                1920,
+                2.0,
+                new Rectangle(0, 0, 300, 80),
+                Arrays.asList(new StaffInfo(1, 0, 40), new StaffInfo(2, 60, 100)));
+    }
+
+    private void populate (NoteMapping mapping)
+    {
+        mapping.setDivisions(480);
+        mapping.addTempo(new TempoInfo("P1", "1", 0, 120.0, "quarter"));
+        mapping.addSheet(new SheetInfo(1, 2000, 3000));
+
+        for (String partId : new String[]
+        { "P1", "P2" }) {
+            for (String number : new String[]
+            { "1", "2" }) {
+                mapping.addMeasure(createMeasure(partId, number));
+
+                for (int i = 0; i < 3; i++) {
+                    mapping.addNote(createNote(partId, number, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStreamedMapping ()
+        throws IOException
+    {
+        final NoteMapping reference = new NoteMapping();
+        populate(reference);
+
+        final Path binaryPath = Files.createTempFile("mapping-", ".bin");
+
+        try {
+            try (NoteMappingStreamer streamer = new NoteMappingStreamer(binaryPath)) {
+                final NoteMapping mapping = new NoteMapping(streamer);
+                populate(mapping);
+                assertFalse(mapping.isEmpty());
+
+                final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                mapping.writeJson(bos);
+                assertEquals(reference.toJson(), bos.toString(StandardCharsets.UTF_8));
+
+                streamer.writeBinary(mapping.getDivisions());
+            }
+
+            try (NoteMappingCodec.Reader reader = new NoteMappingCodec.Reader(binaryPath)) {
+                assertEquals(480, reader.getDivisions());
+                assertEquals(4, reader.getEntries().size());
+                assertNull(reader.getEntry("P3", "1"));
+
+                final NoteMappingCodec.Entry entry = reader.getEntry("P2", "2");
+                assertEquals(3, entry.getNoteCount());
+                assertEquals(2, entry.getInfo().staves.size());
+                assertEquals(60, entry.getInfo().staves.get(1).topY);
+
+                final List<NoteEntry> notes = reader.readNotes(entry);
+                assertEquals(3, notes.size());
+
+                for (int i = 0; i < notes.size(); i++) {
+                    final NoteEntry expected = createNote("P2", "2", i);
+                    final NoteEntry note = notes.get(i);
+                    assertEquals("P2", note.partId);
+                    assertEquals("2", note.measureNumber);
+                    assertEquals(expected.globalNoteIndex, note.globalNoteIndex);
+                    assertEquals(expected.step, note.step);
+                    assertEquals(expected.isTiedStart, note.isTiedStart);
+                    assertEquals(expected.beamGroupId, note.beamGroupId);
+                    assertEquals(expected.timeOffsetSeconds, note.timeOffsetSeconds, 0);
+                    assertEquals(expected.bounds.x, note.bounds.x);
+                    assertEquals(expected.center.x, note.center.x);
+                    assertEquals(expected.chordBounds.height, note.chordBounds.height);
+                    assertEquals(expected.staffBottomY, note.staffBottomY);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(binaryPath);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                            P a r t w i s e S t r e a m e r T e s t                             //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2025. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.proxymusic.Attributes;
+import org.audiveris.proxymusic.ObjectFactory;
+import org.audiveris.proxymusic.PartList;
+import org.audiveris.proxymusic.PartName;
+import org.audiveris.proxymusic.ScorePart;
+import org.audiveris.proxymusic.ScorePartwise;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ * Class <code>PartwiseStreamerTest</code> checks that a document written measure after measure
+ * is a regular MusicXML partwise document, with measures regrouped part by part.
+ *
+ * @author Hervé Bitteur
+ */
+public class PartwiseStreamerTest
+{
+    private final ObjectFactory factory = new ObjectFactory();
+
+    private ScorePartwise.Part.Measure createMeasure (int number)
+    {
+        final ScorePartwise.Part.Measure pmMeasure = factory.createScorePartwisePartMeasure();
+        pmMeasure.setNumber(Integer.toString(number));
+
+        final Attributes attributes = factory.createAttributes();
+        attributes.setDivisions(new BigDecimal(number));
+        pmMeasure.getNoteOrBackupOrForward().add(attributes);
+
+        return pmMeasure;
+    }
+
+    private ScorePartwise.Part createPart (ScorePartwise scorePartwise,
+                                           String id)
+    {
+        final ScorePart pmScorePart = factory.createScorePart();
+        pmScorePart.setId(id);
+
+        final PartName partName = factory.createPartName();
+        partName.setValue("Name of " + id);
+        pmScorePart.setPartName(partName);
+        scorePartwise.getPartList().getPartGroupOrScorePart().add(pmScorePart);
+
+        final ScorePartwise.Part pmPart = factory.createScorePartwisePart();
+        pmPart.setId(pmScorePart);
+        scorePartwise.getPart().add(pmPart);
+
+        return pmPart;
+    }
+
+    private static String text (Element element,
+                                String tagName)
+    {
+        return element.getElementsByTagName(tagName).item(0).getTextContent();
+    }
+
+    @Test
+    public void testWrite ()
+        throws Exception
+    {
+        final ScorePartwise scorePartwise = factory.createScorePartwise();
+        scorePartwise.setMovementTitle("Streamed");
+        final PartList partList = factory.createPartList();
+        scorePartwise.setPartList(partList);
+
+        final ScorePartwise.Part p1 = createPart(scorePartwise, "P1");
+        final ScorePartwise.Part p2 = createPart(scorePartwise, "P2");
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        try (PartwiseStreamer streamer = new PartwiseStreamer()) {
+            // Measures arrive page by page, part by part
+            streamer.accept(p1, createMeasure(1));
+            streamer.accept(p1, createMeasure(2));
+            streamer.accept(p2, createMeasure(1));
+            streamer.accept(p2, createMeasure(2));
+            streamer.accept(p1, createMeasure(3));
+            streamer.accept(p2, createMeasure(3));
+
+            streamer.write(scorePartwise, os, true);
+        }
+
+        final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+
+        final Document doc = dbf.newDocumentBuilder().parse(
+                new ByteArrayInputStream(os.toByteArray()));
+        final Element root = doc.getDocumentElement();
+        assertEquals("score-partwise", root.getTagName());
+        assertEquals("Streamed", text(root, "movement-title"));
+        assertEquals(1, root.getElementsByTagName("software").getLength());
+        assertEquals(2, root.getElementsByTagName("score-part").getLength());
+
+        final NodeList parts = root.getElementsByTagName("part");
+        assertEquals(2, parts.getLength());
+
+        for (int ip = 0; ip < parts.getLength(); ip++) {
+            final Element part = (Element) parts.item(ip);
+            assertEquals("P" + (ip + 1), part.getAttribute("id"));
+
+            final NodeList measures = part.getElementsByTagName("measure");
+            assertEquals(3, measures.getLength());
+
+            for (int im = 0; im < measures.getLength(); im++) {
+                final Element measure = (Element) measures.item(im);
+                assertEquals(Integer.toString(im + 1), measure.getAttribute("number"));
+                assertEquals(Integer.toString(im + 1), text(measure, "divisions"));
+            }
+        }
+    }
+}
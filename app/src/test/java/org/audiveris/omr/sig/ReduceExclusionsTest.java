@@ -0,0 +1,245 @@
+/*
+ *
+ * Copyright © Audiveris 2025. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version
+ * 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this
+ * program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.audiveris.omr.sig;
+
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SheetStub;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sig.inter.AbstractInter;
+import org.audiveris.omr.sig.inter.Inter;
+import org.audiveris.omr.sig.relation.Exclusion;
+import org.audiveris.omr.sig.relation.Exclusion.ExclusionCause;
+import org.audiveris.omr.sig.relation.Relation;
+import org.audiveris.omr.sig.relation.Support;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Check that SIGraph.reduceExclusions removes the same inters, in the same order, as the
+ * former scan of all exclusions at each iteration.
+ * <p>
+ * Inter grades are picked from a few values, so that many ties occur in contextual grades.
+ *
+ * @author Hervé Bitteur
+ */
+public class ReduceExclusionsTest
+{
+    private static final double[] GRADES = new double[]{0.2, 0.35, 0.5, 0.65, 0.8};
+
+    /** Dummy system, just to host the sigs. */
+    private final SystemInfo system = new SystemInfo(
+            1,
+            new Sheet(
+                    new SheetStub(new Book(Paths.get("reduce-exclusions.pdf")), 1),
+                    (RunTable) null),
+            new ArrayList<>());
+
+    @Test
+    public void testRandomGraphs ()
+    {
+        int total = 0;
+
+        for (int seed = 1; seed <= 200; seed++) {
+            final List<Integer> expected = reduce(seed, true);
+            final List<Integer> actual = reduce(seed, false);
+            assertEquals("seed " + seed, expected, actual);
+            total += actual.size();
+        }
+
+        assertTrue("No inter removed", total > 0);
+    }
+
+    //--------//
+    // reduce //
+    //--------//
+    /**
+     * Build a random exclusion graph and reduce its exclusions.
+     *
+     * @param seed   seed for random graph
+     * @param oldWay true for former full scan, false for SIGraph.reduceExclusions
+     * @return the indices of removed inters, in removal order
+     */
+    private List<Integer> reduce (int seed,
+                                  boolean oldWay)
+    {
+        final Random random = new Random(seed);
+        final SIGraph sig = new SIGraph(system);
+        final int count = 5 + random.nextInt(30);
+        final List<Inter> inters = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            final Inter inter = new TestInter(GRADES[random.nextInt(GRADES.length)]);
+            sig.addVertex(inter);
+            inters.add(inter);
+        }
+
+        final List<Relation> exclusions = new ArrayList<>();
+
+        for (int i = 0; i < 2 * count; i++) {
+            final Inter source = inters.get(random.nextInt(count));
+            final Inter target = inters.get(random.nextInt(count));
+
+            if ((source == target) || (sig.getRelation(source, target, Relation.class) != null)
+                    || (sig.getRelation(target, source, Relation.class) != null)) {
+                continue;
+            }
+
+            if (random.nextInt(3) == 0) {
+                sig.addEdge(source, target, new TestSupport(GRADES[random.nextInt(GRADES.length)]));
+            } else {
+                final Relation exclusion = new Exclusion(ExclusionCause.OVERLAP);
+                sig.addEdge(source, target, exclusion);
+                exclusions.add(exclusion);
+            }
+        }
+
+        for (Inter inter : inters) {
+            sig.computeContextualGrade(inter);
+        }
+
+        final Set<Inter> removed = oldWay ? scanExclusions(sig, exclusions)
+                : sig.reduceExclusions(exclusions);
+        final List<Integer> indices = new ArrayList<>();
+
+        for (Inter inter : removed) {
+            indices.add(inters.indexOf(inter));
+        }
+
+        return indices;
+    }
+
+    //----------------//
+    // scanExclusions //
+    //----------------//
+    /**
+     * Former implementation of reduceExclusions, which rescans all exclusions at each iteration.
+     */
+    private static Set<Inter> scanExclusions (SIGraph sig,
+                                              List<Relation> exclusions)
+    {
+        final Set<Inter> removed = new LinkedHashSet<>();
+        Relation bestRel;
+
+        do {
+            double bestCP = 0;
+            bestRel = null;
+
+            for (Iterator<Relation> it = exclusions.iterator(); it.hasNext();) {
+                final Relation rel = it.next();
+
+                if (sig.containsEdge(rel)) {
+                    final double cp = Math.max(
+                            sig.getEdgeSource(rel).getBestGrade(),
+                            sig.getEdgeTarget(rel).getBestGrade());
+
+                    if (bestCP < cp) {
+                        bestCP = cp;
+                        bestRel = rel;
+                    }
+                } else {
+                    it.remove();
+                }
+            }
+
+            if (bestRel != null) {
+                final Inter source = sig.getEdgeSource(bestRel);
+                final Inter target = sig.getEdgeTarget(bestRel);
+                final Inter weaker = (source.getBestGrade() < target.getBestGrade()) ? source
+                        : target;
+
+                final Set<Inter> involved = new LinkedHashSet<>();
+
+                for (Support support : sig.getSupports(weaker)) {
+                    involved.add(sig.getEdgeSource(support));
+                    involved.add(sig.getEdgeTarget(support));
+                }
+
+                involved.remove(weaker);
+
+                removed.add(weaker);
+                weaker.remove();
+
+                for (Inter inter : involved) {
+                    sig.computeContextualGrade(inter);
+                }
+
+                exclusions.remove(bestRel);
+            }
+        } while (bestRel != null);
+
+        return removed;
+    }
+
+    //-----------//
+    // TestInter //
+    //-----------//
+    private static class TestInter
+            extends AbstractInter
+    {
+        TestInter (double grade)
+        {
+            super(null, null, null, grade);
+        }
+    }
+
+    //-------------//
+    // TestSupport //
+    //-------------//
+    private static class TestSupport
+            extends Support
+    {
+        TestSupport (double grade)
+        {
+            super(grade);
+        }
+
+        @Override
+        protected double getSourceCoeff ()
+        {
+            return 1;
+        }
+
+        @Override
+        protected double getTargetCoeff ()
+        {
+            return 1;
+        }
+
+        @Override
+        public boolean isSingleSource ()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isSingleTarget ()
+        {
+            return false;
+        }
+    }
+}
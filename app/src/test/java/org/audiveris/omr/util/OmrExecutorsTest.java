@@ -0,0 +1,67 @@
+/*
+ *
+ * Copyright © Audiveris 2025. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version
+ * 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this
+ * program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.audiveris.omr.util;
+
+import org.audiveris.omr.step.ProcessingCancellationException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Check {@link OmrExecutors#processRange}.
+ *
+ * @author Hervé Bitteur
+ */
+public class OmrExecutorsTest
+{
+    @Test
+    public void testInterrupted ()
+    {
+        Thread.currentThread().interrupt();
+
+        try {
+            OmrExecutors.processRange(0, 9_999, 1, (min, max) -> {});
+            fail("ProcessingCancellationException expected");
+        } catch (ProcessingCancellationException expected) {
+            // Expected
+        } finally {
+            Thread.interrupted(); // Clear interrupt status
+        }
+    }
+
+    @Test
+    public void testProcessRange ()
+    {
+        final int first = 13;
+        final int last = 9_876;
+        final AtomicIntegerArray hits = new AtomicIntegerArray(last + 1);
+
+        OmrExecutors.processRange(first, last, 7, (min, max) -> {
+            assertTrue((first <= min) && (min <= max) && (max <= last));
+
+            for (int i = min; i <= max; i++) {
+                hits.incrementAndGet(i);
+            }
+        });
+
+        for (int i = 0; i <= last; i++) {
+            assertEquals("index " + i, (i < first) ? 0 : 1, hits.get(i));
+        }
+    }
+}
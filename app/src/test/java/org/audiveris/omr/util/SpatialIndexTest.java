@@ -0,0 +1,195 @@
+/*
+ *
+ * Copyright © Audiveris 2025. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version
+ * 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this
+ * program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.audiveris.omr.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Check that spatial lookups in BasicIndex give the same results as linear scans.
+ *
+ * @author Hervé Bitteur
+ */
+public class SpatialIndexTest
+{
+    @Test
+    public void testEager ()
+    {
+        check(false);
+    }
+
+    @Test
+    public void testLazy ()
+    {
+        check(true);
+    }
+
+    @Test
+    public void testLazyInterleaved ()
+    {
+        // Each lookup registers just the boxes added since previous lookup
+        final Random random = new Random(3);
+        final BoxIndex index = new BoxIndex(true);
+        final List<Box> boxes = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            final Box box = new Box(randomRect(random, 300));
+            index.register(box);
+            boxes.add(box);
+
+            if (random.nextInt(4) == 0) {
+                index.remove(boxes.remove(random.nextInt(boxes.size())));
+            }
+
+            final Rectangle rect = randomRect(random, 400);
+            assertEquals(
+                    Entities.intersectedEntities(index.iterator(), rect),
+                    index.getIntersectedEntities(rect));
+        }
+    }
+
+    @Test
+    public void testUpdate ()
+    {
+        for (boolean lazy : new boolean[]{true, false}) {
+            final Random random = new Random(lazy ? 5 : 6);
+            final BoxIndex index = new BoxIndex(lazy);
+            final List<Box> boxes = new ArrayList<>();
+
+            for (int i = 0; i < 200; i++) {
+                final Box box = new Box(randomRect(random, 100));
+                index.register(box);
+                boxes.add(box);
+            }
+
+            for (int i = 0; i < 300; i++) {
+                // Grow a box, like a section being built
+                final Box box = boxes.get(random.nextInt(boxes.size()));
+                box.rect.add(randomRect(random, 200));
+                index.updateBounds(box);
+
+                final Rectangle rect = randomRect(random, 400);
+                assertEquals(
+                        Entities.intersectedEntities(index.iterator(), rect),
+                        index.getIntersectedEntities(rect));
+                assertEquals(
+                        Entities.containedEntities(index.iterator(), rect),
+                        index.getContainedEntities(rect));
+            }
+        }
+    }
+
+    private void check (boolean lazy)
+    {
+        final Random random = new Random(lazy ? 1 : 2);
+        final BoxIndex index = new BoxIndex(lazy);
+        final List<Box> boxes = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            final Box box = new Box(randomRect(random, 600));
+            index.register(box);
+            boxes.add(box);
+        }
+
+        // Remove some boxes
+        for (int i = 0; i < 100; i++) {
+            index.remove(boxes.remove(random.nextInt(boxes.size())));
+        }
+
+        // Add boxes after a first lookup
+        index.getIntersectedEntities(new Rectangle(0, 0, 10, 10));
+
+        for (int i = 0; i < 50; i++) {
+            final Box box = new Box(randomRect(random, 600));
+            index.register(box);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            final Rectangle rect = randomRect(random, 400);
+            assertEquals(
+                    Entities.intersectedEntities(index.iterator(), rect),
+                    index.getIntersectedEntities(rect));
+            assertEquals(
+                    Entities.containedEntities(index.iterator(), rect),
+                    index.getContainedEntities(rect));
+
+            final Point point = new Point(random.nextInt(1200) - 100, random.nextInt(1200) - 100);
+            assertEquals(
+                    Entities.containingEntities(index.iterator(), point),
+                    index.getContainingEntities(point));
+        }
+
+        index.reset();
+        assertTrue(index.getIntersectedEntities(new Rectangle(0, 0, 1000, 1000)).isEmpty());
+    }
+
+    private static Rectangle randomRect (Random random,
+                                         int maxSide)
+    {
+        return new Rectangle(
+                random.nextInt(1000) - 50,
+                random.nextInt(1000) - 50,
+                1 + random.nextInt(maxSide),
+                1 + random.nextInt(maxSide));
+    }
+
+    //-----//
+    // Box //
+    //-----//
+    private static class Box
+            extends AbstractEntity
+    {
+        private final Rectangle rect;
+
+        Box (Rectangle rect)
+        {
+            this.rect = rect;
+        }
+
+        @Override
+        public boolean contains (Point point)
+        {
+            return rect.contains(point);
+        }
+
+        @Override
+        public Rectangle getBounds ()
+        {
+            return new Rectangle(rect);
+        }
+    }
+
+    //----------//
+    // BoxIndex //
+    //----------//
+    private static class BoxIndex
+            extends BasicIndex<Box>
+    {
+        BoxIndex (boolean lazy)
+        {
+            super(new AtomicInteger(0));
+            enableSpatialIndex(lazy);
+        }
+    }
+}